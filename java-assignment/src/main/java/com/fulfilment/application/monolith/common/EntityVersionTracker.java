@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.core.EntityTag;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class EntityVersionTracker {
+
+  private static final long DELETED = Long.MAX_VALUE;
+  private static final int STRIPES = 16;
+
+  @Inject TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+  @ConfigProperty(name = "http.etag.local-versions.enabled", defaultValue = "false")
+  boolean localVersionsEnabled;
+
+  @ConfigProperty(name = "http.etag.local-versions.max-entries", defaultValue = "100000")
+  int maxEntries = 100_000;
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final ConcurrentMap<Class<?>, Versions> versions = new ConcurrentHashMap<>();
+
+  public Long knownVersion(Class<?> type, Long id) {
+    if (!localVersionsEnabled) {
+      return null;
+    }
+    Long version = versionsOf(type).get(id);
+    return version == null || version == DELETED ? null : version;
+  }
+
+  public void observed(Class<?> type, Long id, Long version) {
+    if (id != null && version != null) {
+      versionsOf(type).merge(id, version);
+    }
+  }
+
+  public void changed(Class<?> type, Long id, Long version) {
+    Versions tracked = versionsOf(type);
+    observed(type, id, version);
+    tracked.generation.incrementAndGet();
+    afterCompletion(tracked);
+  }
+
+  public void deleted(Class<?> type, Long id) {
+    Versions tracked = versionsOf(type);
+    tracked.merge(id, DELETED);
+    tracked.generation.incrementAndGet();
+    afterCompletion(tracked);
+  }
+
+  public EntityTag entityTag(Class<?> type, Long id, Long version) {
+    return new EntityTag(prefix(type) + "-" + id + "-" + (version == null ? 0 : version));
+  }
+
+  public EntityTag collectionTag(Class<?> type) {
+    if (!localVersionsEnabled) {
+      return null;
+    }
+    return new EntityTag(prefix(type) + "s-" + epoch + "-" + versionsOf(type).generation.get());
+  }
+
+  public int trackedCount(Class<?> type) {
+    return versionsOf(type).size();
+  }
+
+  public static boolean matches(String ifNoneMatch, EntityTag tag) {
+    if (ifNoneMatch == null || tag == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String value = candidate.trim();
+      if (value.equals("*")) {
+        return true;
+      }
+      if (value.startsWith("W/")) {
+        value = value.substring(2);
+      }
+      if (value.length() >= 2
+          && value.startsWith("\"")
+          && value.endsWith("\"")
+          && value.substring(1, value.length() - 1).equals(tag.getValue())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void afterCompletion(Versions tracked) {
+    if (transactionSynchronizationRegistry == null
+        || transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      return;
+    }
+    transactionSynchronizationRegistry.registerInterposedSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            tracked.generation.incrementAndGet();
+          }
+        });
+  }
+
+  private Versions versionsOf(Class<?> type) {
+    return versions.computeIfAbsent(type, ignored -> new Versions(Math.max(1, maxEntries / STRIPES)));
+  }
+
+  private static String prefix(Class<?> type) {
+    return type.getSimpleName().toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Versions {
+    final Stripe[] stripes = new Stripe[STRIPES];
+    final AtomicLong generation = new AtomicLong();
+
+    Versions(int maxEntriesPerStripe) {
+      for (int i = 0; i < STRIPES; i++) {
+        stripes[i] = new Stripe(maxEntriesPerStripe);
+      }
+    }
+
+    Long get(Long id) {
+      Stripe stripe = stripeFor(id);
+      synchronized (stripe) {
+        return stripe.byId.get(id);
+      }
+    }
+
+    void merge(Long id, Long version) {
+      Stripe stripe = stripeFor(id);
+      synchronized (stripe) {
+        stripe.byId.merge(id, version, Math::max);
+      }
+    }
+
+    int size() {
+      int size = 0;
+      for (Stripe stripe : stripes) {
+        synchronized (stripe) {
+          size += stripe.byId.size();
+        }
+      }
+      return size;
+    }
+
+    private Stripe stripeFor(Long id) {
+      return stripes[Long.hashCode(id) & (STRIPES - 1)];
+    }
+  }
+
+  private static final class Stripe {
+    final LinkedHashMap<Long, Long> byId;
+
+    Stripe(int maxEntries) {
+      byId =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+              return size() > maxEntries;
+            }
+          };
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -9,11 +10,14 @@ import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
@@ -27,22 +31,44 @@ import org.jboss.logging.Logger;
 public class ProductResource {
 
   @Inject ProductRepository productRepository;
+  @Inject EntityVersionTracker entityVersionTracker;
 
   private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
 
   @GET
-  public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+  public Response get(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+    EntityTag tag = entityVersionTracker.collectionTag(Product.class);
+    if (EntityVersionTracker.matches(ifNoneMatch, tag)) {
+      return Response.notModified(tag).build();
+    }
+    List<Product> products = productRepository.listAll(Sort.by("name"));
+    for (Product product : products) {
+      entityVersionTracker.observed(Product.class, product.id, product.version);
+    }
+    return Response.ok(products).tag(tag).build();
   }
 
   @GET
   @Path("{id}")
-  public Product getSingle(Long id) {
+  public Response getSingle(Long id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+    Long knownVersion = entityVersionTracker.knownVersion(Product.class, id);
+    if (knownVersion != null) {
+      EntityTag tag = entityVersionTracker.entityTag(Product.class, id, knownVersion);
+      if (EntityVersionTracker.matches(ifNoneMatch, tag)) {
+        return Response.notModified(tag).build();
+      }
+    }
+
     Product entity = productRepository.findById(id);
     if (entity == null) {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
-    return entity;
+    entityVersionTracker.observed(Product.class, id, entity.version);
+    EntityTag tag = entityVersionTracker.entityTag(Product.class, id, entity.version);
+    if (EntityVersionTracker.matches(ifNoneMatch, tag)) {
+      return Response.notModified(tag).build();
+    }
+    return Response.ok(entity).tag(tag).build();
   }
 
   @POST
@@ -53,6 +79,7 @@ public class ProductResource {
     }
 
     productRepository.persist(product);
+    entityVersionTracker.changed(Product.class, product.id, product.version);
     return Response.ok(product).status(201).build();
   }
 
@@ -76,6 +103,8 @@ public class ProductResource {
     entity.stock = product.stock;
 
     productRepository.persist(entity);
+    productRepository.flush();
+    entityVersionTracker.changed(Product.class, id, entity.version);
 
     return entity;
   }
@@ -89,6 +118,7 @@ public class ProductResource {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
     productRepository.delete(entity);
+    entityVersionTracker.deleted(Product.class, id);
     return Response.status(204).build();
   }
 
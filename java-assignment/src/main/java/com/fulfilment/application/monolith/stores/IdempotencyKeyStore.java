@@ -0,0 +1,205 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class IdempotencyKeyStore {
+
+  private static final int STRIPES = 16;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final int maxEntriesPerStripe;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public IdempotencyKeyStore(int maxEntries, Duration ttl) {
+    this(maxEntries, ttl, System::nanoTime);
+  }
+
+  IdempotencyKeyStore(int maxEntries, Duration ttl, LongSupplier clock) {
+    this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  public boolean markIfAbsent(String idempotencyKey) {
+    Key key = Key.of(idempotencyKey);
+    Stripe stripe = stripeFor(key);
+    long now = clock.getAsLong();
+    synchronized (stripe) {
+      expire(stripe, now);
+      Long insertedAt = stripe.entries.get(key);
+      if (insertedAt != null) {
+        hits.increment();
+        return false;
+      }
+      stripe.entries.put(key, now);
+      if (stripe.entries.size() > maxEntriesPerStripe) {
+        Iterator<Key> eldest = stripe.entries.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+        evictions.increment();
+      }
+      misses.increment();
+      return true;
+    }
+  }
+
+  public void forget(String idempotencyKey) {
+    Key key = Key.of(idempotencyKey);
+    Stripe stripe = stripeFor(key);
+    synchronized (stripe) {
+      stripe.entries.remove(key);
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.entries.size();
+      }
+    }
+    return size;
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        stripe.entries.clear();
+      }
+    }
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  private void expire(Stripe stripe, long now) {
+    Iterator<Map.Entry<Key, Long>> iterator = stripe.entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      if (now - iterator.next().getValue() < ttlNanos) {
+        return;
+      }
+      iterator.remove();
+      evictions.increment();
+    }
+  }
+
+  private Stripe stripeFor(Key key) {
+    return stripes[(int) (key.high >>> 60) & (STRIPES - 1)];
+  }
+
+  private static final class Stripe {
+    final LinkedHashMap<Key, Long> entries = new LinkedHashMap<>();
+  }
+
+  static final class Key {
+    final long high;
+    final long low;
+
+    Key(long high, long low) {
+      this.high = high;
+      this.low = low;
+    }
+
+    static Key of(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      return murmur3x64_128(bytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return high == key.high && low == key.low;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (low ^ (low >>> 32));
+    }
+
+    private static Key murmur3x64_128(byte[] data) {
+      final long c1 = 0x87c37b91114253d5L;
+      final long c2 = 0x4cf5ad432745937fL;
+      int length = data.length;
+      int blocks = length / 16;
+      long h1 = 0;
+      long h2 = 0;
+      for (int i = 0; i < blocks; i++) {
+        long k1 = littleEndianLong(data, i * 16);
+        long k2 = littleEndianLong(data, i * 16 + 8);
+        h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+        h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+        h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+        h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+      }
+      long k1 = 0;
+      long k2 = 0;
+      int tail = blocks * 16;
+      for (int i = length - tail - 1; i >= 8; i--) {
+        k2 = (k2 << 8) | (data[tail + i] & 0xffL);
+      }
+      for (int i = Math.min(7, length - tail - 1); i >= 0; i--) {
+        k1 = (k1 << 8) | (data[tail + i] & 0xffL);
+      }
+      if (length - tail > 8) {
+        h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+      }
+      if (length - tail > 0) {
+        h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+      }
+      h1 ^= length;
+      h2 ^= length;
+      h1 += h2;
+      h2 += h1;
+      h1 = fmix64(h1);
+      h2 = fmix64(h2);
+      h1 += h2;
+      h2 += h1;
+      return new Key(h1, h2);
+    }
+
+    private static long littleEndianLong(byte[] data, int offset) {
+      long value = 0;
+      for (int i = 7; i >= 0; i--) {
+        value = (value << 8) | (data[offset + i] & 0xffL);
+      }
+      return value;
+    }
+
+    private static long fmix64(long value) {
+      value ^= value >>> 33;
+      value *= 0xff51afd7ed558ccdL;
+      value ^= value >>> 33;
+      value *= 0xc4ceb93fe53a87c3L;
+      value ^= value >>> 33;
+      return value;
+    }
+  }
+}
@@ -1,24 +1,101 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.stores.outbox.OutboxPayloadCodecs;
 import com.fulfilment.application.monolith.stores.outbox.StoreChangedEventPayload;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.nio.file.Files;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
   private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class);
-  private final Set<String> processedIdempotencyKeys = ConcurrentHashMap.newKeySet();
+  private static final int DEFAULT_IDEMPOTENCY_MAX_ENTRIES = 100_000;
+  private static final long DEFAULT_IDEMPOTENCY_TTL_MINUTES = 60;
+  private static final int DEFAULT_APPLIED_VERSIONS_MAX_ENTRIES = 100_000;
+
+  @Inject OutboxPayloadCodecs payloadCodecs;
+
+  @ConfigProperty(name = "legacy.gateway.idempotency.max-entries", defaultValue = "100000")
+  int idempotencyMaxEntries = DEFAULT_IDEMPOTENCY_MAX_ENTRIES;
+
+  @ConfigProperty(name = "legacy.gateway.idempotency.ttl-minutes", defaultValue = "60")
+  long idempotencyTtlMinutes = DEFAULT_IDEMPOTENCY_TTL_MINUTES;
+
+  @ConfigProperty(name = "legacy.gateway.applied-versions.max-entries", defaultValue = "100000")
+  int appliedVersionsMaxEntries = DEFAULT_APPLIED_VERSIONS_MAX_ENTRIES;
+
+  @ConfigProperty(name = "legacy.gateway.sync-log.directory")
+  Optional<String> syncLogDirectory = Optional.empty();
+
+  @ConfigProperty(name = "legacy.gateway.sync-log.segment-bytes", defaultValue = "67108864")
+  long syncLogSegmentBytes = 64L * 1024 * 1024;
+
+  @ConfigProperty(name = "legacy.gateway.sync-log.max-segments", defaultValue = "8")
+  int syncLogMaxSegments = 8;
+
+  @ConfigProperty(name = "legacy.gateway.sync-log.flush-interval-ms", defaultValue = "50")
+  long syncLogFlushIntervalMs = 50;
+
+  @ConfigProperty(name = "legacy.gateway.simulated-latency-ms", defaultValue = "0")
+  volatile long simulatedLatencyMs;
+
+  @ConfigProperty(name = "legacy.gateway.simulated-failure-rate", defaultValue = "0")
+  volatile double simulatedFailureRate;
+
+  private SegmentedAppendLog syncLog;
+  private IdempotencyKeyStore processedIdempotencyKeys =
+      new IdempotencyKeyStore(
+          DEFAULT_IDEMPOTENCY_MAX_ENTRIES, Duration.ofMinutes(DEFAULT_IDEMPOTENCY_TTL_MINUTES));
+  private final Map<Long, Long> appliedVersions =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+          return size() > Math.max(1, appliedVersionsMaxEntries);
+        }
+      };
   private final AtomicInteger processedEvents = new AtomicInteger();
+  private final AtomicInteger staleEventsDropped = new AtomicInteger();
   private final AtomicBoolean failNextPublication = new AtomicBoolean(false);
   private volatile boolean alwaysFailPublications;
 
+  @PostConstruct
+  void init() {
+    processedIdempotencyKeys =
+        new IdempotencyKeyStore(idempotencyMaxEntries, Duration.ofMinutes(idempotencyTtlMinutes));
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    if (syncLog != null) {
+      syncLog.close();
+      syncLog = null;
+    }
+  }
+
+  public void publishEncodedStoreEvent(
+      String eventId,
+      String idempotencyKey,
+      String eventType,
+      int schemaVersion,
+      String correlationId,
+      byte[] encodedPayload) {
+    StoreChangedEventPayload payload = payloadCodecs.forSchemaVersion(schemaVersion).decode(encodedPayload);
+    publishStoreEvent(eventId, idempotencyKey, eventType, schemaVersion, correlationId, payload);
+  }
+
   public void publishStoreEvent(
       String eventId,
       String idempotencyKey,
@@ -26,38 +103,151 @@ public class LegacyStoreManagerGateway {
       int schemaVersion,
       String correlationId,
       StoreChangedEventPayload payload) {
-    if (alwaysFailPublications || failNextPublication.getAndSet(false)) {
+    if (alwaysFailPublications || failNextPublication.getAndSet(false) || simulateRandomFailure()) {
       throw new IllegalStateException("Legacy gateway simulated failure");
     }
+    simulateLatency();
 
-    if (!processedIdempotencyKeys.add(idempotencyKey)) {
+    if (!processedIdempotencyKeys.markIfAbsent(idempotencyKey)) {
       LOGGER.infof("Ignoring duplicated store sync event idempotencyKey=%s", idempotencyKey);
       return;
     }
 
-    writeToFile(eventId, idempotencyKey, eventType, schemaVersion, correlationId, payload);
+    Long previousVersion = null;
+    boolean versioned = payload != null && payload.storeId != null && payload.version != null;
+    if (versioned) {
+      VersionAdvance advance = advanceAppliedVersion(payload.storeId, payload.version);
+      if (!advance.applied()) {
+        staleEventsDropped.incrementAndGet();
+        LOGGER.infof(
+            "Ignoring stale store sync event storeId=%s version=%s lastApplied=%s",
+            payload.storeId,
+            payload.version,
+            advance.previousVersion());
+        return;
+      }
+      previousVersion = advance.previousVersion();
+    }
+
+    try {
+      writeToFile(eventId, idempotencyKey, eventType, schemaVersion, correlationId, payload);
+    } catch (RuntimeException ex) {
+      processedIdempotencyKeys.forget(idempotencyKey);
+      if (versioned) {
+        restoreAppliedVersion(payload.storeId, payload.version, previousVersion);
+      }
+      throw ex;
+    }
     processedEvents.incrementAndGet();
   }
 
+  public Long appliedVersion(Long storeId) {
+    synchronized (appliedVersions) {
+      return appliedVersions.get(storeId);
+    }
+  }
+
+  public int appliedVersionsSize() {
+    synchronized (appliedVersions) {
+      return appliedVersions.size();
+    }
+  }
+
+  public int staleEventsDroppedCount() {
+    return staleEventsDropped.get();
+  }
+
+  private VersionAdvance advanceAppliedVersion(Long storeId, Long version) {
+    synchronized (appliedVersions) {
+      Long current = appliedVersions.get(storeId);
+      if (current != null && version <= current) {
+        return new VersionAdvance(false, current);
+      }
+      appliedVersions.put(storeId, version);
+      return new VersionAdvance(true, current);
+    }
+  }
+
+  private record VersionAdvance(boolean applied, Long previousVersion) {}
+
+  private void restoreAppliedVersion(Long storeId, Long version, Long previousVersion) {
+    synchronized (appliedVersions) {
+      if (previousVersion == null) {
+        appliedVersions.remove(storeId, version);
+      } else {
+        appliedVersions.replace(storeId, version, previousVersion);
+      }
+    }
+  }
+
   public int processedEventsCount() {
     return processedEvents.get();
   }
 
+  public IdempotencyKeyStore idempotencyKeys() {
+    return processedIdempotencyKeys;
+  }
+
+  public synchronized SegmentedAppendLog syncLog() {
+    if (syncLog == null) {
+      Path directory =
+          Path.of(syncLogDirectory.orElseGet(() -> System.getProperty("java.io.tmpdir") + "/legacy-store-sync"));
+      syncLog =
+          new SegmentedAppendLog(
+              directory, "legacy-store-sync", syncLogSegmentBytes, syncLogMaxSegments, syncLogFlushIntervalMs);
+    }
+    return syncLog;
+  }
+
+  public void setPayloadCodecs(OutboxPayloadCodecs payloadCodecs) {
+    this.payloadCodecs = payloadCodecs;
+  }
+
   public void failNextPublication() {
     failNextPublication.set(true);
   }
 
+  public void setSimulatedLatencyMs(long simulatedLatencyMs) {
+    this.simulatedLatencyMs = simulatedLatencyMs;
+  }
+
+  public void setSimulatedFailureRate(double simulatedFailureRate) {
+    this.simulatedFailureRate = simulatedFailureRate;
+  }
+
   public void setAlwaysFailPublications(boolean alwaysFailPublications) {
     this.alwaysFailPublications = alwaysFailPublications;
   }
 
   public void clearTestState() {
     processedEvents.set(0);
+    staleEventsDropped.set(0);
+    synchronized (appliedVersions) {
+      appliedVersions.clear();
+    }
     failNextPublication.set(false);
     alwaysFailPublications = false;
     processedIdempotencyKeys.clear();
   }
 
+  private boolean simulateRandomFailure() {
+    double failureRate = simulatedFailureRate;
+    return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+  }
+
+  private void simulateLatency() {
+    long latencyMs = simulatedLatencyMs;
+    if (latencyMs <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(latencyMs);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while simulating legacy gateway latency", ex);
+    }
+  }
+
   private void writeToFile(
       String eventId,
       String idempotencyKey,
@@ -66,8 +256,6 @@ public class LegacyStoreManagerGateway {
       String correlationId,
       StoreChangedEventPayload payload) {
     try {
-      Path tempFile = Files.createTempFile("legacy-store-sync-", ".txt");
-
       String content =
           "eventId="
               + eventId
@@ -85,10 +273,11 @@ public class LegacyStoreManagerGateway {
               + payload.name
               + ",itemsOnStock="
               + payload.quantityProductsInStock
-              + "]";
+              + ",aggregateVersion="
+              + payload.version
+              + "]\n";
 
-      Files.write(tempFile, content.getBytes());
-      Files.delete(tempFile);
+      syncLog().append(content.getBytes(StandardCharsets.UTF_8));
     } catch (Exception ex) {
       throw new IllegalStateException("Failed to write to legacy sync file", ex);
     }
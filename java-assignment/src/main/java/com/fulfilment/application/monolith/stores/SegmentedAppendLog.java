@@ -0,0 +1,243 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class SegmentedAppendLog implements AutoCloseable {
+
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final Path directory;
+  private final String prefix;
+  private final long maxSegmentBytes;
+  private final int maxSegments;
+  private final long flushIntervalMs;
+  private final long flushIntervalNanos;
+
+  private FileChannel channel;
+  private Path currentSegment;
+  private long currentSegmentBytes;
+  private long nextSequence = -1;
+  private long lastForceNanos = System.nanoTime();
+  private boolean dirty;
+  private long appendedRecords;
+  private long forcedSyncs;
+  private long rotations;
+  private ScheduledExecutorService flusher;
+
+  public SegmentedAppendLog(
+      Path directory, String prefix, long maxSegmentBytes, int maxSegments, long flushIntervalMs) {
+    this.directory = directory;
+    this.prefix = prefix;
+    this.maxSegmentBytes = maxSegmentBytes;
+    this.maxSegments = Math.max(1, maxSegments);
+    this.flushIntervalMs = flushIntervalMs;
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+  }
+
+  public synchronized void append(byte[] record) {
+    try {
+      if (channel == null || (currentSegmentBytes > 0 && currentSegmentBytes + record.length > maxSegmentBytes)) {
+        rotate();
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(record);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      currentSegmentBytes += record.length;
+      appendedRecords++;
+      dirty = true;
+      long now = System.nanoTime();
+      if (now - lastForceNanos >= flushIntervalNanos) {
+        force(now);
+      } else if (flusher == null) {
+        startFlusher();
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to append to " + currentSegment, ex);
+    }
+  }
+
+  public synchronized void flush() {
+    if (channel == null) {
+      return;
+    }
+    try {
+      force(System.nanoTime());
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to flush " + currentSegment, ex);
+    }
+  }
+
+  public synchronized Path roll() {
+    try {
+      if (channel == null || currentSegmentBytes > 0) {
+        rotate();
+      }
+      return currentSegment;
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to roll " + currentSegment, ex);
+    }
+  }
+
+  public synchronized int deleteSegmentsBefore(Path boundary) {
+    int deleted = 0;
+    try {
+      for (Path segment : segments()) {
+        if (segment.equals(currentSegment) || segment.getFileName().compareTo(boundary.getFileName()) >= 0) {
+          continue;
+        }
+        if (Files.deleteIfExists(segment)) {
+          deleted++;
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to delete segments before " + boundary, ex);
+    }
+    return deleted;
+  }
+
+  public synchronized Path currentSegment() {
+    return currentSegment;
+  }
+
+  public synchronized long appendedRecords() {
+    return appendedRecords;
+  }
+
+  public synchronized long forcedSyncs() {
+    return forcedSyncs;
+  }
+
+  public synchronized long rotations() {
+    return rotations;
+  }
+
+  public synchronized List<Path> segments() {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(this::isSegment).sorted().toList();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to list segments in " + directory, ex);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+      flusher = null;
+    }
+    if (channel == null) {
+      return;
+    }
+    try {
+      force(System.nanoTime());
+      channel.close();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to close " + currentSegment, ex);
+    } finally {
+      channel = null;
+    }
+  }
+
+  private void force(long now) throws IOException {
+    if (dirty) {
+      channel.force(false);
+      forcedSyncs++;
+      dirty = false;
+    }
+    lastForceNanos = now;
+  }
+
+  private void startFlusher() {
+    if (flushIntervalMs <= 0 || flushIntervalMs == Long.MAX_VALUE) {
+      return;
+    }
+    flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            task -> {
+              Thread thread = new Thread(task, prefix + "-log-flusher");
+              thread.setDaemon(true);
+              return thread;
+            });
+    flusher.scheduleWithFixedDelay(this::flushDirty, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void flushDirty() {
+    if (channel == null || !dirty) {
+      return;
+    }
+    try {
+      force(System.nanoTime());
+    } catch (IOException ex) {
+      // the next append or flush surfaces the failure to its caller
+    }
+  }
+
+  private void rotate() throws IOException {
+    if (channel != null) {
+      force(System.nanoTime());
+      channel.close();
+      channel = null;
+      rotations++;
+    } else {
+      Files.createDirectories(directory);
+    }
+    if (nextSequence < 0) {
+      nextSequence = highestSequence() + 1;
+    }
+    while (channel == null) {
+      Path candidate = directory.resolve(String.format("%s-%020d%s", prefix, nextSequence++, SEGMENT_SUFFIX));
+      try {
+        channel = FileChannel.open(candidate, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        currentSegment = candidate;
+      } catch (FileAlreadyExistsException ex) {
+        // another writer took this sequence number, try the next one
+      }
+    }
+    currentSegmentBytes = 0;
+    deleteOldSegments();
+  }
+
+  private void deleteOldSegments() throws IOException {
+    List<Path> segments = new ArrayList<>(segments());
+    segments.remove(currentSegment);
+    int excess = segments.size() - (maxSegments - 1);
+    for (int i = 0; i < excess; i++) {
+      Files.deleteIfExists(segments.get(i));
+    }
+  }
+
+  private long highestSequence() {
+    long highest = -1;
+    for (Path segment : segments()) {
+      String name = segment.getFileName().toString();
+      try {
+        highest =
+            Math.max(
+                highest,
+                Long.parseLong(name.substring(prefix.length() + 1, name.length() - SEGMENT_SUFFIX.length())));
+      } catch (NumberFormatException ex) {
+        // not one of ours
+      }
+    }
+    return highest;
+  }
+
+  private boolean isSegment(Path path) {
+    String name = path.getFileName().toString();
+    return name.startsWith(prefix + "-") && name.endsWith(SEGMENT_SUFFIX);
+  }
+}
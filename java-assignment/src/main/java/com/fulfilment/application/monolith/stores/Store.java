@@ -4,6 +4,7 @@ import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Version;
 
 @Entity
 @Cacheable
@@ -14,6 +15,8 @@ public class Store extends PanacheEntity {
 
   public int quantityProductsInStock;
 
+  @Version public Long version;
+
   public Store() {}
 
   public Store(String name) {
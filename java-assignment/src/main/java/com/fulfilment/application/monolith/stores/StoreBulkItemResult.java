@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.stores;
+
+public class StoreBulkItemResult {
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    INVALID,
+    FAILED
+  }
+
+  public int index;
+  public String name;
+  public Long id;
+  public Status status;
+  public String error;
+
+  public StoreBulkItemResult() {}
+
+  public StoreBulkItemResult(int index, String name, Long id, Status status, String error) {
+    this.index = index;
+    this.name = name;
+    this.id = id;
+    this.status = status;
+    this.error = error;
+  }
+}
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StoreBulkResult {
+
+  public int created;
+  public int updated;
+  public int invalid;
+  public int failed;
+  public List<StoreBulkItemResult> items = new ArrayList<>();
+
+  public void add(StoreBulkItemResult item) {
+    items.add(item);
+    switch (item.status) {
+      case CREATED -> created++;
+      case UPDATED -> updated++;
+      case INVALID -> invalid++;
+      case FAILED -> failed++;
+    }
+  }
+
+  public boolean hasInvalidItems() {
+    return invalid > 0;
+  }
+}
@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class StoreBulkService {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreBulkService.class);
+  private static final int MAX_NAME_LENGTH = 40;
+
+  @Inject StoreBulkWriter storeBulkWriter;
+
+  @ConfigProperty(name = "store.bulk.max-items", defaultValue = "10000")
+  int maxItems = 10_000;
+
+  @ConfigProperty(name = "store.bulk.chunk-size", defaultValue = "500")
+  int chunkSize = 500;
+
+  public StoreBulkResult upsert(List<Store> stores) {
+    if (stores == null || stores.isEmpty()) {
+      throw new WebApplicationException("Bulk request contains no stores.", 400);
+    }
+    if (stores.size() > maxItems) {
+      throw new WebApplicationException(
+          "Bulk request contains " + stores.size() + " stores, the limit is " + maxItems + ".", 400);
+    }
+
+    StoreBulkResult validation = validate(stores);
+    if (validation.hasInvalidItems()) {
+      return validation;
+    }
+
+    StoreBulkResult result = new StoreBulkResult();
+    int size = Math.max(1, chunkSize);
+    for (int from = 0; from < stores.size(); from += size) {
+      List<Store> chunk = stores.subList(from, Math.min(stores.size(), from + size));
+      try {
+        storeBulkWriter.upsertChunk(chunk, from).forEach(result::add);
+      } catch (RuntimeException ex) {
+        LOGGER.errorf(ex, "Bulk store chunk starting at index %d failed", from);
+        for (int i = 0; i < chunk.size(); i++) {
+          result.add(
+              new StoreBulkItemResult(
+                  from + i, chunk.get(i).name, null, StoreBulkItemResult.Status.FAILED, rootMessage(ex)));
+        }
+      }
+    }
+    return result;
+  }
+
+  StoreBulkResult validate(List<Store> stores) {
+    StoreBulkResult result = new StoreBulkResult();
+    Map<String, Integer> firstIndexByName = new HashMap<>();
+    for (int i = 0; i < stores.size(); i++) {
+      Store store = stores.get(i);
+      String error = validationError(store, firstIndexByName, i);
+      if (error != null) {
+        result.add(
+            new StoreBulkItemResult(
+                i, store == null ? null : store.name, null, StoreBulkItemResult.Status.INVALID, error));
+      }
+    }
+    return result;
+  }
+
+  private static String validationError(Store store, Map<String, Integer> firstIndexByName, int index) {
+    if (store == null) {
+      return "Store was not set.";
+    }
+    if (store.id != null) {
+      return "Id was invalidly set on request.";
+    }
+    if (store.name == null || store.name.isBlank()) {
+      return "Store Name was not set on request.";
+    }
+    if (store.name.length() > MAX_NAME_LENGTH) {
+      return "Store Name must be at most " + MAX_NAME_LENGTH + " characters.";
+    }
+    if (store.quantityProductsInStock < 0) {
+      return "Quantity of products in stock must not be negative.";
+    }
+    Integer duplicateOf = firstIndexByName.putIfAbsent(store.name, index);
+    if (duplicateOf != null) {
+      return "Store Name duplicates item " + duplicateOf + ".";
+    }
+    return null;
+  }
+
+  private static String rootMessage(Throwable ex) {
+    Throwable root = ex;
+    while (root.getCause() != null && root.getCause() != root) {
+      root = root.getCause();
+    }
+    return root.getMessage() != null ? root.getMessage() : root.getClass().getName();
+  }
+}
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
+import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class StoreBulkWriter {
+
+  @Inject StoreGateway storeGateway;
+  @Inject StoreOutboxService storeOutboxService;
+  @Inject EntityVersionTracker entityVersionTracker;
+
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public List<StoreBulkItemResult> upsertChunk(List<Store> chunk, int firstIndex) {
+    Map<String, Store> existing = new HashMap<>();
+    for (Store store : storeGateway.findByNames(chunk.stream().map(store -> store.name).toList())) {
+      existing.put(store.name, store);
+    }
+
+    List<Store> created = new ArrayList<>();
+    List<Store> updated = new ArrayList<>();
+    List<Store> written = new ArrayList<>(chunk.size());
+    for (Store item : chunk) {
+      Store entity = existing.get(item.name);
+      if (entity == null) {
+        item.version = null;
+        storeGateway.persist(item);
+        created.add(item);
+        written.add(item);
+      } else {
+        entity.quantityProductsInStock = item.quantityProductsInStock;
+        updated.add(entity);
+        written.add(entity);
+      }
+    }
+    storeGateway.flush();
+    storeOutboxService.enqueueStoreChanged("StoreCreated", created);
+    storeOutboxService.enqueueStoreChanged("StoreUpdated", updated);
+    for (Store store : written) {
+      entityVersionTracker.changed(Store.class, store.id, store.version);
+    }
+
+    List<StoreBulkItemResult> results = new ArrayList<>(chunk.size());
+    for (int i = 0; i < written.size(); i++) {
+      Store store = written.get(i);
+      StoreBulkItemResult.Status status =
+          store == chunk.get(i) ? StoreBulkItemResult.Status.CREATED : StoreBulkItemResult.Status.UPDATED;
+      results.add(new StoreBulkItemResult(firstIndex + i, store.name, store.id, status, null));
+    }
+    return results;
+  }
+}
@@ -1,16 +1,177 @@
 package com.fulfilment.application.monolith.stores;
 
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
 
 @ApplicationScoped
 public class StoreGateway {
 
+  private static final String KEYSET_ORDER = " order by name nulls last, id";
+
+  static final String APPLY_STOCK_DELTA_SQL =
+      "UPDATE Store SET quantityProductsInStock = quantityProductsInStock + ?, version = COALESCE(version, 0) + 1 "
+          + "WHERE id = ? AND quantityProductsInStock + CAST(? AS bigint) BETWEEN ? AND 2147483647 "
+          + "RETURNING name, quantityProductsInStock, version";
+
+  static final String APPLY_STOCK_DELTAS_SQL =
+      "UPDATE Store s SET quantityProductsInStock = CAST(s.quantityProductsInStock + d.delta AS integer), "
+          + "version = COALESCE(s.version, 0) + 1 "
+          + "FROM unnest(CAST(? AS bigint[]), CAST(? AS bigint[])) AS d(id, delta) "
+          + "WHERE s.id = d.id AND s.quantityProductsInStock + d.delta BETWEEN ? AND 2147483647 "
+          + "RETURNING s.id, s.name, s.quantityProductsInStock, s.version";
+
   public List<Store> listAllByName() {
     return Store.listAll(Sort.by("name"));
   }
 
+  public List<Store> listPageByName(StorePageCursor after, int limit) {
+    if (after == null) {
+      return Store.<Store>find("from Store" + KEYSET_ORDER).range(0, limit - 1).list();
+    }
+    if (after.name == null) {
+      return Store.<Store>find("name is null and id > ?1" + KEYSET_ORDER, after.id).range(0, limit - 1).list();
+    }
+    List<Store> named =
+        Store.<Store>find("(name, id) > (?1, ?2)" + KEYSET_ORDER, after.name, after.id).range(0, limit - 1).list();
+    if (named.size() >= limit) {
+      return named;
+    }
+    List<Store> page = new ArrayList<>(named);
+    page.addAll(Store.<Store>find("name is null" + KEYSET_ORDER).range(0, limit - named.size() - 1).list());
+    return page;
+  }
+
+  @Transactional
+  @TransactionConfiguration(timeout = 3600)
+  public long streamAllByName(
+      int fetchSize, Function<Runnable, UnaryOperator<Store>> opening, Consumer<Store> consumer) {
+    Session session = Store.getEntityManager().unwrap(Session.class);
+    SelectionQuery<Store> query =
+        session
+            .createSelectionQuery("from Store" + KEYSET_ORDER, Store.class)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .setFetchSize(fetchSize);
+    List<ScrollableResults<Store>> opened = new ArrayList<>(1);
+    UnaryOperator<Store> view = opening.apply(() -> opened.add(query.scroll(ScrollMode.FORWARD_ONLY)));
+    long streamed = 0;
+    try (ScrollableResults<Store> results = opened.get(0)) {
+      while (results.next()) {
+        consumer.accept(view.apply(results.get()));
+        if (++streamed % fetchSize == 0) {
+          session.clear();
+        }
+      }
+    }
+    return streamed;
+  }
+
+  public List<Store> findByNames(Collection<String> names) {
+    if (names.isEmpty()) {
+      return List.of();
+    }
+    return Store.list("name in ?1", names);
+  }
+
+  public Store applyStockDelta(Long id, int delta, int floor) {
+    EntityManager entityManager = Store.getEntityManager();
+    Store updated =
+        entityManager
+            .unwrap(Session.class)
+            .doReturningWork(
+                connection -> {
+                  try (PreparedStatement statement = connection.prepareStatement(APPLY_STOCK_DELTA_SQL)) {
+                    statement.setInt(1, delta);
+                    statement.setLong(2, id);
+                    statement.setInt(3, delta);
+                    statement.setInt(4, floor);
+                    try (ResultSet row = statement.executeQuery()) {
+                      if (!row.next()) {
+                        return null;
+                      }
+                      Store store = new Store(row.getString(1));
+                      store.id = id;
+                      store.quantityProductsInStock = row.getInt(2);
+                      store.version = row.getLong(3);
+                      return store;
+                    }
+                  }
+                });
+    if (updated != null) {
+      entityManager.getEntityManagerFactory().getCache().evict(Store.class, id);
+    }
+    return updated;
+  }
+
+  public List<Store> applyStockDeltas(Map<Long, Long> deltas, int floor) {
+    if (deltas.isEmpty()) {
+      return List.of();
+    }
+    EntityManager entityManager = Store.getEntityManager();
+    List<Store> updated =
+        entityManager
+            .unwrap(Session.class)
+            .doReturningWork(
+                connection -> {
+                  try (PreparedStatement statement = connection.prepareStatement(APPLY_STOCK_DELTAS_SQL)) {
+                    statement.setArray(1, connection.createArrayOf("bigint", deltas.keySet().toArray()));
+                    statement.setArray(2, connection.createArrayOf("bigint", deltas.values().toArray()));
+                    statement.setInt(3, floor);
+                    List<Store> stores = new ArrayList<>(deltas.size());
+                    try (ResultSet row = statement.executeQuery()) {
+                      while (row.next()) {
+                        Store store = new Store(row.getString(2));
+                        store.id = row.getLong(1);
+                        store.quantityProductsInStock = row.getInt(3);
+                        store.version = row.getLong(4);
+                        stores.add(store);
+                      }
+                    }
+                    return stores;
+                  }
+                });
+    Cache cache = entityManager.getEntityManagerFactory().getCache();
+    for (Store store : updated) {
+      cache.evict(Store.class, store.id);
+    }
+    return updated;
+  }
+
+  public long stockCheckpoint(String journal) {
+    StoreStockCheckpoint checkpoint = StoreStockCheckpoint.findById(journal);
+    return checkpoint == null ? 0 : checkpoint.sequence;
+  }
+
+  public void saveStockCheckpoint(String journal, long sequence) {
+    StoreStockCheckpoint checkpoint = StoreStockCheckpoint.findById(journal);
+    if (checkpoint == null) {
+      checkpoint = new StoreStockCheckpoint();
+      checkpoint.journal = journal;
+      checkpoint.persist();
+    }
+    checkpoint.sequence = sequence;
+    checkpoint.updatedAt = LocalDateTime.now();
+  }
+
   public Store findById(Long id) {
     return Store.findById(id);
   }
@@ -22,4 +183,8 @@ public class StoreGateway {
   public void delete(Store store) {
     store.delete();
   }
+
+  public void flush() {
+    Store.flush();
+  }
 }
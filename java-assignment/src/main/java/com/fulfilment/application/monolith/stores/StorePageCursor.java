@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class StorePageCursor {
+
+  private static final String NULL_NAME = "~";
+
+  public final String name;
+  public final long id;
+
+  public StorePageCursor(String name, long id) {
+    this.name = name;
+    this.id = id;
+  }
+
+  public static StorePageCursor after(Store store) {
+    return new StorePageCursor(store.name, store.id);
+  }
+
+  public String encode() {
+    String raw = id + ":" + (name == null ? NULL_NAME : "=" + name);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static StorePageCursor decode(String cursor) {
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Cursor is not valid base64.", ex);
+    }
+    int separator = raw.indexOf(':');
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Cursor is malformed.");
+    }
+    long id;
+    try {
+      id = Long.parseLong(raw.substring(0, separator));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Cursor is malformed.", ex);
+    }
+    String encodedName = raw.substring(separator + 1);
+    if (encodedName.equals(NULL_NAME)) {
+      return new StorePageCursor(null, id);
+    }
+    if (!encodedName.startsWith("=")) {
+      throw new IllegalArgumentException("Cursor is malformed.");
+    }
+    return new StorePageCursor(encodedName.substring(1), id);
+  }
+}
@@ -2,23 +2,35 @@ package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
 import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.StaleStateException;
 import org.jboss.logging.Logger;
 
 @Path("store")
@@ -27,24 +39,117 @@ import org.jboss.logging.Logger;
 @Consumes("application/json")
 public class StoreResource {
 
+  public static final String NDJSON = "application/x-ndjson";
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   @Inject StoreOutboxService storeOutboxService;
   @Inject StoreGateway storeGateway;
+  @Inject StoreBulkService storeBulkService;
+  @Inject StoreStockWriteBehind storeStockWriteBehind;
+  @Inject EntityVersionTracker entityVersionTracker;
+  @Inject ObjectMapper objectMapper;
+
+  @ConfigProperty(name = "store.list.max-page-size", defaultValue = "1000")
+  int maxPageSize = 1000;
+
+  @ConfigProperty(name = "store.list.stream-fetch-size", defaultValue = "500")
+  int streamFetchSize = 500;
+
+  @ConfigProperty(name = "store.stock.floor", defaultValue = "0")
+  int stockFloor = 0;
 
   private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
 
   @GET
-  public List<Store> get() {
-    return storeGateway.listAllByName();
+  public Response list(
+      @QueryParam("limit") Integer limit,
+      @QueryParam("cursor") String cursor,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+    int pageSize = limit == null ? maxPageSize : limit;
+    if (pageSize < 1 || pageSize > maxPageSize) {
+      throw new WebApplicationException("limit must be between 1 and " + maxPageSize, 400);
+    }
+    StorePageCursor after = null;
+    if (cursor != null) {
+      try {
+        after = StorePageCursor.decode(cursor);
+      } catch (IllegalArgumentException ex) {
+        throw new WebApplicationException("cursor is invalid: " + ex.getMessage(), 400);
+      }
+    }
+
+    EntityTag tag = collectionTag();
+    if (EntityVersionTracker.matches(ifNoneMatch, tag)) {
+      return Response.notModified(tag).build();
+    }
+    if (limit == null && cursor == null) {
+      return Response.ok(observed(storeStockWriteBehind.readAll(storeGateway::listAllByName))).tag(tag).build();
+    }
+
+    StorePageCursor pageStart = after;
+    List<Store> rows =
+        observed(storeStockWriteBehind.readAll(() -> storeGateway.listPageByName(pageStart, pageSize + 1)));
+    List<Store> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+    Response.ResponseBuilder response = Response.ok(page).tag(tag);
+    if (rows.size() > pageSize) {
+      response.header(NEXT_CURSOR_HEADER, StorePageCursor.after(page.get(pageSize - 1)).encode());
+    }
+    return response.build();
+  }
+
+  @GET
+  @Path("stream")
+  @Produces(NDJSON)
+  public StreamingOutput stream() {
+    int fetchSize = Math.max(1, streamFetchSize);
+    return output ->
+        storeGateway.streamAllByName(
+            fetchSize,
+            storeStockWriteBehind::openConsistently,
+            new Consumer<>() {
+              private long written;
+
+              @Override
+              public void accept(Store store) {
+                try {
+                  output.write(objectMapper.writeValueAsBytes(store));
+                  output.write('\n');
+                  if (++written == 1 || written % fetchSize == 0) {
+                    output.flush();
+                  }
+                } catch (IOException ex) {
+                  throw new UncheckedIOException(ex);
+                }
+              }
+            });
   }
 
   @GET
   @Path("{id}")
-  public Store getSingle(Long id) {
+  public Response getSingle(Long id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+    StoreStockWriteBehind.UnflushedView view = storeStockWriteBehind.view();
+    Long knownVersion = entityVersionTracker.knownVersion(Store.class, id);
+    if (knownVersion != null) {
+      EntityTag tag = storeTag(id, knownVersion, view.unflushed(id, knownVersion));
+      if (EntityVersionTracker.matches(ifNoneMatch, tag)) {
+        return Response.notModified(tag).build();
+      }
+    }
+
     Store entity = storeGateway.findById(id);
     if (entity == null) {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
-    return entity;
+    entityVersionTracker.observed(Store.class, id, entity.version);
+    long unflushed = view.unflushed(id, entity.version);
+    EntityTag tag = storeTag(id, entity.version, unflushed);
+    if (EntityVersionTracker.matches(ifNoneMatch, tag)) {
+      return Response.notModified(tag).build();
+    }
+    if (unflushed != 0) {
+      entity = StoreStockWriteBehind.withStock(entity, entity.quantityProductsInStock + unflushed);
+    }
+    return Response.ok(entity).tag(tag).build();
   }
 
   @POST
@@ -54,12 +159,22 @@ public class StoreResource {
       throw new WebApplicationException("Id was invalidly set on request.", 422);
     }
 
+    store.version = null;
     storeGateway.persist(store);
+    storeGateway.flush();
     storeOutboxService.enqueueStoreChanged("StoreCreated", store);
+    entityVersionTracker.changed(Store.class, store.id, store.version);
 
     return Response.ok(store).status(201).build();
   }
 
+  @POST
+  @Path("bulk")
+  public Response bulkUpsert(List<Store> stores) {
+    StoreBulkResult result = storeBulkService.upsert(stores);
+    return Response.status(result.hasInvalidItems() ? 422 : 200).entity(result).build();
+  }
+
   @PUT
   @Path("{id}")
   @Transactional
@@ -77,7 +192,9 @@ public class StoreResource {
     entity.name = updatedStore.name;
     entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
 
+    storeGateway.flush();
     storeOutboxService.enqueueStoreChanged("StoreUpdated", entity);
+    entityVersionTracker.changed(Store.class, id, entity.version);
 
     return entity;
   }
@@ -100,11 +217,53 @@ public class StoreResource {
       entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
     }
 
+    storeGateway.flush();
     storeOutboxService.enqueueStoreChanged("StorePatched", entity);
+    entityVersionTracker.changed(Store.class, id, entity.version);
 
     return entity;
   }
 
+  @POST
+  @Path("{id}/stock-delta")
+  @Transactional
+  public Store applyStockDelta(Long id, StoreStockDelta stockDelta) {
+    if (stockDelta == null || stockDelta.delta == null) {
+      throw new WebApplicationException("Stock delta was not set on request.", 422);
+    }
+    if (storeStockWriteBehind.enabled()) {
+      return bufferStockDelta(id, stockDelta.delta);
+    }
+
+    Store updated = storeGateway.applyStockDelta(id, stockDelta.delta, stockFloor);
+    if (updated == null) {
+      if (storeGateway.findById(id) == null) {
+        throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException(
+          "Stock delta of " + stockDelta.delta + " would take Store with id of " + id + " out of range.", 409);
+    }
+
+    storeOutboxService.enqueueStoreChanged(StoreOutboxService.STORE_STOCK_ADJUSTED, updated);
+    entityVersionTracker.changed(Store.class, id, updated.version);
+
+    return updated;
+  }
+
+  private Store bufferStockDelta(Long id, int delta) {
+    StoreStockWriteBehind.UnflushedView view = storeStockWriteBehind.view();
+    Store current = storeGateway.findById(id);
+    if (current == null) {
+      throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+    }
+    Long stock = storeStockWriteBehind.addWithinRange(view, current, delta, stockFloor);
+    if (stock == null) {
+      throw new WebApplicationException(
+          "Stock delta of " + delta + " would take Store with id of " + id + " out of range.", 409);
+    }
+    return StoreStockWriteBehind.withStock(current, stock);
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -113,11 +272,32 @@ public class StoreResource {
     if (entity == null) {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
-    storeOutboxService.enqueueStoreChanged("StoreDeleted", entity);
+    storeOutboxService.enqueueStoreChanged(StoreOutboxService.STORE_DELETED, entity);
     storeGateway.delete(entity);
+    entityVersionTracker.deleted(Store.class, id);
     return Response.status(204).build();
   }
 
+  private EntityTag collectionTag() {
+    EntityTag tag = entityVersionTracker.collectionTag(Store.class);
+    if (tag == null || !storeStockWriteBehind.enabled()) {
+      return tag;
+    }
+    return new EntityTag(tag.getValue() + "+" + storeStockWriteBehind.acceptedDeltaCount());
+  }
+
+  private EntityTag storeTag(Long id, Long version, long unflushed) {
+    EntityTag tag = entityVersionTracker.entityTag(Store.class, id, version);
+    return unflushed == 0 ? tag : new EntityTag(tag.getValue() + "+" + unflushed);
+  }
+
+  private List<Store> observed(List<Store> stores) {
+    for (Store store : stores) {
+      entityVersionTracker.observed(Store.class, store.id, store.version);
+    }
+    return stores;
+  }
+
   @Provider
   public static class ErrorMapper implements ExceptionMapper<Exception> {
 
@@ -130,6 +310,8 @@ public class StoreResource {
       int code = 500;
       if (exception instanceof WebApplicationException) {
         code = ((WebApplicationException) exception).getResponse().getStatus();
+      } else if (isOptimisticLockFailure(exception)) {
+        code = 409;
       }
 
       ObjectNode exceptionJson = objectMapper.createObjectNode();
@@ -142,5 +324,17 @@ public class StoreResource {
 
       return Response.status(code).entity(exceptionJson).build();
     }
+
+    static boolean isOptimisticLockFailure(Throwable exception) {
+      for (Throwable current = exception; current != null; current = current.getCause()) {
+        if (current instanceof OptimisticLockException || current instanceof StaleStateException) {
+          return true;
+        }
+        if (current.getCause() == current) {
+          break;
+        }
+      }
+      return false;
+    }
   }
 }
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "store_stock_checkpoint")
+public class StoreStockCheckpoint extends PanacheEntityBase {
+
+  @Id
+  @Column(length = 100)
+  public String journal;
+
+  public long sequence;
+
+  public LocalDateTime updatedAt;
+}
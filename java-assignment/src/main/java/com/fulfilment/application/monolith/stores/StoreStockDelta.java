@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.stores;
+
+public class StoreStockDelta {
+
+  public Integer delta;
+
+  public StoreStockDelta() {}
+
+  public StoreStockDelta(Integer delta) {
+    this.delta = delta;
+  }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
+import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class StoreStockFlushWriter {
+
+  @Inject StoreGateway storeGateway;
+  @Inject StoreOutboxService storeOutboxService;
+  @Inject EntityVersionTracker entityVersionTracker;
+
+  @ConfigProperty(name = "store.stock.floor", defaultValue = "0")
+  int stockFloor = 0;
+
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public List<Store> apply(
+      Map<Long, Long> deltas, String journal, long sequence, Consumer<List<Store>> applied) {
+    List<Store> updated = storeGateway.applyStockDeltas(deltas, stockFloor);
+    applied.accept(updated);
+    storeGateway.saveStockCheckpoint(journal, sequence);
+    storeOutboxService.enqueueStoreChanged(StoreOutboxService.STORE_STOCK_ADJUSTED, updated);
+    for (Store store : updated) {
+      entityVersionTracker.changed(Store.class, store.id, store.version);
+    }
+    return updated;
+  }
+
+  public long checkpoint(String journal) {
+    return storeGateway.stockCheckpoint(journal);
+  }
+}
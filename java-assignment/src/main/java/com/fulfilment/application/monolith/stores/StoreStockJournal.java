@@ -0,0 +1,114 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+public class StoreStockJournal implements AutoCloseable {
+
+  static final int RECORD_BYTES = 28;
+
+  private static final int PAYLOAD_BYTES = RECORD_BYTES - Integer.BYTES;
+
+  public interface RecordConsumer {
+    void accept(long sequence, long storeId, long delta);
+  }
+
+  private final SegmentedAppendLog log;
+  private long lastSequence;
+
+  public StoreStockJournal(Path directory, String prefix, long segmentBytes, long syncIntervalMs) {
+    this.log = new SegmentedAppendLog(directory, prefix, segmentBytes, Integer.MAX_VALUE, syncIntervalMs);
+  }
+
+  public synchronized long append(long storeId, long delta) {
+    long sequence = lastSequence + 1;
+    log.append(encode(sequence, storeId, delta));
+    lastSequence = sequence;
+    return sequence;
+  }
+
+  public void sync() {
+    log.flush();
+  }
+
+  public synchronized long lastSequence() {
+    return lastSequence;
+  }
+
+  public synchronized Path roll() {
+    return log.roll();
+  }
+
+  public int deleteSegmentsBefore(Path boundary) {
+    return log.deleteSegmentsBefore(boundary);
+  }
+
+  public synchronized long replay(long afterSequence, RecordConsumer consumer) {
+    long replayed = 0;
+    long highest = Math.max(lastSequence, afterSequence);
+    for (Path segment : log.segments()) {
+      try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+        byte[] record = new byte[RECORD_BYTES];
+        while (readRecord(input, record)) {
+          ByteBuffer buffer = ByteBuffer.wrap(record);
+          long sequence = buffer.getLong();
+          long storeId = buffer.getLong();
+          long delta = buffer.getLong();
+          if (buffer.getInt() != checksum(record)) {
+            break;
+          }
+          highest = Math.max(highest, sequence);
+          if (sequence > afterSequence) {
+            consumer.accept(sequence, storeId, delta);
+            replayed++;
+          }
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException("Failed to replay " + segment, ex);
+      }
+    }
+    lastSequence = highest;
+    return replayed;
+  }
+
+  public long appendedRecords() {
+    return log.appendedRecords();
+  }
+
+  public long forcedSyncs() {
+    return log.forcedSyncs();
+  }
+
+  @Override
+  public void close() {
+    log.close();
+  }
+
+  static byte[] encode(long sequence, long storeId, long delta) {
+    byte[] record = new byte[RECORD_BYTES];
+    ByteBuffer.wrap(record).putLong(sequence).putLong(storeId).putLong(delta).putInt(checksum(record));
+    return record;
+  }
+
+  private static boolean readRecord(DataInputStream input, byte[] record) throws IOException {
+    try {
+      input.readFully(record);
+      return true;
+    } catch (EOFException ex) {
+      return false;
+    }
+  }
+
+  private static int checksum(byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record, 0, PAYLOAD_BYTES);
+    return (int) crc.getValue();
+  }
+}
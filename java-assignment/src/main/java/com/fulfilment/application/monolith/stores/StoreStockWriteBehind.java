@@ -0,0 +1,415 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class StoreStockWriteBehind {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreStockWriteBehind.class);
+
+  @Inject StoreStockFlushWriter flushWriter;
+
+  @ConfigProperty(name = "store.stock.write-behind.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "store.stock.write-behind.flush-interval-ms", defaultValue = "250")
+  long flushIntervalMs = 250;
+
+  @ConfigProperty(name = "store.stock.write-behind.journal.name", defaultValue = "store-stock")
+  String journalName = "store-stock";
+
+  @ConfigProperty(name = "store.stock.write-behind.journal.directory")
+  Optional<String> journalDirectory = Optional.empty();
+
+  @ConfigProperty(name = "store.stock.write-behind.node-id")
+  Optional<String> configuredNodeId = Optional.empty();
+
+  @ConfigProperty(name = "store.stock.write-behind.journal.segment-bytes", defaultValue = "16777216")
+  long journalSegmentBytes = 16L * 1024 * 1024;
+
+  @ConfigProperty(name = "store.stock.write-behind.journal.sync-interval-ms", defaultValue = "0")
+  long journalSyncIntervalMs;
+
+  private final ConcurrentMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+  private final StampedLock acceptLock = new StampedLock();
+  private final LongAdder acceptedDeltas = new LongAdder();
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder flushedStores = new LongAdder();
+  private final LongAdder failedFlushes = new LongAdder();
+  private final LongAdder rejectedStores = new LongAdder();
+  private final Object[] storeLocks = new Object[64];
+
+  private volatile StoreStockJournal journal;
+  private volatile String checkpointKey;
+  private volatile FlushBatch latest = FlushBatch.committed();
+  private ScheduledExecutorService scheduler;
+
+  public StoreStockWriteBehind() {
+    for (int i = 0; i < storeLocks.length; i++) {
+      storeLocks[i] = new Object();
+    }
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    start();
+  }
+
+  synchronized void start() {
+    if (!enabled) {
+      LOGGER.info("Store stock write-behind is disabled by configuration.");
+      return;
+    }
+    long recovered = recover();
+    if (recovered > 0) {
+      LOGGER.infof("Recovered %d unflushed store stock deltas from journal %s", recovered, checkpointKey());
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    scheduler.scheduleWithFixedDelay(
+        () -> {
+          try {
+            flush();
+          } catch (Exception ex) {
+            LOGGER.error("Unexpected store stock flush failure", ex);
+          }
+        },
+        recovered > 0 ? 0 : flushIntervalMs,
+        flushIntervalMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+      try {
+        flush();
+      } catch (RuntimeException ex) {
+        LOGGER.warn("Final store stock flush failed, deltas stay in the journal", ex);
+      }
+    }
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  public boolean enabled() {
+    return enabled;
+  }
+
+  public UnflushedView view() {
+    return new UnflushedView(enabled ? latest : null);
+  }
+
+  public Long addWithinRange(UnflushedView view, Store persisted, int delta, long floor) {
+    StoreStockJournal journal = journal();
+    long stock;
+    synchronized (storeLocks[Long.hashCode(persisted.id) & (storeLocks.length - 1)]) {
+      long stamp = acceptLock.readLock();
+      try {
+        stock = persisted.quantityProductsInStock + view.sum(persisted.id, persisted.version) + delta;
+        if (stock < floor || stock > Integer.MAX_VALUE) {
+          return null;
+        }
+        journal.append(persisted.id, delta);
+        pending.computeIfAbsent(persisted.id, id -> new LongAdder()).add(delta);
+      } finally {
+        acceptLock.unlockRead(stamp);
+      }
+    }
+    accepted(journal);
+    return stock;
+  }
+
+  long unflushed(Long storeId) {
+    long stamp = acceptLock.readLock();
+    try {
+      LongAdder adder = pending.get(storeId);
+      return (adder == null ? 0 : adder.sum()) + latest.unflushed(storeId);
+    } finally {
+      acceptLock.unlockRead(stamp);
+    }
+  }
+
+  public UnaryOperator<Store> openConsistently(Runnable open) {
+    UnflushedView view = view();
+    open.run();
+    return view;
+  }
+
+  public List<Store> readAll(Supplier<List<Store>> loader) {
+    UnflushedView view = view();
+    List<Store> stores = loader.get();
+    if (!enabled) {
+      return stores;
+    }
+    List<Store> merged = new ArrayList<>(stores.size());
+    for (Store store : stores) {
+      merged.add(view.apply(store));
+    }
+    return merged;
+  }
+
+  public synchronized int flush() {
+    StoreStockJournal journal = journal();
+    FlushBatch batch;
+    long sequence;
+    Path boundary;
+    long stamp = acceptLock.writeLock();
+    try {
+      sequence = journal.lastSequence();
+      if (pending.isEmpty()) {
+        return 0;
+      }
+      boundary = journal.roll();
+      Map<Long, Long> drained = new HashMap<>();
+      for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+        long delta = entry.getValue().sum();
+        if (delta != 0) {
+          drained.put(entry.getKey(), delta);
+        }
+      }
+      pending.clear();
+      batch = new FlushBatch(drained);
+      latest.next = batch;
+      latest = batch;
+    } finally {
+      acceptLock.unlockWrite(stamp);
+    }
+
+    List<Store> flushed;
+    try {
+      flushed = flushWriter.apply(batch.deltas, checkpointKey(), sequence, batch::applied);
+      batch.committed = true;
+    } catch (RuntimeException ex) {
+      failedFlushes.increment();
+      restore(batch);
+      throw ex;
+    }
+    journal.deleteSegmentsBefore(boundary);
+    reportRejected(batch.deltas, flushed);
+    flushes.increment();
+    flushedStores.add(flushed.size());
+    return flushed.size();
+  }
+
+  public long acceptedDeltaCount() {
+    return acceptedDeltas.sum();
+  }
+
+  public long flushCount() {
+    return flushes.sum();
+  }
+
+  public long flushedStoreCount() {
+    return flushedStores.sum();
+  }
+
+  public long failedFlushCount() {
+    return failedFlushes.sum();
+  }
+
+  public long rejectedStoreCount() {
+    return rejectedStores.sum();
+  }
+
+  synchronized long recover() {
+    long checkpoint = flushWriter.checkpoint(checkpointKey());
+    return journal()
+        .replay(
+            checkpoint,
+            (sequence, storeId, delta) -> pending.computeIfAbsent(storeId, id -> new LongAdder()).add(delta));
+  }
+
+  StoreStockJournal journal() {
+    StoreStockJournal current = journal;
+    if (current != null) {
+      return current;
+    }
+    synchronized (pending) {
+      if (journal == null) {
+        Path directory =
+            Path.of(
+                journalDirectory
+                    .filter(value -> !value.isBlank())
+                    .orElseThrow(
+                        () ->
+                            new IllegalStateException(
+                                "store.stock.write-behind.journal.directory must name a durable directory"
+                                    + " when store stock write-behind is enabled")));
+        journal =
+            new StoreStockJournal(
+                directory,
+                journalName,
+                journalSegmentBytes,
+                journalSyncIntervalMs > 0 ? journalSyncIntervalMs : Long.MAX_VALUE);
+      }
+      return journal;
+    }
+  }
+
+  // Journal sequences are local to a node, so each node keeps its own checkpoint row.
+  String checkpointKey() {
+    if (checkpointKey == null) {
+      String nodeId = configuredNodeId.filter(value -> !value.isBlank()).orElseGet(StoreStockWriteBehind::hostName);
+      checkpointKey = journalName + "@" + nodeId;
+    }
+    return checkpointKey;
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception ex) {
+      return "stock-node";
+    }
+  }
+
+  private void accepted(StoreStockJournal journal) {
+    if (journalSyncIntervalMs <= 0) {
+      journal.sync();
+    }
+    acceptedDeltas.increment();
+  }
+
+  private void reportRejected(Map<Long, Long> drained, List<Store> flushed) {
+    if (flushed.size() == drained.size()) {
+      return;
+    }
+    Map<Long, Long> rejected = new HashMap<>(drained);
+    for (Store store : flushed) {
+      rejected.remove(store.id);
+    }
+    rejectedStores.add(rejected.size());
+    LOGGER.warnf(
+        "Dropped folded stock deltas %s: the stores no longer exist or the result is out of range", rejected);
+  }
+
+  private void restore(FlushBatch batch) {
+    long stamp = acceptLock.writeLock();
+    try {
+      batch.restored = true;
+      batch.deltas.forEach((storeId, delta) -> pending.computeIfAbsent(storeId, id -> new LongAdder()).add(delta));
+    } finally {
+      acceptLock.unlockWrite(stamp);
+    }
+  }
+
+  static Store withStock(Store store, long stock) {
+    Store view = new Store(store.name);
+    view.id = store.id;
+    view.version = store.version;
+    view.quantityProductsInStock = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, stock));
+    return view;
+  }
+
+  // A reader takes its view before it queries the database, so every batch drained since then is
+  // still reachable from the view. A batch's deltas are in a row once the row's version reaches the
+  // version the flush's UPDATE gave it, which is published before the flush commits.
+  public final class UnflushedView implements UnaryOperator<Store> {
+
+    private final FlushBatch since;
+
+    private UnflushedView(FlushBatch since) {
+      this.since = since;
+    }
+
+    public long unflushed(Long storeId, Long version) {
+      if (since == null) {
+        return 0;
+      }
+      long stamp = acceptLock.tryOptimisticRead();
+      long delta = sum(storeId, version);
+      if (!acceptLock.validate(stamp)) {
+        stamp = acceptLock.readLock();
+        try {
+          delta = sum(storeId, version);
+        } finally {
+          acceptLock.unlockRead(stamp);
+        }
+      }
+      return delta;
+    }
+
+    @Override
+    public Store apply(Store store) {
+      long delta = unflushed(store.id, store.version);
+      return delta == 0 ? store : withStock(store, store.quantityProductsInStock + delta);
+    }
+
+    private long sum(Long storeId, Long version) {
+      LongAdder adder = pending.get(storeId);
+      long delta = adder == null ? 0 : adder.sum();
+      for (FlushBatch batch = since; batch != null; batch = batch.next) {
+        delta += batch.unflushed(storeId, version);
+      }
+      return delta;
+    }
+  }
+
+  private static final class FlushBatch {
+    final Map<Long, Long> deltas;
+    volatile Map<Long, Long> appliedVersions;
+    volatile boolean committed;
+    volatile boolean restored;
+    volatile FlushBatch next;
+
+    FlushBatch(Map<Long, Long> deltas) {
+      this.deltas = deltas;
+    }
+
+    static FlushBatch committed() {
+      FlushBatch batch = new FlushBatch(Map.of());
+      batch.committed = true;
+      return batch;
+    }
+
+    void applied(List<Store> updated) {
+      Map<Long, Long> versions = new HashMap<>();
+      for (Store store : updated) {
+        versions.put(store.id, store.version);
+      }
+      appliedVersions = versions;
+    }
+
+    long unflushed(Long storeId) {
+      return committed || restored ? 0 : deltas.getOrDefault(storeId, 0L);
+    }
+
+    long unflushed(Long storeId, Long version) {
+      Long delta = deltas.get(storeId);
+      if (delta == null || restored) {
+        return 0;
+      }
+      Map<Long, Long> versions = appliedVersions;
+      if (versions == null) {
+        return delta;
+      }
+      Long appliedVersion = versions.get(storeId);
+      return appliedVersion != null && (version == null || version < appliedVersion) ? delta : 0;
+    }
+  }
+}
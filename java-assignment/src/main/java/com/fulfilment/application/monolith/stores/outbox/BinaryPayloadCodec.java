@@ -0,0 +1,136 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class BinaryPayloadCodec implements OutboxPayloadCodec {
+
+  public static final int SCHEMA_VERSION = 2;
+
+  private static final int HAS_STORE_ID = 1;
+  private static final int HAS_NAME = 1 << 1;
+  private static final int HAS_QUANTITY = 1 << 2;
+  private static final int HAS_VERSION = 1 << 3;
+
+  @Override
+  public int schemaVersion() {
+    return SCHEMA_VERSION;
+  }
+
+  @Override
+  public byte[] encode(StoreChangedEventPayload payload) {
+    byte[] name = payload.name == null ? null : payload.name.getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(16 + (name == null ? 0 : name.length));
+    int fields = 0;
+    fields |= payload.storeId != null ? HAS_STORE_ID : 0;
+    fields |= name != null ? HAS_NAME : 0;
+    fields |= payload.quantityProductsInStock != null ? HAS_QUANTITY : 0;
+    fields |= payload.version != null ? HAS_VERSION : 0;
+    out.write(fields);
+    if (payload.storeId != null) {
+      writeVarLong(out, zigZag(payload.storeId));
+    }
+    if (name != null) {
+      writeVarLong(out, name.length);
+      out.write(name, 0, name.length);
+    }
+    if (payload.quantityProductsInStock != null) {
+      writeVarLong(out, zigZag(payload.quantityProductsInStock));
+    }
+    if (payload.version != null) {
+      writeVarLong(out, zigZag(payload.version));
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public StoreChangedEventPayload decode(byte[] encoded) {
+    Reader in = new Reader(encoded);
+    int fields = in.readByte();
+    if ((fields & ~(HAS_STORE_ID | HAS_NAME | HAS_QUANTITY | HAS_VERSION)) != 0) {
+      throw new OutboxPayloadException("Unknown field flags in binary store event payload: " + fields);
+    }
+    StoreChangedEventPayload payload = new StoreChangedEventPayload();
+    if ((fields & HAS_STORE_ID) != 0) {
+      payload.storeId = unZigZag(in.readVarLong());
+    }
+    if ((fields & HAS_NAME) != 0) {
+      payload.name = in.readString();
+    }
+    if ((fields & HAS_QUANTITY) != 0) {
+      long quantity = unZigZag(in.readVarLong());
+      if (quantity < Integer.MIN_VALUE || quantity > Integer.MAX_VALUE) {
+        throw new OutboxPayloadException("Quantity out of range in binary store event payload: " + quantity);
+      }
+      payload.quantityProductsInStock = (int) quantity;
+    }
+    if ((fields & HAS_VERSION) != 0) {
+      payload.version = unZigZag(in.readVarLong());
+    }
+    if (in.remaining() != 0) {
+      throw new OutboxPayloadException("Trailing bytes in binary store event payload");
+    }
+    return payload;
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static final class Reader {
+    private final byte[] bytes;
+    private int position;
+
+    Reader(byte[] bytes) {
+      if (bytes == null || bytes.length == 0) {
+        throw new OutboxPayloadException("Binary store event payload is empty");
+      }
+      this.bytes = bytes;
+    }
+
+    int readByte() {
+      if (position >= bytes.length) {
+        throw new OutboxPayloadException("Binary store event payload is truncated");
+      }
+      return bytes[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new OutboxPayloadException("Malformed varint in binary store event payload");
+    }
+
+    String readString() {
+      long length = readVarLong();
+      if (length < 0 || length > remaining()) {
+        throw new OutboxPayloadException("Binary store event payload is truncated");
+      }
+      String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+      position += (int) length;
+      return value;
+    }
+
+    int remaining() {
+      return bytes.length - position;
+    }
+  }
+}
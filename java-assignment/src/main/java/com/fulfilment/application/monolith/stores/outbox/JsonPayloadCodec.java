@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+
+public class JsonPayloadCodec implements OutboxPayloadCodec {
+
+  public static final int SCHEMA_VERSION = 1;
+
+  private final ObjectMapper objectMapper;
+
+  public JsonPayloadCodec(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public int schemaVersion() {
+    return SCHEMA_VERSION;
+  }
+
+  @Override
+  public byte[] encode(StoreChangedEventPayload payload) {
+    try {
+      return objectMapper.writeValueAsBytes(payload);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Failed to serialize store event payload", ex);
+    }
+  }
+
+  @Override
+  public StoreChangedEventPayload decode(byte[] encoded) {
+    try {
+      return objectMapper.readValue(encoded, StoreChangedEventPayload.class);
+    } catch (IOException ex) {
+      throw new OutboxPayloadException("Failed to parse JSON store event payload", ex);
+    }
+  }
+}
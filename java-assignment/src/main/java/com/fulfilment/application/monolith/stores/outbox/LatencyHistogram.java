@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+  private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sumMicros = new LongAdder();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  public void recordNanos(long nanos) {
+    long micros = Math.max(0, nanos / 1_000);
+    buckets.incrementAndGet(bucketIndex(micros));
+    count.increment();
+    sumMicros.add(micros);
+    maxMicros.accumulateAndGet(micros, Math::max);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public double getSumMs() {
+    return sumMicros.sum() / 1_000d;
+  }
+
+  public double getMaxMs() {
+    return maxMicros.get() / 1_000d;
+  }
+
+  public double getPercentileMs(double quantile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBoundMicros(i), maxMicros.get()) / 1_000d;
+      }
+    }
+    return getMaxMs();
+  }
+
+  public Map<String, Object> summaryMs() {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("count", getCount());
+    summary.put("p50", getPercentileMs(0.5));
+    summary.put("p90", getPercentileMs(0.9));
+    summary.put("p99", getPercentileMs(0.99));
+    summary.put("max", getMaxMs());
+    return summary;
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sumMicros.reset();
+    maxMicros.set(0);
+  }
+
+  static int bucketIndex(long micros) {
+    if (micros < LINEAR_LIMIT) {
+      return (int) micros;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_LIMIT + (magnitude - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBoundMicros(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int offset = index - LINEAR_LIMIT;
+    int magnitude = offset / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    int subBucket = offset % SUB_BUCKETS;
+    long width = 1L << (magnitude - SUB_BUCKET_BITS);
+    long lowerBound = (1L << magnitude) + subBucket * width;
+    return lowerBound + width - 1;
+  }
+}
@@ -1,5 +1,7 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
+import com.fulfilment.application.monolith.stores.IdempotencyKeyStore;
+import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -7,11 +9,15 @@ import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Path("admin/outbox")
@@ -23,17 +29,103 @@ public class OutboxAdminResource {
   @Inject OutboxMessageRepository outboxMessageRepository;
   @Inject OutboxPublisher outboxPublisher;
   @Inject OutboxPublisherMetrics metrics;
+  @Inject OutboxRetentionJob outboxRetentionJob;
+  @Inject OutboxStatsCache outboxStatsCache;
+  @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
+  @Inject OutboxCircuitBreaker circuitBreaker;
+  @Inject OutboxReplayJobService outboxReplayJobService;
+  @Inject OutboxRetryScheduler retryScheduler;
+
+  public Map<String, Object> stats() {
+    return stats(false);
+  }
 
   @GET
   @Path("stats")
-  public Map<String, Object> stats() {
-    return Map.of(
-        "pendingCount", outboxMessageRepository.countPending(),
-        "failedCount", outboxMessageRepository.countFailed(),
-        "publishedCount", outboxMessageRepository.countPublished(),
-        "relayPublishedCount", metrics.getPublishedCount(),
-        "relayFailureCount", metrics.getFailedCount(),
-        "relayAveragePublishLatencyMs", metrics.getAveragePublishLatencyMs());
+  public Map<String, Object> stats(@QueryParam("refresh") @DefaultValue("false") boolean refresh) {
+    OutboxCounts counts = refresh ? outboxStatsCache.refresh() : outboxStatsCache.counts();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("pendingCount", counts.pending);
+    stats.put("failedCount", counts.failed);
+    stats.put("publishedCount", counts.published);
+    stats.put("deadLetterCount", counts.deadLettered);
+    stats.put("countsAsOf", counts.asOf);
+    stats.put("countsAgeMs", outboxStatsCache.ageMs(counts));
+    stats.put("relayPublishedCount", metrics.getPublishedCount());
+    stats.put("relayFailureCount", metrics.getFailedCount());
+    stats.put("relayAveragePublishLatencyMs", metrics.getAveragePublishLatencyMs());
+    stats.put("relayPublishLatencyMs", metrics.getPublishLatency().summaryMs());
+    stats.put("relayEndToEndLagMs", metrics.getEndToEndLag().summaryMs());
+    stats.put("relayPublishRatePerSecond1m", metrics.getPublishRatePerSecond(60));
+    stats.put("relayPublishRatePerSecond5m", metrics.getPublishRatePerSecond(300));
+    stats.put("relayFailureRatePerSecond1m", metrics.getFailureRatePerSecond(60));
+    stats.put("relayFailureRatePerSecond5m", metrics.getFailureRatePerSecond(300));
+    stats.put("relayAcknowledgementCount", metrics.getAcknowledgementCount());
+    stats.put("relayCoalescedCount", metrics.getCoalescedCount());
+    stats.put("relayDeadLetteredCount", metrics.getDeadLetteredCount());
+    stats.put("relayLanePublishedCounts", metrics.getLanePublishedCounts());
+    stats.put("relayLaneFailedCounts", metrics.getLaneFailedCounts());
+    stats.put("relayDrainRatePerSecond", metrics.getDrainRatePerSecond());
+    stats.put("relayCurrentBatchSize", outboxPublisher.currentBatchSize());
+    stats.put("relayCurrentPollDelayMs", outboxPublisher.currentPollDelayMs());
+    stats.put("retryWheelActive", retryScheduler.isActive());
+    stats.put("retryWheelScheduledCount", retryScheduler.scheduledCount());
+    stats.put("retryWheelDueCount", retryScheduler.dueCount());
+    stats.put("breakerState", circuitBreaker.state().name());
+    stats.put("breakerFailureRate", circuitBreaker.failureRate());
+    stats.put("breakerRemainingOpenMs", circuitBreaker.remainingOpenMs());
+    stats.put("breakerTimesOpened", circuitBreaker.timesOpened());
+    stats.put("breakerSkippedBatches", metrics.getBreakerSkippedBatches());
+    stats.put("breakerDeferredCount", metrics.getBreakerDeferredCount());
+    stats.put("retentionLastPurgedCount", metrics.getRetentionLastPurgedCount());
+    stats.put("retentionTotalPurgedCount", metrics.getRetentionTotalPurgedCount());
+    IdempotencyKeyStore idempotencyKeys = legacyStoreManagerGateway.idempotencyKeys();
+    stats.put("gatewayDedupSize", idempotencyKeys.size());
+    stats.put("gatewayDedupHits", idempotencyKeys.hits());
+    stats.put("gatewayDedupMisses", idempotencyKeys.misses());
+    stats.put("gatewayDedupEvictions", idempotencyKeys.evictions());
+    stats.put("gatewayStaleDropped", legacyStoreManagerGateway.staleEventsDroppedCount());
+    return stats;
+  }
+
+  @GET
+  @Path("metrics")
+  @Produces(MediaType.TEXT_PLAIN)
+  public String scrape() {
+    OutboxCounts counts = outboxStatsCache.counts();
+    StringBuilder out = new StringBuilder();
+    gauge(out, "outbox_pending_messages", counts.pending);
+    gauge(out, "outbox_failed_messages", counts.failed);
+    gauge(out, "outbox_published_messages", counts.published);
+    gauge(out, "outbox_dead_letter_messages", counts.deadLettered);
+    gauge(out, "outbox_counts_age_ms", outboxStatsCache.ageMs(counts));
+    counter(out, "outbox_relay_published_total", metrics.getPublishedCount());
+    counter(out, "outbox_relay_failed_total", metrics.getFailedCount());
+    counter(out, "outbox_relay_acknowledgements_total", metrics.getAcknowledgementCount());
+    counter(out, "outbox_relay_coalesced_total", metrics.getCoalescedCount());
+    counter(out, "outbox_relay_dead_lettered_total", metrics.getDeadLetteredCount());
+    gauge(out, "outbox_relay_publish_rate_1m", metrics.getPublishRatePerSecond(60));
+    gauge(out, "outbox_relay_publish_rate_5m", metrics.getPublishRatePerSecond(300));
+    gauge(out, "outbox_relay_failure_rate_1m", metrics.getFailureRatePerSecond(60));
+    gauge(out, "outbox_relay_failure_rate_5m", metrics.getFailureRatePerSecond(300));
+    gauge(out, "outbox_relay_drain_rate", metrics.getDrainRatePerSecond());
+    gauge(out, "outbox_relay_batch_size", outboxPublisher.currentBatchSize());
+    gauge(out, "outbox_relay_poll_delay_ms", outboxPublisher.currentPollDelayMs());
+    gauge(out, "outbox_retry_wheel_scheduled", retryScheduler.scheduledCount());
+    OutboxCircuitBreaker.State breakerState = circuitBreaker.state();
+    gauge(out, "outbox_breaker_open", breakerState == OutboxCircuitBreaker.State.OPEN ? 1 : 0);
+    stateGauge(out, "outbox_breaker_state", breakerState);
+    counter(out, "outbox_breaker_opened_total", circuitBreaker.timesOpened());
+    counter(out, "outbox_breaker_skipped_batches_total", metrics.getBreakerSkippedBatches());
+    IdempotencyKeyStore idempotencyKeys = legacyStoreManagerGateway.idempotencyKeys();
+    gauge(out, "legacy_gateway_dedup_entries", idempotencyKeys.size());
+    counter(out, "legacy_gateway_dedup_hits_total", idempotencyKeys.hits());
+    counter(out, "legacy_gateway_dedup_misses_total", idempotencyKeys.misses());
+    counter(out, "legacy_gateway_dedup_evictions_total", idempotencyKeys.evictions());
+    counter(out, "legacy_gateway_stale_dropped_total", legacyStoreManagerGateway.staleEventsDroppedCount());
+    summary(out, "outbox_relay_publish_latency_seconds", metrics.getPublishLatency());
+    summary(out, "outbox_relay_end_to_end_lag_seconds", metrics.getEndToEndLag());
+    return out.toString();
   }
 
   @POST
@@ -43,6 +135,14 @@ public class OutboxAdminResource {
     return Map.of("processed", processed);
   }
 
+  @POST
+  @Path("retention/run")
+  public Map<String, Object> runRetention() {
+    long purged = outboxRetentionJob.runOnce();
+    outboxStatsCache.invalidate();
+    return Map.of("purged", purged);
+  }
+
   @POST
   @Path("replay")
   public Map<String, Object> replay(
@@ -72,6 +172,151 @@ public class OutboxAdminResource {
     }
 
     int affected = outboxMessageRepository.replay(aggregateId, fromTime, toTime);
+    outboxStatsCache.invalidate();
     return Map.of("affected", affected);
   }
+
+  @POST
+  @Path("replay-jobs")
+  public Response submitReplayJob(
+      @QueryParam("aggregateType") String aggregateType,
+      @QueryParam("aggregateId") String aggregateId,
+      @QueryParam("from") String from,
+      @QueryParam("to") String to,
+      @QueryParam("all") @DefaultValue("false") boolean all,
+      @QueryParam("maxRowsPerSecond") Integer maxRowsPerSecond) {
+    String type = blankToNull(aggregateType);
+    String id = blankToNull(aggregateId);
+    if (type == null && id == null && from == null && to == null && !all) {
+      throw new WebApplicationException(
+          "Provide aggregateType, aggregateId or a from/to range, or all=true to replay everything", 400);
+    }
+    if (maxRowsPerSecond != null && maxRowsPerSecond < 0) {
+      throw new WebApplicationException("maxRowsPerSecond must be zero (unlimited) or positive", 400);
+    }
+
+    LocalDateTime fromTime;
+    LocalDateTime toTime;
+    try {
+      fromTime = from == null ? null : LocalDateTime.parse(from);
+      toTime = to == null ? null : LocalDateTime.parse(to);
+    } catch (Exception ex) {
+      throw new WebApplicationException("Invalid from/to datetime format. Use ISO-8601 LocalDateTime", 400);
+    }
+    if (fromTime != null && toTime != null && toTime.isBefore(fromTime)) {
+      throw new WebApplicationException("to must be greater than or equal to from", 400);
+    }
+
+    OutboxReplayJob job =
+        outboxReplayJobService.submit(
+            new OutboxReplayCriteria(type, id, fromTime, toTime), maxRowsPerSecond);
+    return Response.status(202).entity(job).build();
+  }
+
+  @GET
+  @Path("replay-jobs")
+  public List<OutboxReplayJob> replayJobs() {
+    return outboxReplayJobService.list();
+  }
+
+  @GET
+  @Path("replay-jobs/{id}")
+  public OutboxReplayJob replayJob(@PathParam("id") String id) {
+    return outboxReplayJobService
+        .find(id)
+        .orElseThrow(() -> new WebApplicationException("Replay job with id of " + id + " does not exist.", 404));
+  }
+
+  @POST
+  @Path("replay-jobs/{id}/cancel")
+  public OutboxReplayJob cancelReplayJob(@PathParam("id") String id) {
+    return outboxReplayJobService
+        .cancel(id)
+        .orElseThrow(() -> new WebApplicationException("Replay job with id of " + id + " does not exist.", 404));
+  }
+
+  @GET
+  @Path("dead-letters")
+  public List<OutboxMessage> deadLetters(
+      @QueryParam("aggregateId") String aggregateId,
+      @QueryParam("afterId") @DefaultValue("0") long afterId,
+      @QueryParam("limit") @DefaultValue("100") int limit) {
+    if (limit < 1 || limit > 1000) {
+      throw new WebApplicationException("limit must be between 1 and 1000", 400);
+    }
+    return outboxMessageRepository.listDeadLetters(blankToNull(aggregateId), afterId, limit);
+  }
+
+  @GET
+  @Path("dead-letters/{id}")
+  public OutboxMessage deadLetter(@PathParam("id") Long id) {
+    OutboxMessage message = outboxMessageRepository.findDeadLetter(id);
+    if (message == null) {
+      throw new WebApplicationException("Dead letter with id of " + id + " does not exist.", 404);
+    }
+    return message;
+  }
+
+  @POST
+  @Path("dead-letters/requeue")
+  public Map<String, Object> requeueDeadLetters(
+      @QueryParam("id") List<Long> ids,
+      @QueryParam("aggregateId") String aggregateId,
+      @QueryParam("all") @DefaultValue("false") boolean all) {
+    String aggregate = blankToNull(aggregateId);
+    boolean byId = ids != null && !ids.isEmpty();
+    if (byId == (aggregate != null || all)) {
+      throw new WebApplicationException("Provide either id params, aggregateId, or all=true", 400);
+    }
+
+    int requeued =
+        byId
+            ? outboxMessageRepository.requeueDeadLetters(ids, LocalDateTime.now())
+            : outboxMessageRepository.requeueAllDeadLetters(aggregate, LocalDateTime.now());
+    outboxStatsCache.invalidate();
+    if (requeued > 0) {
+      outboxPublisher.requestDrain();
+    }
+    return Map.of("requeued", requeued);
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value;
+  }
+
+  private static void counter(StringBuilder out, String name, long value) {
+    out.append("# TYPE ").append(name).append(" counter\n");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void gauge(StringBuilder out, String name, double value) {
+    out.append("# TYPE ").append(name).append(" gauge\n");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void stateGauge(StringBuilder out, String name, OutboxCircuitBreaker.State current) {
+    out.append("# TYPE ").append(name).append(" gauge\n");
+    for (OutboxCircuitBreaker.State state : OutboxCircuitBreaker.State.values()) {
+      out.append(name)
+          .append("{state=\"")
+          .append(state.name())
+          .append("\"} ")
+          .append(state == current ? 1 : 0)
+          .append('\n');
+    }
+  }
+
+  private static void summary(StringBuilder out, String name, LatencyHistogram histogram) {
+    out.append("# TYPE ").append(name).append(" summary\n");
+    for (double quantile : new double[] {0.5, 0.9, 0.99}) {
+      out.append(name)
+          .append("{quantile=\"")
+          .append(quantile)
+          .append("\"} ")
+          .append(histogram.getPercentileMs(quantile) / 1_000d)
+          .append('\n');
+    }
+    out.append(name).append("_sum ").append(histogram.getSumMs() / 1_000d).append('\n');
+    out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+  }
 }
@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OutboxBatchOutcome {
+
+  private final List<Long> publishedIds = new ArrayList<>();
+  private final List<Long> supersededIds = new ArrayList<>();
+  private final List<OutboxMessageFailure> failures = new ArrayList<>();
+  private final Map<Long, LocalDateTime> deferrals = new LinkedHashMap<>();
+
+  public synchronized void published(Long id) {
+    publishedIds.add(id);
+  }
+
+  public synchronized void superseded(Long id) {
+    supersededIds.add(id);
+  }
+
+  public synchronized void failed(OutboxMessageFailure failure) {
+    failures.add(failure);
+  }
+
+  public synchronized void deferred(Long id, LocalDateTime nextAttemptAt) {
+    deferrals.put(id, nextAttemptAt);
+  }
+
+  public synchronized List<Long> publishedIds() {
+    return new ArrayList<>(publishedIds);
+  }
+
+  public synchronized List<Long> supersededIds() {
+    return new ArrayList<>(supersededIds);
+  }
+
+  public synchronized List<OutboxMessageFailure> failures() {
+    return new ArrayList<>(failures);
+  }
+
+  public synchronized Map<Long, LocalDateTime> deferrals() {
+    return new LinkedHashMap<>(deferrals);
+  }
+
+  public void mergeFrom(OutboxBatchOutcome other) {
+    OutboxBatchOutcome snapshot = other.drain();
+    synchronized (this) {
+      publishedIds.addAll(snapshot.publishedIds);
+      supersededIds.addAll(snapshot.supersededIds);
+      failures.addAll(snapshot.failures);
+      deferrals.putAll(snapshot.deferrals);
+    }
+  }
+
+  public synchronized OutboxBatchOutcome drain() {
+    OutboxBatchOutcome drained = new OutboxBatchOutcome();
+    drained.publishedIds.addAll(publishedIds);
+    drained.supersededIds.addAll(supersededIds);
+    drained.failures.addAll(failures);
+    drained.deferrals.putAll(deferrals);
+    publishedIds.clear();
+    supersededIds.clear();
+    failures.clear();
+    deferrals.clear();
+    return drained;
+  }
+
+  public synchronized int size() {
+    return publishedIds.size() + supersededIds.size() + failures.size() + deferrals.size();
+  }
+
+  public synchronized boolean isEmpty() {
+    return publishedIds.isEmpty() && supersededIds.isEmpty() && failures.isEmpty() && deferrals.isEmpty();
+  }
+}
@@ -0,0 +1,193 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class OutboxCircuitBreaker {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxCircuitBreaker.class);
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  @ConfigProperty(name = "outbox.breaker.enabled", defaultValue = "true")
+  boolean enabled = true;
+
+  @ConfigProperty(name = "outbox.breaker.window-size", defaultValue = "20")
+  int windowSize = 20;
+
+  @ConfigProperty(name = "outbox.breaker.minimum-calls", defaultValue = "10")
+  int minimumCalls = 10;
+
+  @ConfigProperty(name = "outbox.breaker.failure-rate-threshold", defaultValue = "0.5")
+  double failureRateThreshold = 0.5;
+
+  @ConfigProperty(name = "outbox.breaker.open-duration-ms", defaultValue = "30000")
+  long openDurationMs = 30_000;
+
+  @ConfigProperty(name = "outbox.breaker.half-open-probes", defaultValue = "3")
+  int halfOpenProbes = 3;
+
+  LongSupplier clock = System::nanoTime;
+
+  private State state = State.CLOSED;
+  private boolean[] outcomes;
+  private int recorded;
+  private int next;
+  private int failures;
+  private long openedAtNanos;
+  private int probesIssued;
+  private int probesSucceeded;
+  private long timesOpened;
+  private long openPeriod;
+
+  public synchronized boolean allowRequest() {
+    if (!enabled) {
+      return true;
+    }
+    if (state == State.OPEN) {
+      if (clock.getAsLong() - openedAtNanos < openDurationNanos()) {
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (probesIssued >= halfOpenProbes) {
+        return false;
+      }
+      probesIssued++;
+    }
+    return true;
+  }
+
+  public synchronized boolean isOpen() {
+    return enabled
+        && state == State.OPEN
+        && clock.getAsLong() - openedAtNanos < openDurationNanos();
+  }
+
+  public synchronized void recordSuccess() {
+    if (!enabled) {
+      return;
+    }
+    if (state == State.HALF_OPEN) {
+      probesSucceeded++;
+      if (probesSucceeded >= halfOpenProbes) {
+        transitionTo(State.CLOSED);
+      }
+      return;
+    }
+    record(false);
+  }
+
+  public synchronized void recordFailure() {
+    if (!enabled) {
+      return;
+    }
+    if (state == State.HALF_OPEN) {
+      transitionTo(State.OPEN);
+      return;
+    }
+    record(true);
+    if (state == State.CLOSED && recorded >= minimumCalls && failureRate() >= failureRateThreshold) {
+      transitionTo(State.OPEN);
+    }
+  }
+
+  public synchronized void recordIgnored() {
+    if (enabled && state == State.HALF_OPEN && probesIssued > 0) {
+      probesIssued--;
+    }
+  }
+
+  public synchronized long remainingOpenMs() {
+    if (state != State.OPEN) {
+      return 0;
+    }
+    long remainingNanos = openDurationNanos() - (clock.getAsLong() - openedAtNanos);
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+  }
+
+  public synchronized State state() {
+    if (enabled && state == State.OPEN && clock.getAsLong() - openedAtNanos >= openDurationNanos()) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  public synchronized double failureRate() {
+    return recorded == 0 ? 0 : (double) failures / recorded;
+  }
+
+  public synchronized long timesOpened() {
+    return timesOpened;
+  }
+
+  public synchronized long openPeriod() {
+    return openPeriod;
+  }
+
+  public synchronized void reset() {
+    transitionTo(State.CLOSED);
+    timesOpened = 0;
+  }
+
+  private void record(boolean failure) {
+    if (outcomes == null || outcomes.length != Math.max(1, windowSize)) {
+      outcomes = new boolean[Math.max(1, windowSize)];
+      recorded = 0;
+      next = 0;
+      failures = 0;
+    }
+    if (recorded == outcomes.length) {
+      if (outcomes[next]) {
+        failures--;
+      }
+    } else {
+      recorded++;
+    }
+    outcomes[next] = failure;
+    if (failure) {
+      failures++;
+    }
+    next = (next + 1) % outcomes.length;
+  }
+
+  private void transitionTo(State target) {
+    if (target == State.OPEN) {
+      openedAtNanos = clock.getAsLong();
+      timesOpened++;
+      openPeriod++;
+      if (state == State.HALF_OPEN) {
+        LOGGER.warnf("Outbox circuit breaker probe failed, pausing publishes for %d ms", openDurationMs);
+      } else {
+        LOGGER.warnf(
+            "Outbox circuit breaker opened at failure rate %.2f, pausing publishes for %d ms",
+            failureRate(),
+            openDurationMs);
+      }
+    } else if (target == State.CLOSED && state != State.CLOSED) {
+      LOGGER.info("Outbox circuit breaker closed, legacy gateway recovered");
+    }
+    state = target;
+    probesIssued = 0;
+    probesSucceeded = 0;
+    if (target != State.HALF_OPEN) {
+      outcomes = null;
+      recorded = 0;
+      next = 0;
+      failures = 0;
+    }
+  }
+
+  private long openDurationNanos() {
+    return TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.time.LocalDateTime;
+
+public class OutboxCounts {
+
+  public final long pending;
+  public final long failed;
+  public final long published;
+  public final long deadLettered;
+  public final LocalDateTime asOf;
+
+  public OutboxCounts(long pending, long failed, long published, long deadLettered, LocalDateTime asOf) {
+    this.pending = pending;
+    this.failed = failed;
+    this.published = published;
+    this.deadLettered = deadLettered;
+    this.asOf = asOf;
+  }
+}
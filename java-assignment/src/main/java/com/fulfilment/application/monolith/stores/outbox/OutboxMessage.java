@@ -1,9 +1,13 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -14,7 +18,17 @@ import java.time.LocalDateTime;
       @Index(name = "idx_outbox_pending", columnList = "publishedAt,nextAttemptAt"),
       @Index(name = "idx_outbox_aggregate", columnList = "aggregateId,createdAt")
     })
-public class OutboxMessage extends PanacheEntity {
+public class OutboxMessage extends PanacheEntityBase {
+
+  static final int ID_ALLOCATION_SIZE = 500;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_message_seq")
+  @SequenceGenerator(
+      name = "outbox_message_seq",
+      sequenceName = "outbox_message_seq",
+      allocationSize = ID_ALLOCATION_SIZE)
+  public Long id;
 
   @Column(nullable = false, unique = true, length = 100)
   public String eventId;
@@ -37,9 +51,12 @@ public class OutboxMessage extends PanacheEntity {
   @Column(nullable = true, length = 100)
   public String correlationId;
 
-  @Column(nullable = false, columnDefinition = "TEXT")
+  @Column(nullable = true, columnDefinition = "TEXT")
   public String payloadJson;
 
+  @Column(nullable = true, columnDefinition = "bytea")
+  public byte[] payload;
+
   @Column(nullable = false)
   public LocalDateTime createdAt;
 
@@ -54,4 +71,13 @@ public class OutboxMessage extends PanacheEntity {
 
   @Column(nullable = false)
   public LocalDateTime nextAttemptAt;
+
+  @Column(nullable = true, length = 100)
+  public String claimedBy;
+
+  @Column(nullable = true)
+  public LocalDateTime leaseUntil;
+
+  @Column(nullable = true)
+  public LocalDateTime deadLetteredAt;
 }
@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.time.LocalDateTime;
+
+public class OutboxMessageFailure {
+
+  public final Long id;
+  public final String error;
+  public final LocalDateTime nextAttemptAt;
+  public final boolean deadLettered;
+
+  public OutboxMessageFailure(Long id, String error, LocalDateTime nextAttemptAt) {
+    this(id, error, nextAttemptAt, false);
+  }
+
+  public OutboxMessageFailure(Long id, String error, LocalDateTime nextAttemptAt, boolean deadLettered) {
+    this.id = id;
+    this.error = error;
+    this.nextAttemptAt = nextAttemptAt;
+    this.deadLettered = deadLettered;
+  }
+}
@@ -2,30 +2,172 @@ package com.fulfilment.application.monolith.stores.outbox;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
 
 @ApplicationScoped
 public class OutboxMessageRepository implements PanacheRepository<OutboxMessage> {
 
+  static final String CLAIM_PENDING_SQL = claimSql("");
+
+  static final String CLAIM_FRESH_SQL = claimSql("AND o.attempts = 0 ");
+
+  static final String CLAIM_DUE_SQL =
+      "SELECT id FROM outbox_message "
+          + "WHERE id IN (:ids) AND publishedAt IS NULL AND deadLetteredAt IS NULL AND nextAttemptAt <= :now "
+          + "AND (leaseUntil IS NULL OR leaseUntil < :now) "
+          + "FOR UPDATE SKIP LOCKED";
+
+  // Candidate rows are selected under a snapshot that cannot see leases other claimers have not
+  // committed yet, so each aggregate is also serialized with a transaction-scoped advisory lock and
+  // re-checked for a live lease by a later statement, whose snapshot follows the lock holder's commit.
+  static final String LOCK_AGGREGATES_SQL =
+      "SELECT o.id FROM outbox_message o WHERE o.id IN (:ids) "
+          + "AND pg_try_advisory_xact_lock(hashtext('outbox:' || o.aggregateId))";
+
+  static final String UNLEASED_AGGREGATES_SQL =
+      "SELECT o.id FROM outbox_message o WHERE o.id IN (:ids) "
+          + "AND NOT EXISTS (SELECT 1 FROM outbox_message l WHERE l.aggregateId = o.aggregateId "
+          + "AND l.publishedAt IS NULL AND l.leaseUntil >= :now)";
+
+  static final String RETRY_SCHEDULE_SQL =
+      "SELECT id, nextAttemptAt FROM outbox_message "
+          + "WHERE publishedAt IS NULL AND deadLetteredAt IS NULL AND attempts > 0";
+
+  static final String MARK_PUBLISHED_SQL =
+      "UPDATE outbox_message SET publishedAt = ?, lastError = NULL, claimedBy = NULL, leaseUntil = NULL "
+          + "WHERE id = ANY(?)";
+
+  static final String MARK_FAILED_SQL =
+      "UPDATE outbox_message SET attempts = attempts + 1, lastError = ?, nextAttemptAt = ?, "
+          + "claimedBy = NULL, leaseUntil = NULL WHERE id = ?";
+
+  static final String MARK_DEAD_LETTERED_SQL =
+      "UPDATE outbox_message SET attempts = attempts + 1, lastError = ?, deadLetteredAt = ?, "
+          + "claimedBy = NULL, leaseUntil = NULL WHERE id = ?";
+
+  static final String PURGE_PUBLISHED_SQL =
+      "DELETE FROM outbox_message WHERE id IN ("
+          + "SELECT id FROM outbox_message WHERE publishedAt IS NOT NULL AND publishedAt < :cutoff "
+          + "ORDER BY publishedAt LIMIT :limit)";
+
+  static final String COUNT_BY_STATE_SQL =
+      "SELECT count(*) FILTER (WHERE publishedAt IS NULL AND deadLetteredAt IS NULL), "
+          + "count(*) FILTER (WHERE publishedAt IS NULL AND deadLetteredAt IS NULL AND attempts > 0), "
+          + "count(*) FILTER (WHERE publishedAt IS NOT NULL), "
+          + "count(*) FILTER (WHERE publishedAt IS NULL AND deadLetteredAt IS NOT NULL) "
+          + "FROM outbox_message";
+
+  static final String DEFER_SQL =
+      "UPDATE outbox_message SET nextAttemptAt = ?, claimedBy = NULL, leaseUntil = NULL WHERE id = ?";
+
   @Transactional
   public void create(OutboxMessage message) {
     persist(message);
   }
 
+  @Transactional
+  public void createAll(List<OutboxMessage> messages, int flushSize) {
+    EntityManager entityManager = getEntityManager();
+    List<OutboxMessage> unflushed = new ArrayList<>(Math.min(messages.size(), flushSize));
+    for (OutboxMessage message : messages) {
+      entityManager.persist(message);
+      unflushed.add(message);
+      if (unflushed.size() >= flushSize) {
+        flushAndDetach(entityManager, unflushed);
+      }
+    }
+    if (!unflushed.isEmpty()) {
+      flushAndDetach(entityManager, unflushed);
+    }
+  }
+
   public List<OutboxMessage> listPending(int limit, LocalDateTime now) {
     return find(
-            "publishedAt is null and nextAttemptAt <= ?1 order by createdAt asc, id asc",
+            "publishedAt is null and deadLetteredAt is null and nextAttemptAt <= ?1 "
+                + "order by createdAt asc, id asc",
             now)
         .page(0, limit)
         .list();
   }
 
+  public List<OutboxMessage> listFresh(int limit, LocalDateTime now) {
+    return find(
+            "publishedAt is null and deadLetteredAt is null and attempts = 0 and nextAttemptAt <= ?1 "
+                + "order by createdAt asc, id asc",
+            now)
+        .page(0, limit)
+        .list();
+  }
+
+  public List<OutboxMessage> listRetryable(List<Long> ids) {
+    return find(
+            "id in ?1 and publishedAt is null and deadLetteredAt is null order by createdAt asc, id asc", ids)
+        .list();
+  }
+
+  @Transactional
+  public List<OutboxMessage> claimPending(
+      int limit, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil) {
+    return claimPending(limit, claimedBy, now, leaseUntil, false);
+  }
+
+  @Transactional
+  public List<OutboxMessage> claimPending(
+      int limit, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil, boolean freshOnly) {
+    @SuppressWarnings("unchecked")
+    List<Number> ids =
+        getEntityManager()
+            .createNativeQuery(freshOnly ? CLAIM_FRESH_SQL : CLAIM_PENDING_SQL)
+            .setParameter("now", now)
+            .setParameter("limit", limit)
+            .getResultList();
+    return claim(ids, claimedBy, now, leaseUntil);
+  }
+
+  @Transactional
+  public List<OutboxMessage> claimDue(
+      List<Long> ids, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil) {
+    @SuppressWarnings("unchecked")
+    List<Number> dueIds =
+        getEntityManager()
+            .createNativeQuery(CLAIM_DUE_SQL)
+            .setParameter("ids", ids)
+            .setParameter("now", now)
+            .getResultList();
+    return claim(dueIds, claimedBy, now, leaseUntil);
+  }
+
+  @Transactional
+  public Map<Long, LocalDateTime> listRetrySchedule() {
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = getEntityManager().createNativeQuery(RETRY_SCHEDULE_SQL).getResultList();
+    Map<Long, LocalDateTime> schedule = new HashMap<>();
+    for (Object[] row : rows) {
+      Object nextAttemptAt = row[1];
+      schedule.put(
+          ((Number) row[0]).longValue(),
+          nextAttemptAt instanceof Timestamp timestamp
+              ? timestamp.toLocalDateTime()
+              : (LocalDateTime) nextAttemptAt);
+    }
+    return schedule;
+  }
+
   @Transactional
   public void markPublished(OutboxMessage message, LocalDateTime publishedAt) {
     message.publishedAt = publishedAt;
     message.lastError = null;
+    releaseLease(message);
     getEntityManager().merge(message);
   }
 
@@ -34,25 +176,99 @@ public class OutboxMessageRepository implements PanacheRepository<OutboxMessage>
     message.attempts = message.attempts + 1;
     message.lastError = truncate(lastError);
     message.nextAttemptAt = nextAttemptAt;
+    releaseLease(message);
     getEntityManager().merge(message);
   }
 
+  @Transactional
+  public void acknowledge(OutboxBatchOutcome outcome, LocalDateTime publishedAt) {
+    List<Long> publishedIds = new ArrayList<>(outcome.publishedIds());
+    publishedIds.addAll(outcome.supersededIds());
+    List<OutboxMessageFailure> failures = new ArrayList<>();
+    List<OutboxMessageFailure> deadLetters = new ArrayList<>();
+    for (OutboxMessageFailure failure : outcome.failures()) {
+      (failure.deadLettered ? deadLetters : failures).add(failure);
+    }
+    Map<Long, LocalDateTime> deferrals = outcome.deferrals();
+    if (publishedIds.isEmpty() && failures.isEmpty() && deadLetters.isEmpty() && deferrals.isEmpty()) {
+      return;
+    }
+    getEntityManager()
+        .unwrap(Session.class)
+        .doWork(
+            connection -> {
+              if (!publishedIds.isEmpty()) {
+                try (PreparedStatement statement = connection.prepareStatement(MARK_PUBLISHED_SQL)) {
+                  statement.setObject(1, publishedAt);
+                  statement.setArray(2, connection.createArrayOf("bigint", publishedIds.toArray()));
+                  statement.executeUpdate();
+                }
+              }
+              if (!failures.isEmpty()) {
+                try (PreparedStatement statement = connection.prepareStatement(MARK_FAILED_SQL)) {
+                  for (OutboxMessageFailure failure : failures) {
+                    statement.setString(1, truncate(failure.error));
+                    statement.setObject(2, failure.nextAttemptAt);
+                    statement.setLong(3, failure.id);
+                    statement.addBatch();
+                  }
+                  statement.executeBatch();
+                }
+              }
+              if (!deadLetters.isEmpty()) {
+                try (PreparedStatement statement = connection.prepareStatement(MARK_DEAD_LETTERED_SQL)) {
+                  for (OutboxMessageFailure deadLetter : deadLetters) {
+                    statement.setString(1, truncate(deadLetter.error));
+                    statement.setObject(2, publishedAt);
+                    statement.setLong(3, deadLetter.id);
+                    statement.addBatch();
+                  }
+                  statement.executeBatch();
+                }
+              }
+              if (!deferrals.isEmpty()) {
+                try (PreparedStatement statement = connection.prepareStatement(DEFER_SQL)) {
+                  for (Map.Entry<Long, LocalDateTime> deferral : deferrals.entrySet()) {
+                    statement.setObject(1, deferral.getValue());
+                    statement.setLong(2, deferral.getKey());
+                    statement.addBatch();
+                  }
+                  statement.executeBatch();
+                }
+              }
+            });
+  }
+
   public long countPending() {
-    return count("publishedAt is null");
+    return count("publishedAt is null and deadLetteredAt is null");
   }
 
   public long countFailed() {
-    return count("publishedAt is null and attempts > 0");
+    return count("publishedAt is null and deadLetteredAt is null and attempts > 0");
+  }
+
+  public long countDeadLettered() {
+    return count("publishedAt is null and deadLetteredAt is not null");
   }
 
   public long countPublished() {
     return count("publishedAt is not null");
   }
 
+  public OutboxCounts countByState() {
+    Object[] row = (Object[]) getEntityManager().createNativeQuery(COUNT_BY_STATE_SQL).getSingleResult();
+    return new OutboxCounts(
+        ((Number) row[0]).longValue(),
+        ((Number) row[1]).longValue(),
+        ((Number) row[2]).longValue(),
+        ((Number) row[3]).longValue(),
+        LocalDateTime.now());
+  }
+
   @Transactional
   public int replay(String aggregateId, LocalDateTime from, LocalDateTime to) {
     return update(
-        "publishedAt = null, nextAttemptAt = ?1, attempts = 0, lastError = null "
+        "publishedAt = null, deadLetteredAt = null, nextAttemptAt = ?1, attempts = 0, lastError = null "
             + "where aggregateId = ?2 and createdAt >= ?3 and createdAt <= ?4",
         LocalDateTime.now(),
         aggregateId,
@@ -60,6 +276,125 @@ public class OutboxMessageRepository implements PanacheRepository<OutboxMessage>
         to);
   }
 
+  @Transactional
+  public List<Long> replayChunk(
+      OutboxReplayCriteria criteria, long afterId, int limit, LocalDateTime nextAttemptAt) {
+    Query query = getEntityManager().createNativeQuery(replayChunkSql(criteria));
+    query.setParameter("afterId", afterId);
+    query.setParameter("limit", limit);
+    if (criteria.aggregateType != null) {
+      query.setParameter("aggregateType", criteria.aggregateType);
+    }
+    if (criteria.aggregateId != null) {
+      query.setParameter("aggregateId", criteria.aggregateId);
+    }
+    if (criteria.from != null) {
+      query.setParameter("from", criteria.from);
+    }
+    if (criteria.to != null) {
+      query.setParameter("to", criteria.to);
+    }
+    @SuppressWarnings("unchecked")
+    List<Number> rows = query.getResultList();
+    if (rows.isEmpty()) {
+      return List.of();
+    }
+    List<Long> ids = rows.stream().map(Number::longValue).toList();
+    update(
+        "publishedAt = null, deadLetteredAt = null, nextAttemptAt = ?1, attempts = 0, lastError = null "
+            + "where id in ?2",
+        nextAttemptAt,
+        ids);
+    return ids;
+  }
+
+  static String replayChunkSql(OutboxReplayCriteria criteria) {
+    StringBuilder sql = new StringBuilder("SELECT id FROM outbox_message WHERE id > :afterId");
+    if (criteria.aggregateType != null) {
+      sql.append(" AND aggregateType = :aggregateType");
+    }
+    if (criteria.aggregateId != null) {
+      sql.append(" AND aggregateId = :aggregateId");
+    }
+    if (criteria.from != null) {
+      sql.append(" AND createdAt >= :from");
+    }
+    if (criteria.to != null) {
+      sql.append(" AND createdAt <= :to");
+    }
+    return sql.append(" ORDER BY id LIMIT :limit").toString();
+  }
+
+  @Transactional
+  public int deferPending(LocalDateTime until, LocalDateTime now) {
+    return update(
+        "nextAttemptAt = ?1 where publishedAt is null and deadLetteredAt is null and nextAttemptAt < ?1 "
+            + "and (leaseUntil is null or leaseUntil < ?2)",
+        until,
+        now);
+  }
+
+  public List<OutboxMessage> listDeadLetters(String aggregateId, long afterId, int limit) {
+    if (aggregateId == null) {
+      return find(
+              "publishedAt is null and deadLetteredAt is not null and id > ?1 order by id asc", afterId)
+          .page(0, limit)
+          .list();
+    }
+    return find(
+            "publishedAt is null and deadLetteredAt is not null and aggregateId = ?1 and id > ?2 "
+                + "order by id asc",
+            aggregateId,
+            afterId)
+        .page(0, limit)
+        .list();
+  }
+
+  public OutboxMessage findDeadLetter(Long id) {
+    return find("id = ?1 and publishedAt is null and deadLetteredAt is not null", id).firstResult();
+  }
+
+  @Transactional
+  public int requeueDeadLetters(List<Long> ids, LocalDateTime nextAttemptAt) {
+    return update(
+        "deadLetteredAt = null, attempts = 0, lastError = null, nextAttemptAt = ?1 "
+            + "where publishedAt is null and deadLetteredAt is not null and id in ?2",
+        nextAttemptAt,
+        ids);
+  }
+
+  @Transactional
+  public int requeueAllDeadLetters(String aggregateId, LocalDateTime nextAttemptAt) {
+    if (aggregateId == null) {
+      return update(
+          "deadLetteredAt = null, attempts = 0, lastError = null, nextAttemptAt = ?1 "
+              + "where publishedAt is null and deadLetteredAt is not null",
+          nextAttemptAt);
+    }
+    return update(
+        "deadLetteredAt = null, attempts = 0, lastError = null, nextAttemptAt = ?1 "
+            + "where publishedAt is null and deadLetteredAt is not null and aggregateId = ?2",
+        nextAttemptAt,
+        aggregateId);
+  }
+
+  @Transactional
+  public int purgePublishedBefore(LocalDateTime cutoff, int limit) {
+    return getEntityManager()
+        .createNativeQuery(PURGE_PUBLISHED_SQL)
+        .setParameter("cutoff", cutoff)
+        .setParameter("limit", limit)
+        .executeUpdate();
+  }
+
+  @Transactional
+  public void notifyChannel(String channel) {
+    getEntityManager()
+        .createNativeQuery("SELECT pg_notify(:channel, '')")
+        .setParameter("channel", channel)
+        .getSingleResult();
+  }
+
   @Transactional
   public void clearAll() {
     deleteAll();
@@ -70,6 +405,65 @@ public class OutboxMessageRepository implements PanacheRepository<OutboxMessage>
     update("nextAttemptAt = ?1 where id = ?2", nextAttemptAt, id);
   }
 
+  private static void flushAndDetach(EntityManager entityManager, List<OutboxMessage> messages) {
+    entityManager.flush();
+    messages.forEach(entityManager::detach);
+    messages.clear();
+  }
+
+  private static String claimSql(String extraPredicate) {
+    return "SELECT o.id FROM outbox_message o "
+        + "WHERE o.publishedAt IS NULL AND o.deadLetteredAt IS NULL AND o.nextAttemptAt <= :now "
+        + extraPredicate
+        + "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now) "
+        + "AND NOT EXISTS (SELECT 1 FROM outbox_message l WHERE l.aggregateId = o.aggregateId "
+        + "AND l.publishedAt IS NULL AND l.leaseUntil >= :now) "
+        + "ORDER BY o.createdAt, o.id "
+        + "LIMIT :limit "
+        + "FOR UPDATE SKIP LOCKED";
+  }
+
+  private List<OutboxMessage> claim(
+      List<Number> candidateIds, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil) {
+    if (candidateIds.isEmpty()) {
+      return List.of();
+    }
+    List<Long> lockedIds =
+        selectIds(
+            getEntityManager()
+                .createNativeQuery(LOCK_AGGREGATES_SQL)
+                .setParameter("ids", toLongs(candidateIds)));
+    if (lockedIds.isEmpty()) {
+      return List.of();
+    }
+    List<Long> claimedIds =
+        selectIds(
+            getEntityManager()
+                .createNativeQuery(UNLEASED_AGGREGATES_SQL)
+                .setParameter("ids", lockedIds)
+                .setParameter("now", now));
+    if (claimedIds.isEmpty()) {
+      return List.of();
+    }
+    update("claimedBy = ?1, leaseUntil = ?2 where id in ?3", claimedBy, leaseUntil, claimedIds);
+    return find("id in ?1 order by createdAt asc, id asc", claimedIds).list();
+  }
+
+  private static List<Long> selectIds(Query query) {
+    @SuppressWarnings("unchecked")
+    List<Number> rows = query.getResultList();
+    return toLongs(rows);
+  }
+
+  private static List<Long> toLongs(List<Number> ids) {
+    return ids.stream().map(Number::longValue).toList();
+  }
+
+  private void releaseLease(OutboxMessage message) {
+    message.claimedBy = null;
+    message.leaseUntil = null;
+  }
+
   private String truncate(String value) {
     if (value == null) {
       return null;
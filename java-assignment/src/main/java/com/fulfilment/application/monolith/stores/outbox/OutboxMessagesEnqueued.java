@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+public class OutboxMessagesEnqueued {
+
+  public final int count;
+
+  public OutboxMessagesEnqueued(int count) {
+    this.count = count;
+  }
+}
@@ -0,0 +1,153 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+@ApplicationScoped
+public class OutboxNotificationListener {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxNotificationListener.class);
+  private static final Pattern CHANNEL_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,62}");
+
+  @Inject OutboxPublisher outboxPublisher;
+
+  // LISTEN holds its connection for the life of the node, so it is opened outside the Agroal pool
+  // rather than taking one of the request path's connections for good.
+  @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+  Optional<String> jdbcUrl = Optional.empty();
+
+  @ConfigProperty(name = "quarkus.datasource.username")
+  Optional<String> username = Optional.empty();
+
+  @ConfigProperty(name = "quarkus.datasource.password")
+  Optional<String> password = Optional.empty();
+
+  @ConfigProperty(name = "outbox.publisher.enabled", defaultValue = "true")
+  boolean publisherEnabled;
+
+  @ConfigProperty(name = "outbox.publisher.notify.postgres-enabled", defaultValue = "false")
+  boolean postgresEnabled;
+
+  @ConfigProperty(name = "outbox.publisher.notify.channel", defaultValue = "outbox_message")
+  String channel = "outbox_message";
+
+  @ConfigProperty(name = "outbox.publisher.notify.poll-timeout-ms", defaultValue = "1000")
+  int pollTimeoutMs = 1000;
+
+  @ConfigProperty(name = "outbox.publisher.notify.reconnect-delay-ms", defaultValue = "5000")
+  long reconnectDelayMs = 5000;
+
+  volatile boolean running;
+  private Thread listenerThread;
+
+  void onStart(@Observes StartupEvent event) {
+    start();
+  }
+
+  synchronized void start() {
+    if (!publisherEnabled || !postgresEnabled) {
+      LOGGER.info("Outbox LISTEN/NOTIFY wake-up is disabled by configuration.");
+      return;
+    }
+    String listenSql = listenStatement(channel);
+    running = true;
+    listenerThread = new Thread(() -> listenLoop(listenSql), "outbox-notify-listener");
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+      // Give the current poll time to return so the loop can UNLISTEN and close its connection.
+      try {
+        listenerThread.join(pollTimeoutMs * 2L);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      listenerThread = null;
+    }
+  }
+
+  static String listenStatement(String channel) {
+    if (channel == null || !CHANNEL_NAME.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Invalid outbox notification channel: " + channel);
+    }
+    return "LISTEN " + channel;
+  }
+
+  void listenLoop(String listenSql) {
+    while (running) {
+      try (Connection connection = openConnection()) {
+        listen(connection, listenSql);
+      } catch (SQLException ex) {
+        if (running) {
+          LOGGER.warnf(ex, "Outbox notification listener lost its connection, retrying in %d ms", reconnectDelayMs);
+          pause();
+        }
+      }
+    }
+  }
+
+  Connection openConnection() throws SQLException {
+    String url = jdbcUrl.orElseThrow(() -> new SQLException("quarkus.datasource.jdbc.url is not configured"));
+    Properties properties = new Properties();
+    username.ifPresent(value -> properties.setProperty("user", value));
+    password.ifPresent(value -> properties.setProperty("password", value));
+    properties.setProperty("ApplicationName", "outbox-notify-listener");
+    return DriverManager.getConnection(url, properties);
+  }
+
+  private void listen(Connection connection, String listenSql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(listenSql);
+      try {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        // Anything committed while we were not listening would otherwise wait for the safety-net poll.
+        outboxPublisher.requestDrain();
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+          if (notifications != null && notifications.length > 0) {
+            outboxPublisher.requestDrain();
+          }
+        }
+      } finally {
+        unlisten(statement, listenSql);
+      }
+    }
+  }
+
+  private void unlisten(Statement statement, String listenSql) {
+    try {
+      statement.execute("UN" + listenSql);
+    } catch (SQLException ex) {
+      // The connection is already broken; closing it drops the subscription on the server anyway.
+      LOGGER.debug("Outbox notification listener could not UNLISTEN before closing", ex);
+    }
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(reconnectDelayMs);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
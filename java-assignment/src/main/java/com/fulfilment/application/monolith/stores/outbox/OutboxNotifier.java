@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class OutboxNotifier {
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+  @Inject Event<OutboxMessagesEnqueued> messagesEnqueuedEvent;
+
+  @ConfigProperty(name = "outbox.publisher.notify.postgres-enabled", defaultValue = "false")
+  boolean postgresEnabled;
+
+  @ConfigProperty(name = "outbox.publisher.notify.channel", defaultValue = "outbox_message")
+  String channel = "outbox_message";
+
+  public void messagesEnqueued(int count) {
+    if (postgresEnabled) {
+      outboxMessageRepository.notifyChannel(channel);
+    }
+    messagesEnqueuedEvent.fire(new OutboxMessagesEnqueued(count));
+  }
+}
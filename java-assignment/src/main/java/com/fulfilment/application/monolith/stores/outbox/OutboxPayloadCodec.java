@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+public interface OutboxPayloadCodec {
+
+  int schemaVersion();
+
+  byte[] encode(StoreChangedEventPayload payload);
+
+  StoreChangedEventPayload decode(byte[] encoded);
+}
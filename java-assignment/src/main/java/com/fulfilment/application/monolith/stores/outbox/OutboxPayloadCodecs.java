@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@ApplicationScoped
+public class OutboxPayloadCodecs {
+
+  private final Map<Integer, OutboxPayloadCodec> codecs;
+
+  @Inject
+  public OutboxPayloadCodecs(ObjectMapper objectMapper) {
+    codecs =
+        Map.of(
+            JsonPayloadCodec.SCHEMA_VERSION, new JsonPayloadCodec(objectMapper),
+            BinaryPayloadCodec.SCHEMA_VERSION, new BinaryPayloadCodec());
+  }
+
+  public OutboxPayloadCodec forSchemaVersion(int schemaVersion) {
+    OutboxPayloadCodec codec = codecs.get(schemaVersion);
+    if (codec == null) {
+      throw new OutboxPayloadException("No payload codec for schema version " + schemaVersion + ".");
+    }
+    return codec;
+  }
+
+  public static boolean isBinary(int schemaVersion) {
+    return schemaVersion != JsonPayloadCodec.SCHEMA_VERSION;
+  }
+
+  public void write(OutboxMessage message, StoreChangedEventPayload payload) {
+    byte[] encoded = forSchemaVersion(message.schemaVersion).encode(payload);
+    if (isBinary(message.schemaVersion)) {
+      message.payload = encoded;
+      message.payloadJson = null;
+    } else {
+      message.payloadJson = new String(encoded, StandardCharsets.UTF_8);
+      message.payload = null;
+    }
+  }
+
+  public static byte[] encodedPayload(OutboxMessage message) {
+    if (message.payload != null) {
+      return message.payload;
+    }
+    return message.payloadJson == null ? new byte[0] : message.payloadJson.getBytes(StandardCharsets.UTF_8);
+  }
+}
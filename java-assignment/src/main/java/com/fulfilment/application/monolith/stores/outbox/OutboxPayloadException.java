@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+public class OutboxPayloadException extends RuntimeException {
+
+  public OutboxPayloadException(String message) {
+    super(message);
+  }
+
+  public OutboxPayloadException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
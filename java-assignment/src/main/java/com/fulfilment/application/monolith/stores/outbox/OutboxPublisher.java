@@ -1,16 +1,36 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
+import java.net.InetAddress;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
@@ -18,12 +38,13 @@ import org.jboss.logging.Logger;
 public class OutboxPublisher {
 
   private static final Logger LOGGER = Logger.getLogger(OutboxPublisher.class);
-  private static final int BATCH_SIZE = 100;
+  private static final int DEFAULT_BATCH_SIZE = 100;
 
   @Inject OutboxMessageRepository outboxMessageRepository;
   @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
-  @Inject ObjectMapper objectMapper;
   @Inject OutboxPublisherMetrics metrics;
+  @Inject OutboxCircuitBreaker circuitBreaker;
+  @Inject OutboxRetryScheduler retryScheduler;
 
   @ConfigProperty(name = "outbox.publisher.interval-seconds", defaultValue = "30")
   long intervalSeconds;
@@ -34,7 +55,64 @@ public class OutboxPublisher {
   @ConfigProperty(name = "outbox.publisher.enabled", defaultValue = "true")
   boolean enabled;
 
-  private ScheduledExecutorService scheduler;
+  @ConfigProperty(name = "outbox.publisher.batch-size", defaultValue = "100")
+  int batchSize = DEFAULT_BATCH_SIZE;
+
+  @ConfigProperty(name = "outbox.publisher.max-batch-size", defaultValue = "1000")
+  int maxBatchSize = 1000;
+
+  @ConfigProperty(name = "outbox.publisher.min-interval-ms", defaultValue = "500")
+  long minIntervalMs = 500;
+
+  @ConfigProperty(name = "outbox.publisher.lanes", defaultValue = "1")
+  int laneCount = 1;
+
+  @ConfigProperty(name = "outbox.publisher.lease.enabled", defaultValue = "false")
+  boolean leaseEnabled;
+
+  @ConfigProperty(name = "outbox.publisher.lease.duration-seconds", defaultValue = "60")
+  long leaseDurationSeconds = 60;
+
+  @ConfigProperty(name = "outbox.publisher.pipeline.enabled", defaultValue = "false")
+  boolean pipelineEnabled;
+
+  @ConfigProperty(name = "outbox.publisher.pipeline.max-in-flight", defaultValue = "32")
+  int maxInFlight = 32;
+
+  @ConfigProperty(name = "outbox.publisher.pipeline.ack-batch-size", defaultValue = "50")
+  int ackBatchSize = 50;
+
+  @ConfigProperty(name = "outbox.publisher.coalesce-snapshots", defaultValue = "false")
+  boolean coalesceSnapshots;
+
+  @ConfigProperty(name = "outbox.publisher.coalesce-event-types", defaultValue = "StoreUpdated,StorePatched,StoreStockAdjusted")
+  Set<String> coalescibleEventTypes = Set.of("StoreUpdated", "StorePatched", "StoreStockAdjusted");
+
+  @ConfigProperty(name = "outbox.publisher.max-attempts", defaultValue = "10")
+  int maxAttempts = 10;
+
+  @ConfigProperty(name = "outbox.publisher.retry-jitter", defaultValue = "0.2")
+  double retryJitter = 0.2;
+
+  @ConfigProperty(name = "outbox.publisher.strict-ordering", defaultValue = "true")
+  boolean strictOrdering = true;
+
+  @ConfigProperty(name = "outbox.publisher.node-id")
+  Optional<String> configuredNodeId = Optional.empty();
+
+  private volatile String nodeId;
+
+  private volatile ScheduledExecutorService scheduler;
+  private ScheduledFuture<?> nextTick;
+  private volatile boolean wakeRequested;
+  private final Object breakerDeadlineLock = new Object();
+  private long breakerDeadlinePeriod = -1;
+  private LocalDateTime breakerDeadline;
+  private boolean breakerBacklogDeferred;
+  private volatile int currentBatchSize;
+  private volatile long currentPollDelayMs;
+  private ExecutorService[] laneWorkers;
+  private ExecutorService pipelineWorkers;
 
   @PostConstruct
   void start() {
@@ -42,18 +120,10 @@ public class OutboxPublisher {
       LOGGER.info("Outbox background scheduler is disabled by configuration.");
       return;
     }
+    currentBatchSize = batchSize;
+    currentPollDelayMs = minIntervalMs;
     scheduler = Executors.newSingleThreadScheduledExecutor();
-    scheduler.scheduleAtFixedRate(
-        () -> {
-          try {
-            publishPending();
-          } catch (Exception ex) {
-            LOGGER.error("Unexpected outbox publisher failure", ex);
-          }
-        },
-        initialDelaySeconds,
-        intervalSeconds,
-        TimeUnit.SECONDS);
+    scheduleTick(TimeUnit.SECONDS.toMillis(initialDelaySeconds));
   }
 
   @PreDestroy
@@ -61,36 +131,484 @@ public class OutboxPublisher {
     if (scheduler != null) {
       scheduler.shutdownNow();
     }
+    synchronized (this) {
+      if (laneWorkers != null) {
+        for (ExecutorService worker : laneWorkers) {
+          worker.shutdownNow();
+        }
+        laneWorkers = null;
+      }
+      if (pipelineWorkers != null) {
+        pipelineWorkers.shutdownNow();
+        pipelineWorkers = null;
+      }
+    }
+  }
+
+  void onMessagesEnqueued(@Observes(during = TransactionPhase.AFTER_SUCCESS) OutboxMessagesEnqueued event) {
+    requestDrain();
+  }
+
+  public synchronized boolean requestDrain() {
+    if (scheduler == null || scheduler.isShutdown()) {
+      return false;
+    }
+    wakeRequested = true;
+    currentPollDelayMs = minIntervalMs;
+    if (nextTick != null && nextTick.getDelay(TimeUnit.MILLISECONDS) > 0 && nextTick.cancel(false)) {
+      scheduleTick(0);
+    }
+    return true;
+  }
+
+  public int currentBatchSize() {
+    return currentBatchSize > 0 ? currentBatchSize : batchSize;
+  }
+
+  public long currentPollDelayMs() {
+    return currentPollDelayMs;
+  }
+
+  private synchronized void scheduleTick(long delayMs) {
+    ScheduledExecutorService current = scheduler;
+    if (current == null || current.isShutdown()) {
+      return;
+    }
+    try {
+      nextTick = current.schedule(this::tick, delayMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      LOGGER.debug("Outbox scheduler is shutting down, not scheduling another tick.");
+    }
+  }
+
+  private void tick() {
+    wakeRequested = false;
+    long delayMs;
+    try {
+      delayMs = drainStep();
+    } catch (Exception ex) {
+      LOGGER.error("Unexpected outbox publisher failure", ex);
+      delayMs = maxPollDelayMs();
+    }
+    scheduleTick(wakeRequested ? 0 : delayMs);
+  }
+
+  long drainStep() {
+    int size = currentBatchSize();
+    long started = System.nanoTime();
+    int processed = publishPending(size);
+    metrics.recordDrain(processed, System.nanoTime() - started);
+    return nextDelayMs(processed, size);
+  }
+
+  long nextDelayMs(int processed, int size) {
+    if (processed >= size) {
+      currentBatchSize = Math.min(Math.max(maxBatchSize, batchSize), size * 2);
+      currentPollDelayMs = minIntervalMs;
+      return 0;
+    }
+    currentBatchSize = Math.max(batchSize, size / 2);
+    if (processed > 0) {
+      currentPollDelayMs = minIntervalMs;
+      return minIntervalMs;
+    }
+    long delayMs = currentPollDelayMs > 0 ? currentPollDelayMs : minIntervalMs;
+    currentPollDelayMs = Math.min(maxPollDelayMs(), delayMs * 2);
+    return delayMs;
+  }
+
+  private long maxPollDelayMs() {
+    return Math.max(minIntervalMs, TimeUnit.SECONDS.toMillis(intervalSeconds));
   }
 
   public int publishPending() {
-    List<OutboxMessage> pending = outboxMessageRepository.listPending(BATCH_SIZE, LocalDateTime.now());
-    for (OutboxMessage message : pending) {
-      long start = System.currentTimeMillis();
+    return publishPending(batchSize);
+  }
+
+  public int publishPending(int limit) {
+    if (circuitBreaker.isOpen()) {
+      skipWhileBreakerOpen();
+      return 0;
+    }
+    List<OutboxMessage> pending = fetchPending(limit, LocalDateTime.now());
+    if (pending.isEmpty()) {
+      return 0;
+    }
+    if (pipelineEnabled) {
+      publishPipelined(pending);
+      return pending.size();
+    }
+    OutboxBatchOutcome outcome = new OutboxBatchOutcome();
+    if (laneCount <= 1) {
+      publishLane(0, pending, outcome);
+    } else {
+      dispatchToLanes(pending, outcome);
+    }
+    acknowledge(outcome);
+    return pending.size();
+  }
+
+  private void skipWhileBreakerOpen() {
+    LocalDateTime retryAt;
+    synchronized (breakerDeadlineLock) {
+      retryAt = breakerRetryAt();
+      if (breakerBacklogDeferred) {
+        metrics.recordBreakerSkip(0);
+        return;
+      }
+      breakerBacklogDeferred = true;
+    }
+    int deferred;
+    try {
+      deferred = outboxMessageRepository.deferPending(retryAt, LocalDateTime.now());
+    } catch (RuntimeException ex) {
+      synchronized (breakerDeadlineLock) {
+        breakerBacklogDeferred = false;
+      }
+      throw ex;
+    }
+    metrics.recordBreakerSkip(deferred);
+  }
+
+  private LocalDateTime breakerRetryAt() {
+    synchronized (breakerDeadlineLock) {
+      long period = circuitBreaker.openPeriod();
+      if (period != breakerDeadlinePeriod) {
+        breakerDeadlinePeriod = period;
+        breakerDeadline = LocalDateTime.now().plus(Duration.ofMillis(circuitBreaker.remainingOpenMs()));
+        breakerBacklogDeferred = false;
+      }
+      return breakerDeadline;
+    }
+  }
+
+  private void acknowledge(OutboxBatchOutcome outcome) {
+    if (outcome.isEmpty()) {
+      return;
+    }
+    outboxMessageRepository.acknowledge(outcome, LocalDateTime.now());
+    metrics.recordAcknowledgement();
+    if (retryWheelActive()) {
+      for (OutboxMessageFailure failure : outcome.failures()) {
+        if (!failure.deadLettered) {
+          retryScheduler.schedule(failure.id, failure.nextAttemptAt);
+        }
+      }
+      outcome.deferrals().forEach(retryScheduler::schedule);
+    }
+  }
+
+  private boolean retryWheelActive() {
+    return retryScheduler != null && retryScheduler.isActive();
+  }
+
+  public String nodeId() {
+    if (nodeId == null) {
+      nodeId =
+          configuredNodeId
+              .filter(value -> !value.isBlank())
+              .orElseGet(() -> hostName() + "-" + UUID.randomUUID().toString().substring(0, 8));
+    }
+    return nodeId;
+  }
+
+  private List<OutboxMessage> fetchPending(int limit, LocalDateTime now) {
+    if (!retryWheelActive()) {
+      if (leaseEnabled) {
+        return outboxMessageRepository.claimPending(
+            limit, nodeId(), now, now.plusSeconds(leaseDurationSeconds));
+      }
+      return outboxMessageRepository.listPending(limit, now);
+    }
+    List<OutboxMessage> retries = fetchDueRetries(limit, now);
+    int remaining = limit - retries.size();
+    List<OutboxMessage> fresh;
+    if (remaining <= 0) {
+      fresh = List.of();
+    } else if (leaseEnabled) {
+      fresh =
+          outboxMessageRepository.claimPending(
+              remaining, nodeId(), now, now.plusSeconds(leaseDurationSeconds), true);
+    } else {
+      fresh = outboxMessageRepository.listFresh(remaining, now);
+    }
+    if (retries.isEmpty()) {
+      return fresh;
+    }
+    Map<Long, OutboxMessage> merged = new LinkedHashMap<>();
+    retries.forEach(message -> merged.put(message.id, message));
+    fresh.forEach(message -> merged.putIfAbsent(message.id, message));
+    List<OutboxMessage> batch = new ArrayList<>(merged.values());
+    batch.sort(Comparator.comparing((OutboxMessage message) -> message.createdAt).thenComparing(message -> message.id));
+    return batch;
+  }
+
+  private List<OutboxMessage> fetchDueRetries(int limit, LocalDateTime now) {
+    List<Long> ids = retryScheduler.pollDue(limit);
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    List<Long> dueIds = new ArrayList<>();
+    List<OutboxMessage> due = new ArrayList<>();
+    for (OutboxMessage message : outboxMessageRepository.listRetryable(ids)) {
+      if (message.nextAttemptAt.isAfter(now)) {
+        retryScheduler.schedule(message.id, message.nextAttemptAt);
+      } else {
+        dueIds.add(message.id);
+        due.add(message);
+      }
+    }
+    if (leaseEnabled && !dueIds.isEmpty()) {
+      LocalDateTime leaseUntil = now.plusSeconds(leaseDurationSeconds);
+      List<OutboxMessage> claimed = outboxMessageRepository.claimDue(dueIds, nodeId(), now, leaseUntil);
+      if (claimed.size() < due.size()) {
+        rescheduleUnclaimed(due, claimed, leaseUntil);
+      }
+      return claimed;
+    }
+    return due;
+  }
+
+  // A skipped retry is leased elsewhere or not yet due by the database clock; retry it once that
+  // lease would have run out instead of waiting for the next reconcile.
+  private void rescheduleUnclaimed(List<OutboxMessage> due, List<OutboxMessage> claimed, LocalDateTime leaseUntil) {
+    Set<Long> claimedIds = new HashSet<>();
+    claimed.forEach(message -> claimedIds.add(message.id));
+    for (OutboxMessage message : due) {
+      if (!claimedIds.contains(message.id)) {
+        LocalDateTime retryAt = message.nextAttemptAt.isAfter(leaseUntil) ? message.nextAttemptAt : leaseUntil;
+        if (message.leaseUntil != null && message.leaseUntil.isAfter(retryAt)) {
+          retryAt = message.leaseUntil;
+        }
+        retryScheduler.schedule(message.id, retryAt);
+      }
+    }
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception ex) {
+      return "outbox-node";
+    }
+  }
+
+  static int laneFor(String aggregateId, int laneCount) {
+    if (laneCount <= 1 || aggregateId == null) {
+      return 0;
+    }
+    int hash = aggregateId.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+  }
+
+  static Map<Integer, List<OutboxMessage>> partitionByLane(List<OutboxMessage> messages, int laneCount) {
+    Map<Integer, List<OutboxMessage>> lanes = new TreeMap<>();
+    for (OutboxMessage message : messages) {
+      lanes.computeIfAbsent(laneFor(message.aggregateId, laneCount), ignored -> new ArrayList<>()).add(message);
+    }
+    return lanes;
+  }
+
+  private void dispatchToLanes(List<OutboxMessage> pending, OutboxBatchOutcome outcome) {
+    ExecutorService[] workers = laneWorkers();
+    List<Future<?>> inFlight = new ArrayList<>();
+    for (Map.Entry<Integer, List<OutboxMessage>> lane : partitionByLane(pending, laneCount).entrySet()) {
+      int laneIndex = lane.getKey();
+      List<OutboxMessage> messages = lane.getValue();
+      inFlight.add(workers[laneIndex].submit(() -> publishLane(laneIndex, messages, outcome)));
+    }
+    for (Future<?> future : inFlight) {
+      try {
+        future.get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for outbox lanes", ex);
+      } catch (ExecutionException ex) {
+        LOGGER.error("Unexpected outbox lane failure", ex.getCause());
+      }
+    }
+  }
+
+  static Map<String, List<OutboxMessage>> partitionByAggregate(List<OutboxMessage> messages) {
+    return partitionByAggregate(messages, true);
+  }
+
+  static Map<String, List<OutboxMessage>> partitionByAggregate(
+      List<OutboxMessage> messages, boolean strictOrdering) {
+    Map<String, List<OutboxMessage>> chains = new LinkedHashMap<>();
+    for (OutboxMessage message : messages) {
+      String chainKey = message.aggregateType + ":" + message.aggregateId;
+      if (!strictOrdering && message.aggregateVersion != null) {
+        chainKey += "#" + message.id;
+      }
+      chains.computeIfAbsent(chainKey, ignored -> new ArrayList<>()).add(message);
+    }
+    return chains;
+  }
+
+  private boolean ordersAfterFailure(OutboxMessage message) {
+    return strictOrdering || message.aggregateVersion == null;
+  }
+
+  private void publishPipelined(List<OutboxMessage> pending) {
+    ExecutorService workers = pipelineWorkers();
+    OutboxBatchOutcome unacknowledged = new OutboxBatchOutcome();
+    List<Future<?>> inFlight = new ArrayList<>();
+    for (List<OutboxMessage> chain : partitionByAggregate(pending, strictOrdering).values()) {
+      inFlight.add(
+          workers.submit(
+              () -> {
+                OutboxBatchOutcome chainOutcome = new OutboxBatchOutcome();
+                publishLane(-1, chain, chainOutcome);
+                unacknowledged.mergeFrom(chainOutcome);
+                if (unacknowledged.size() >= ackBatchSize) {
+                  acknowledge(unacknowledged.drain());
+                }
+              }));
+    }
+    for (Future<?> future : inFlight) {
       try {
-        StoreChangedEventPayload payload =
-            objectMapper.readValue(message.payloadJson, StoreChangedEventPayload.class);
-        legacyStoreManagerGateway.publishStoreEvent(
-            message.eventId,
-            idempotencyKeyFor(message),
-            message.eventType,
-            message.schemaVersion,
-            message.correlationId,
-            payload);
-        outboxMessageRepository.markPublished(message, LocalDateTime.now());
-        metrics.recordSuccess(System.currentTimeMillis() - start);
+        future.get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for outbox pipeline", ex);
+      } catch (ExecutionException ex) {
+        LOGGER.error("Unexpected outbox pipeline failure", ex.getCause());
+      }
+    }
+    acknowledge(unacknowledged.drain());
+  }
+
+  static Set<Long> supersededSnapshots(List<OutboxMessage> messages, Set<String> snapshotEventTypes) {
+    Set<Long> superseded = new HashSet<>();
+    Map<String, OutboxMessage> latestSnapshots = new HashMap<>();
+    for (OutboxMessage message : messages) {
+      String aggregateKey = message.aggregateType + ":" + message.aggregateId;
+      if (!snapshotEventTypes.contains(message.eventType)) {
+        latestSnapshots.remove(aggregateKey);
+        continue;
+      }
+      OutboxMessage previous = latestSnapshots.put(aggregateKey, message);
+      if (previous != null) {
+        superseded.add(previous.id);
+      }
+    }
+    return superseded;
+  }
+
+  private void publishLane(int lane, List<OutboxMessage> messages, OutboxBatchOutcome outcome) {
+    Map<String, LocalDateTime> blockedAggregates = new HashMap<>();
+    Set<Long> superseded =
+        coalesceSnapshots ? supersededSnapshots(messages, coalescibleEventTypes) : Set.of();
+    if (!superseded.isEmpty()) {
+      metrics.recordCoalesced(superseded.size());
+    }
+    for (OutboxMessage message : messages) {
+      if (superseded.contains(message.id)) {
+        outcome.superseded(message.id);
+        continue;
+      }
+      LocalDateTime blockedUntil = ordersAfterFailure(message) ? blockedAggregates.get(message.aggregateId) : null;
+      if (blockedUntil != null) {
+        outcome.deferred(message.id, blockedUntil);
+        continue;
+      }
+      try {
+        byte[] payload = OutboxPayloadCodecs.encodedPayload(message);
+        if (!circuitBreaker.allowRequest()) {
+          LocalDateTime retryAt = breakerRetryAt();
+          outcome.deferred(message.id, retryAt);
+          blockedAggregates.put(message.aggregateId, retryAt);
+          continue;
+        }
+        long start = System.nanoTime();
+        try {
+          legacyStoreManagerGateway.publishEncodedStoreEvent(
+              message.eventId,
+              idempotencyKeyFor(message),
+              message.eventType,
+              message.schemaVersion,
+              message.correlationId,
+              payload);
+        } catch (OutboxPayloadException ex) {
+          circuitBreaker.recordIgnored();
+          throw ex;
+        } catch (RuntimeException ex) {
+          circuitBreaker.recordFailure();
+          throw ex;
+        }
+        circuitBreaker.recordSuccess();
+        outcome.published(message.id);
+        metrics.recordSuccess(System.nanoTime() - start);
+        if (message.createdAt != null) {
+          metrics.recordEndToEndLag(Duration.between(message.createdAt, LocalDateTime.now()).toNanos());
+        }
+        if (lane >= 0) {
+          metrics.recordLaneSuccess(lane);
+        }
       } catch (Exception ex) {
         LOGGER.errorf(ex, "Failed to publish outbox message id=%s eventId=%s", message.id, message.eventId);
-        outboxMessageRepository.markFailed(message, ex.getMessage(), nextAttemptAt(message.attempts));
+        LocalDateTime retryAt = nextAttemptAt(message.attempts);
+        boolean deadLettered = maxAttempts > 0 && message.attempts + 1 >= maxAttempts;
+        if (deadLettered) {
+          LOGGER.warnf(
+              "Dead-lettering outbox message id=%s eventId=%s after %d attempts",
+              message.id, message.eventId, message.attempts + 1);
+          metrics.recordDeadLettered();
+        }
+        outcome.failed(new OutboxMessageFailure(message.id, ex.getMessage(), retryAt, deadLettered));
         metrics.recordFailure();
+        if (lane >= 0) {
+          metrics.recordLaneFailure(lane);
+        }
+        blockedAggregates.put(message.aggregateId, retryAt);
       }
     }
-    return pending.size();
+  }
+
+  private synchronized ExecutorService[] laneWorkers() {
+    if (laneWorkers == null) {
+      laneWorkers = new ExecutorService[laneCount];
+      for (int i = 0; i < laneCount; i++) {
+        String threadName = "outbox-lane-" + i;
+        laneWorkers[i] =
+            Executors.newSingleThreadExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, threadName);
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+    }
+    return laneWorkers;
+  }
+
+  private synchronized ExecutorService pipelineWorkers() {
+    if (pipelineWorkers == null) {
+      AtomicInteger threadIndex = new AtomicInteger();
+      pipelineWorkers =
+          Executors.newFixedThreadPool(
+              Math.max(1, maxInFlight),
+              runnable -> {
+                Thread thread = new Thread(runnable, "outbox-pipeline-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    return pipelineWorkers;
   }
 
   private LocalDateTime nextAttemptAt(int attempts) {
-    int backoffSeconds = Math.min(60, Math.max(1, (int) Math.pow(2, attempts)));
-    return LocalDateTime.now().plusSeconds(backoffSeconds);
+    long backoffMs = TimeUnit.SECONDS.toMillis(Math.min(60, Math.max(1, (int) Math.pow(2, attempts))));
+    return LocalDateTime.now()
+        .plus(Duration.ofMillis(withJitter(backoffMs, retryJitter, ThreadLocalRandom.current().nextDouble())));
+  }
+
+  static long withJitter(long backoffMs, double jitter, double random) {
+    if (jitter <= 0) {
+      return backoffMs;
+    }
+    return Math.max(1, backoffMs + Math.round(backoffMs * jitter * (2 * random - 1)));
   }
 
   private String idempotencyKeyFor(OutboxMessage message) {
@@ -1,22 +1,97 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @ApplicationScoped
 public class OutboxPublisherMetrics {
 
+  private static final double DRAIN_RATE_SMOOTHING = 0.3;
+  private static final int RATE_WINDOW_SECONDS = 300;
+
   private final AtomicLong publishedCount = new AtomicLong();
   private final AtomicLong failedCount = new AtomicLong();
-  private final AtomicLong totalPublishLatencyMs = new AtomicLong();
+  private final AtomicLong totalPublishLatencyNanos = new AtomicLong();
+  private final AtomicLong acknowledgementCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+  private final AtomicLong deadLetteredCount = new AtomicLong();
+  private final AtomicLong breakerSkippedBatches = new AtomicLong();
+  private final AtomicLong breakerDeferredCount = new AtomicLong();
+  private final AtomicLong retentionLastPurgedCount = new AtomicLong();
+  private final AtomicLong retentionTotalPurgedCount = new AtomicLong();
+  private final ConcurrentHashMap<Integer, LongAdder> lanePublishedCounts = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, LongAdder> laneFailedCounts = new ConcurrentHashMap<>();
+  private final LatencyHistogram publishLatency = new LatencyHistogram();
+  private final LatencyHistogram endToEndLag = new LatencyHistogram();
+  private final SlidingWindowCounter publishedWindow = new SlidingWindowCounter(RATE_WINDOW_SECONDS);
+  private final SlidingWindowCounter failedWindow = new SlidingWindowCounter(RATE_WINDOW_SECONDS);
+  private long lastDrainNanos;
+  private boolean drainRateSampled;
+  private double drainRatePerSecond;
 
-  public void recordSuccess(long publishLatencyMs) {
+  public void recordSuccess(long publishLatencyNanos) {
     publishedCount.incrementAndGet();
-    totalPublishLatencyMs.addAndGet(publishLatencyMs);
+    totalPublishLatencyNanos.addAndGet(publishLatencyNanos);
+    publishLatency.recordNanos(publishLatencyNanos);
+    publishedWindow.increment();
+  }
+
+  public void recordEndToEndLag(long lagNanos) {
+    endToEndLag.recordNanos(lagNanos);
   }
 
   public void recordFailure() {
     failedCount.incrementAndGet();
+    failedWindow.increment();
+  }
+
+  public void recordAcknowledgement() {
+    acknowledgementCount.incrementAndGet();
+  }
+
+  public void recordCoalesced(int superseded) {
+    coalescedCount.addAndGet(superseded);
+  }
+
+  public void recordDeadLettered() {
+    deadLetteredCount.incrementAndGet();
+  }
+
+  public void recordBreakerSkip(int deferred) {
+    breakerSkippedBatches.incrementAndGet();
+    breakerDeferredCount.addAndGet(deferred);
+  }
+
+  public void recordRetentionRun(long purged) {
+    retentionLastPurgedCount.set(purged);
+    retentionTotalPurgedCount.addAndGet(purged);
+  }
+
+  public synchronized void recordDrain(int processed, long elapsedNanos) {
+    long now = System.nanoTime();
+    long windowNanos = lastDrainNanos == 0 ? elapsedNanos : now - lastDrainNanos;
+    lastDrainNanos = now;
+    if (windowNanos <= 0) {
+      return;
+    }
+    double instantRate = processed * 1_000_000_000d / windowNanos;
+    drainRatePerSecond =
+        drainRateSampled
+            ? DRAIN_RATE_SMOOTHING * instantRate + (1 - DRAIN_RATE_SMOOTHING) * drainRatePerSecond
+            : instantRate;
+    drainRateSampled = true;
+  }
+
+  public void recordLaneSuccess(int lane) {
+    lanePublishedCounts.computeIfAbsent(lane, ignored -> new LongAdder()).increment();
+  }
+
+  public void recordLaneFailure(int lane) {
+    laneFailedCounts.computeIfAbsent(lane, ignored -> new LongAdder()).increment();
   }
 
   public long getPublishedCount() {
@@ -32,12 +107,92 @@ public class OutboxPublisherMetrics {
     if (currentPublished == 0) {
       return 0;
     }
-    return totalPublishLatencyMs.get() / currentPublished;
+    return totalPublishLatencyNanos.get() / currentPublished / 1_000_000;
+  }
+
+  public LatencyHistogram getPublishLatency() {
+    return publishLatency;
+  }
+
+  public LatencyHistogram getEndToEndLag() {
+    return endToEndLag;
+  }
+
+  public double getPublishRatePerSecond(int windowSeconds) {
+    return publishedWindow.ratePerSecond(windowSeconds);
+  }
+
+  public double getFailureRatePerSecond(int windowSeconds) {
+    return failedWindow.ratePerSecond(windowSeconds);
+  }
+
+  public long getAcknowledgementCount() {
+    return acknowledgementCount.get();
+  }
+
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  public long getDeadLetteredCount() {
+    return deadLetteredCount.get();
+  }
+
+  public long getBreakerSkippedBatches() {
+    return breakerSkippedBatches.get();
+  }
+
+  public long getBreakerDeferredCount() {
+    return breakerDeferredCount.get();
+  }
+
+  public long getRetentionLastPurgedCount() {
+    return retentionLastPurgedCount.get();
+  }
+
+  public long getRetentionTotalPurgedCount() {
+    return retentionTotalPurgedCount.get();
+  }
+
+  public synchronized double getDrainRatePerSecond() {
+    return drainRatePerSecond;
+  }
+
+  public Map<Integer, Long> getLanePublishedCounts() {
+    return snapshot(lanePublishedCounts);
+  }
+
+  public Map<Integer, Long> getLaneFailedCounts() {
+    return snapshot(laneFailedCounts);
   }
 
   public void reset() {
     publishedCount.set(0);
     failedCount.set(0);
-    totalPublishLatencyMs.set(0);
+    totalPublishLatencyNanos.set(0);
+    publishLatency.reset();
+    endToEndLag.reset();
+    publishedWindow.reset();
+    failedWindow.reset();
+    acknowledgementCount.set(0);
+    coalescedCount.set(0);
+    deadLetteredCount.set(0);
+    breakerSkippedBatches.set(0);
+    breakerDeferredCount.set(0);
+    retentionLastPurgedCount.set(0);
+    retentionTotalPurgedCount.set(0);
+    lanePublishedCounts.clear();
+    laneFailedCounts.clear();
+    synchronized (this) {
+      lastDrainNanos = 0;
+      drainRateSampled = false;
+      drainRatePerSecond = 0;
+    }
+  }
+
+  private static Map<Integer, Long> snapshot(ConcurrentHashMap<Integer, LongAdder> counters) {
+    Map<Integer, Long> result = new TreeMap<>();
+    counters.forEach((lane, count) -> result.put(lane, count.sum()));
+    return result;
   }
 }
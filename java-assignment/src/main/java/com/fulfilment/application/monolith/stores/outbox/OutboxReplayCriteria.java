@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.time.LocalDateTime;
+
+public class OutboxReplayCriteria {
+
+  public final String aggregateType;
+  public final String aggregateId;
+  public final LocalDateTime from;
+  public final LocalDateTime to;
+
+  public OutboxReplayCriteria(
+      String aggregateType, String aggregateId, LocalDateTime from, LocalDateTime to) {
+    this.aggregateType = aggregateType;
+    this.aggregateId = aggregateId;
+    this.from = from;
+    this.to = to;
+  }
+}
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.time.LocalDateTime;
+
+public class OutboxReplayJob {
+
+  public enum Status {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+  }
+
+  public final String id;
+  public final OutboxReplayCriteria criteria;
+  public final int chunkSize;
+  public final int maxRowsPerSecond;
+  public final LocalDateTime submittedAt;
+  public volatile Status status = Status.QUEUED;
+  public volatile long resetCount;
+  public volatile long chunks;
+  public volatile long lastId;
+  public volatile LocalDateTime startedAt;
+  public volatile LocalDateTime finishedAt;
+  public volatile String error;
+
+  volatile boolean cancelRequested;
+
+  public OutboxReplayJob(String id, OutboxReplayCriteria criteria, int chunkSize, int maxRowsPerSecond) {
+    this.id = id;
+    this.criteria = criteria;
+    this.chunkSize = chunkSize;
+    this.maxRowsPerSecond = maxRowsPerSecond;
+    this.submittedAt = LocalDateTime.now();
+  }
+
+  public boolean isFinished() {
+    return status == Status.COMPLETED || status == Status.CANCELLED || status == Status.FAILED;
+  }
+}
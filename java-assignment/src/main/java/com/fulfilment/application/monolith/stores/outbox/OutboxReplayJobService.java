@@ -0,0 +1,153 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class OutboxReplayJobService {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxReplayJobService.class);
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+  @Inject OutboxPublisher outboxPublisher;
+  @Inject OutboxStatsCache outboxStatsCache;
+
+  @ConfigProperty(name = "outbox.replay.chunk-size", defaultValue = "500")
+  int chunkSize = 500;
+
+  @ConfigProperty(name = "outbox.replay.max-rows-per-second", defaultValue = "0")
+  int defaultMaxRowsPerSecond;
+
+  @ConfigProperty(name = "outbox.replay.retained-jobs", defaultValue = "100")
+  int retainedJobs = 100;
+
+  private final Map<String, OutboxReplayJob> jobs = new ConcurrentHashMap<>();
+  private ExecutorService executor;
+
+  @PreDestroy
+  synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  public OutboxReplayJob submit(OutboxReplayCriteria criteria, Integer maxRowsPerSecond) {
+    int rate = maxRowsPerSecond != null ? maxRowsPerSecond : defaultMaxRowsPerSecond;
+    OutboxReplayJob job = new OutboxReplayJob(UUID.randomUUID().toString(), criteria, chunkSize, rate);
+    evictFinishedJobs();
+    jobs.put(job.id, job);
+    executor().submit(() -> run(job));
+    return job;
+  }
+
+  public Optional<OutboxReplayJob> find(String id) {
+    return Optional.ofNullable(jobs.get(id));
+  }
+
+  public List<OutboxReplayJob> list() {
+    List<OutboxReplayJob> result = new ArrayList<>(jobs.values());
+    result.sort((left, right) -> right.submittedAt.compareTo(left.submittedAt));
+    return result;
+  }
+
+  public Optional<OutboxReplayJob> cancel(String id) {
+    OutboxReplayJob job = jobs.get(id);
+    if (job != null && !job.isFinished()) {
+      job.cancelRequested = true;
+    }
+    return Optional.ofNullable(job);
+  }
+
+  void run(OutboxReplayJob job) {
+    if (job.cancelRequested) {
+      finish(job, OutboxReplayJob.Status.CANCELLED);
+      return;
+    }
+    job.status = OutboxReplayJob.Status.RUNNING;
+    job.startedAt = LocalDateTime.now();
+    long startedNanos = System.nanoTime();
+    try {
+      while (!job.cancelRequested) {
+        List<Long> ids =
+            outboxMessageRepository.replayChunk(job.criteria, job.lastId, job.chunkSize, LocalDateTime.now());
+        if (ids.isEmpty()) {
+          finish(job, OutboxReplayJob.Status.COMPLETED);
+          return;
+        }
+        job.lastId = ids.get(ids.size() - 1);
+        job.resetCount += ids.size();
+        job.chunks++;
+        outboxPublisher.requestDrain();
+        if (ids.size() < job.chunkSize) {
+          finish(job, OutboxReplayJob.Status.COMPLETED);
+          return;
+        }
+        throttle(job, startedNanos);
+      }
+      finish(job, OutboxReplayJob.Status.CANCELLED);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      finish(job, OutboxReplayJob.Status.CANCELLED);
+    } catch (Exception ex) {
+      LOGGER.errorf(ex, "Outbox replay job %s failed after %d rows", job.id, job.resetCount);
+      job.error = ex.getMessage();
+      finish(job, OutboxReplayJob.Status.FAILED);
+    }
+  }
+
+  private void throttle(OutboxReplayJob job, long startedNanos) throws InterruptedException {
+    if (job.maxRowsPerSecond <= 0) {
+      return;
+    }
+    long targetElapsedNanos = TimeUnit.SECONDS.toNanos(job.resetCount) / job.maxRowsPerSecond;
+    long sleepNanos = targetElapsedNanos - (System.nanoTime() - startedNanos);
+    if (sleepNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(sleepNanos);
+    }
+  }
+
+  private void finish(OutboxReplayJob job, OutboxReplayJob.Status status) {
+    job.status = status;
+    job.finishedAt = LocalDateTime.now();
+    outboxStatsCache.invalidate();
+    LOGGER.infof("Outbox replay job %s %s after resetting %d rows", job.id, status, job.resetCount);
+  }
+
+  private void evictFinishedJobs() {
+    if (jobs.size() < retainedJobs) {
+      return;
+    }
+    jobs.values().stream()
+        .filter(OutboxReplayJob::isFinished)
+        .sorted((left, right) -> left.submittedAt.compareTo(right.submittedAt))
+        .limit(jobs.size() - retainedJobs + 1L)
+        .toList()
+        .forEach(job -> jobs.remove(job.id));
+  }
+
+  private synchronized ExecutorService executor() {
+    if (executor == null) {
+      executor =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "outbox-replay");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    return executor;
+  }
+}
@@ -0,0 +1,82 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class OutboxRetentionJob {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxRetentionJob.class);
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+  @Inject OutboxPublisherMetrics metrics;
+
+  @ConfigProperty(name = "outbox.retention.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "outbox.retention.max-age-hours", defaultValue = "168")
+  long maxAgeHours = 168;
+
+  @ConfigProperty(name = "outbox.retention.chunk-size", defaultValue = "1000")
+  int chunkSize = 1000;
+
+  @ConfigProperty(name = "outbox.retention.max-chunks-per-run", defaultValue = "100")
+  int maxChunksPerRun = 100;
+
+  @ConfigProperty(name = "outbox.retention.interval-minutes", defaultValue = "60")
+  long intervalMinutes = 60;
+
+  private ScheduledExecutorService scheduler;
+
+  @PostConstruct
+  void start() {
+    if (!enabled) {
+      LOGGER.info("Outbox retention job is disabled by configuration.");
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    scheduler.scheduleWithFixedDelay(
+        () -> {
+          try {
+            runOnce();
+          } catch (Exception ex) {
+            LOGGER.error("Unexpected outbox retention failure", ex);
+          }
+        },
+        intervalMinutes,
+        intervalMinutes,
+        TimeUnit.MINUTES);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  public long runOnce() {
+    LocalDateTime cutoff = LocalDateTime.now().minusHours(maxAgeHours);
+    long purged = 0;
+    for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+      int deleted = outboxMessageRepository.purgePublishedBefore(cutoff, chunkSize);
+      purged += deleted;
+      if (deleted < chunkSize) {
+        break;
+      }
+    }
+    metrics.recordRetentionRun(purged);
+    if (purged > 0) {
+      LOGGER.infof("Outbox retention purged %d messages published before %s", purged, cutoff);
+    }
+    return purged;
+  }
+}
@@ -0,0 +1,162 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class OutboxRetryScheduler {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxRetryScheduler.class);
+  private static final long RECONCILE_RETRY_MS = TimeUnit.SECONDS.toMillis(10);
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+  @Inject OutboxPublisher outboxPublisher;
+
+  @ConfigProperty(name = "outbox.publisher.enabled", defaultValue = "true")
+  boolean publisherEnabled;
+
+  @ConfigProperty(name = "outbox.retry.wheel.enabled", defaultValue = "true")
+  boolean enabled = true;
+
+  @ConfigProperty(name = "outbox.retry.wheel.tick-ms", defaultValue = "100")
+  long tickMs = 100;
+
+  @ConfigProperty(name = "outbox.retry.wheel.size", defaultValue = "512")
+  int wheelSize = 512;
+
+  @ConfigProperty(name = "outbox.retry.reconcile-interval-seconds", defaultValue = "300")
+  long reconcileIntervalSeconds = 300;
+
+  LongSupplier clock = System::currentTimeMillis;
+
+  private final ConcurrentLinkedQueue<Long> dueIds = new ConcurrentLinkedQueue<>();
+  private volatile RetryTimingWheel wheel;
+  volatile boolean running;
+  private ScheduledExecutorService ticker;
+  private boolean reconciled;
+  private long nextReconcileMs;
+
+  void onStart(@Observes StartupEvent event) {
+    start();
+  }
+
+  synchronized void start() {
+    if (!publisherEnabled || !enabled) {
+      LOGGER.info("Outbox retry timing wheel is disabled by configuration.");
+      return;
+    }
+    running = true;
+    ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "outbox-retry-wheel");
+              thread.setDaemon(true);
+              return thread;
+            });
+    ticker.scheduleWithFixedDelay(
+        () -> {
+          try {
+            tick();
+          } catch (Exception ex) {
+            LOGGER.error("Unexpected outbox retry wheel failure", ex);
+          }
+        },
+        0,
+        tickMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    running = false;
+    if (ticker != null) {
+      ticker.shutdownNow();
+      ticker = null;
+    }
+  }
+
+  public boolean isActive() {
+    return running;
+  }
+
+  public void schedule(Long id, LocalDateTime nextAttemptAt) {
+    if (running) {
+      wheel().schedule(id, toEpochMs(nextAttemptAt));
+    }
+  }
+
+  public List<Long> pollDue(int limit) {
+    List<Long> ids = new ArrayList<>();
+    Long id;
+    while (ids.size() < limit && (id = dueIds.poll()) != null) {
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  public int scheduledCount() {
+    return wheel().size();
+  }
+
+  public int dueCount() {
+    return dueIds.size();
+  }
+
+  void tick() {
+    long now = clock.getAsLong();
+    if (!reconciled || now >= nextReconcileMs) {
+      reconciled = true;
+      long intervalMs = TimeUnit.SECONDS.toMillis(reconcileIntervalSeconds);
+      try {
+        reconcile();
+        nextReconcileMs = now + intervalMs;
+      } catch (RuntimeException ex) {
+        nextReconcileMs = now + Math.min(intervalMs, RECONCILE_RETRY_MS);
+        LOGGER.warnf(ex, "Outbox retry wheel reconcile failed; retrying in %d ms", nextReconcileMs - now);
+      }
+    }
+    List<Long> due = wheel().advance(now);
+    if (!due.isEmpty()) {
+      dueIds.addAll(due);
+      outboxPublisher.requestDrain();
+    }
+  }
+
+  int reconcile() {
+    Map<Long, LocalDateTime> schedule = outboxMessageRepository.listRetrySchedule();
+    RetryTimingWheel current = wheel();
+    schedule.forEach((id, nextAttemptAt) -> current.schedule(id, toEpochMs(nextAttemptAt)));
+    LOGGER.debugf("Outbox retry wheel reconciled %d failed messages", schedule.size());
+    return schedule.size();
+  }
+
+  private RetryTimingWheel wheel() {
+    if (wheel == null) {
+      synchronized (this) {
+        if (wheel == null) {
+          wheel = new RetryTimingWheel(tickMs, wheelSize, clock.getAsLong());
+        }
+      }
+    }
+    return wheel;
+  }
+
+  private static long toEpochMs(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
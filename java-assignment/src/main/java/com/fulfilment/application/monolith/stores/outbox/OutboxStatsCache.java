@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class OutboxStatsCache {
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+
+  @ConfigProperty(name = "outbox.stats.ttl-ms", defaultValue = "5000")
+  long ttlMs = 5000;
+
+  private volatile OutboxCounts cached;
+
+  public OutboxCounts counts() {
+    OutboxCounts current = cached;
+    if (isFresh(current)) {
+      return current;
+    }
+    synchronized (this) {
+      current = cached;
+      if (isFresh(current)) {
+        return current;
+      }
+      return refresh();
+    }
+  }
+
+  public synchronized OutboxCounts refresh() {
+    cached = outboxMessageRepository.countByState();
+    return cached;
+  }
+
+  public void invalidate() {
+    cached = null;
+  }
+
+  public long ageMs(OutboxCounts counts) {
+    return Math.max(0, Duration.between(counts.asOf, LocalDateTime.now()).toMillis());
+  }
+
+  private boolean isFresh(OutboxCounts counts) {
+    return counts != null && ageMs(counts) < ttlMs;
+  }
+}
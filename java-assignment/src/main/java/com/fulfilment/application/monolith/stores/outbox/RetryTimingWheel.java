@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RetryTimingWheel {
+
+  private static final class Timer {
+    final long id;
+    final long dueAtMs;
+    int bucket;
+    long rounds;
+
+    Timer(long id, long dueAtMs) {
+      this.id = id;
+      this.dueAtMs = dueAtMs;
+    }
+  }
+
+  private final long tickMs;
+  private final List<Map<Long, Timer>> buckets;
+  private final Map<Long, Timer> timers = new HashMap<>();
+  private final Set<Long> overdue = new LinkedHashSet<>();
+  private long currentTick;
+
+  public RetryTimingWheel(long tickMs, int wheelSize, long startMs) {
+    if (tickMs <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+    }
+    this.tickMs = tickMs;
+    this.buckets = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      buckets.add(new LinkedHashMap<>());
+    }
+    this.currentTick = startMs / tickMs;
+  }
+
+  public synchronized void schedule(long id, long dueAtMs) {
+    cancel(id);
+    Timer timer = new Timer(id, dueAtMs);
+    long dueTick = Math.floorDiv(dueAtMs + tickMs - 1, tickMs);
+    if (dueTick <= currentTick) {
+      overdue.add(id);
+      return;
+    }
+    place(timer, dueTick);
+  }
+
+  public synchronized boolean cancel(long id) {
+    Timer timer = timers.remove(id);
+    if (timer != null) {
+      buckets.get(timer.bucket).remove(id);
+      return true;
+    }
+    return overdue.remove(id);
+  }
+
+  public synchronized List<Long> advance(long nowMs) {
+    List<Long> due = new ArrayList<>(overdue);
+    overdue.clear();
+    long targetTick = nowMs / tickMs;
+    if (targetTick <= currentTick) {
+      return due;
+    }
+    if (targetTick - currentTick >= buckets.size()) {
+      currentTick = targetTick;
+      rehash(due);
+      return due;
+    }
+    while (currentTick < targetTick) {
+      currentTick++;
+      expire(buckets.get((int) Math.floorMod(currentTick, (long) buckets.size())), due);
+    }
+    return due;
+  }
+
+  public synchronized int size() {
+    return timers.size() + overdue.size();
+  }
+
+  public synchronized void clear() {
+    timers.clear();
+    overdue.clear();
+    buckets.forEach(Map::clear);
+  }
+
+  private void place(Timer timer, long dueTick) {
+    long ticksAhead = dueTick - currentTick;
+    timer.bucket = (int) Math.floorMod(dueTick, (long) buckets.size());
+    timer.rounds = (ticksAhead - 1) / buckets.size();
+    buckets.get(timer.bucket).put(timer.id, timer);
+    timers.put(timer.id, timer);
+  }
+
+  private void expire(Map<Long, Timer> bucket, List<Long> due) {
+    Iterator<Timer> iterator = bucket.values().iterator();
+    while (iterator.hasNext()) {
+      Timer timer = iterator.next();
+      if (timer.rounds > 0) {
+        timer.rounds--;
+        continue;
+      }
+      iterator.remove();
+      timers.remove(timer.id);
+      due.add(timer.id);
+    }
+  }
+
+  private void rehash(List<Long> due) {
+    List<Timer> pending = new ArrayList<>(timers.values());
+    timers.clear();
+    buckets.forEach(Map::clear);
+    for (Timer timer : pending) {
+      long dueTick = Math.floorDiv(timer.dueAtMs + tickMs - 1, tickMs);
+      if (dueTick <= currentTick) {
+        due.add(timer.id);
+      } else {
+        place(timer, dueTick);
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class SlidingWindowCounter {
+
+  private static final long COUNT_MASK = 0xffffffffL;
+
+  private final int slots;
+  // Each slot packs the lap of the second it holds (high 32 bits) with that second's count (low
+  // 32 bits), so rolling a slot over to a new second and counting into it is one CAS.
+  private final AtomicLongArray cells;
+
+  public SlidingWindowCounter(int windowSeconds) {
+    this.slots = windowSeconds;
+    this.cells = new AtomicLongArray(windowSeconds);
+  }
+
+  public void increment() {
+    add(currentSecond(), 1);
+  }
+
+  public double ratePerSecond(int windowSeconds) {
+    return ratePerSecond(currentSecond(), windowSeconds);
+  }
+
+  void add(long second, long amount) {
+    int slot = (int) Math.floorMod(second, (long) slots);
+    int lap = lap(second);
+    while (true) {
+      long cell = cells.get(slot);
+      int cellLap = (int) (cell >>> 32);
+      long count;
+      if (cellLap == lap) {
+        count = cell & COUNT_MASK;
+      } else if ((cell & COUNT_MASK) != 0 && cellLap - lap > 0) {
+        return;
+      } else {
+        count = 0;
+      }
+      long next = ((long) lap << 32) | Math.min(count + amount, COUNT_MASK);
+      if (cells.compareAndSet(slot, cell, next)) {
+        return;
+      }
+    }
+  }
+
+  double ratePerSecond(long nowSecond, int windowSeconds) {
+    int window = Math.min(Math.max(1, windowSeconds), slots);
+    long total = 0;
+    for (long second = nowSecond - window + 1; second <= nowSecond; second++) {
+      long cell = cells.get((int) Math.floorMod(second, (long) slots));
+      if ((int) (cell >>> 32) == lap(second)) {
+        total += cell & COUNT_MASK;
+      }
+    }
+    return (double) total / window;
+  }
+
+  public void reset() {
+    for (int i = 0; i < slots; i++) {
+      cells.set(i, 0);
+    }
+  }
+
+  private int lap(long second) {
+    return (int) Math.floorDiv(second, (long) slots);
+  }
+
+  private static long currentSecond() {
+    return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+  }
+}
@@ -5,12 +5,18 @@ public class StoreChangedEventPayload {
   public Long storeId;
   public String name;
   public Integer quantityProductsInStock;
+  public Long version;
 
   public StoreChangedEventPayload() {}
 
   public StoreChangedEventPayload(Long storeId, String name, Integer quantityProductsInStock) {
+    this(storeId, name, quantityProductsInStock, null);
+  }
+
+  public StoreChangedEventPayload(Long storeId, String name, Integer quantityProductsInStock, Long version) {
     this.storeId = storeId;
     this.name = name;
     this.quantityProductsInStock = quantityProductsInStock;
+    this.version = version;
   }
 }
@@ -1,47 +1,79 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.common.CorrelationIdContext;
 import com.fulfilment.application.monolith.stores.Store;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class StoreOutboxService {
 
-  public static final int EVENT_SCHEMA_VERSION = 1;
+  public static final int EVENT_SCHEMA_VERSION = BinaryPayloadCodec.SCHEMA_VERSION;
   public static final String AGGREGATE_TYPE = "Store";
+  public static final String STORE_DELETED = "StoreDeleted";
+  public static final String STORE_STOCK_ADJUSTED = "StoreStockAdjusted";
 
   @Inject OutboxMessageRepository outboxMessageRepository;
-  @Inject ObjectMapper objectMapper;
   @Inject CorrelationIdContext correlationIdContext;
+  @Inject OutboxNotifier outboxNotifier;
+  @Inject OutboxPayloadCodecs payloadCodecs;
+
+  @ConfigProperty(name = "outbox.enqueue.flush-size", defaultValue = "500")
+  int flushSize = 500;
+
+  @ConfigProperty(name = "outbox.payload.schema-version", defaultValue = "2")
+  int payloadSchemaVersion = EVENT_SCHEMA_VERSION;
 
   public void enqueueStoreChanged(String eventType, Store store) {
+    LocalDateTime now = LocalDateTime.now();
+    outboxMessageRepository.create(newMessage(eventType, store, correlationIdContext.getCorrelationId(), now));
+    outboxNotifier.messagesEnqueued(1);
+  }
+
+  public void enqueueStoreChanged(String eventType, Collection<? extends Store> stores) {
+    if (stores.isEmpty()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    String correlationId = correlationIdContext.getCorrelationId();
+    List<OutboxMessage> messages = new ArrayList<>(stores.size());
+    for (Store store : stores) {
+      messages.add(newMessage(eventType, store, correlationId, now));
+    }
+    outboxMessageRepository.createAll(messages, Math.max(1, flushSize));
+    outboxNotifier.messagesEnqueued(messages.size());
+  }
+
+  private OutboxMessage newMessage(String eventType, Store store, String correlationId, LocalDateTime now) {
     OutboxMessage message = new OutboxMessage();
     message.eventId = UUID.randomUUID().toString();
     message.aggregateType = AGGREGATE_TYPE;
     message.aggregateId = String.valueOf(store.id);
-    message.aggregateVersion = null;
+    message.aggregateVersion = aggregateVersion(eventType, store);
     message.eventType = eventType;
-    message.schemaVersion = EVENT_SCHEMA_VERSION;
-    message.correlationId = correlationIdContext.getCorrelationId();
-    message.payloadJson = payloadAsJson(new StoreChangedEventPayload(store.id, store.name, store.quantityProductsInStock));
-    message.createdAt = LocalDateTime.now();
+    message.schemaVersion = payloadSchemaVersion;
+    message.correlationId = correlationId;
+    payloadCodecs.write(
+        message,
+        new StoreChangedEventPayload(store.id, store.name, store.quantityProductsInStock, message.aggregateVersion));
+    message.createdAt = now;
     message.publishedAt = null;
     message.attempts = 0;
     message.lastError = null;
-    message.nextAttemptAt = LocalDateTime.now();
-    outboxMessageRepository.create(message);
+    message.nextAttemptAt = now;
+    return message;
   }
 
-  private String payloadAsJson(StoreChangedEventPayload payload) {
-    try {
-      return objectMapper.writeValueAsString(payload);
-    } catch (JsonProcessingException ex) {
-      throw new IllegalStateException("Failed to serialize store event payload", ex);
+  static Long aggregateVersion(String eventType, Store store) {
+    if (store.version == null) {
+      return null;
     }
+    return STORE_DELETED.equals(eventType) ? store.version + 1 : store.version;
   }
 }
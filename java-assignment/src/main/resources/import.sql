@@ -1,11 +1,11 @@
-INSERT INTO store(id, name, quantityProductsInStock) VALUES (1, 'TONSTAD', 10);
-INSERT INTO store(id, name, quantityProductsInStock) VALUES (2, 'KALLAX', 5);
-INSERT INTO store(id, name, quantityProductsInStock) VALUES (3, 'BESTÅ', 3);
+INSERT INTO store(id, name, quantityProductsInStock, version) VALUES (1, 'TONSTAD', 10, 0);
+INSERT INTO store(id, name, quantityProductsInStock, version) VALUES (2, 'KALLAX', 5, 0);
+INSERT INTO store(id, name, quantityProductsInStock, version) VALUES (3, 'BESTÅ', 3, 0);
 ALTER SEQUENCE store_seq RESTART WITH 4;
 
-INSERT INTO product(id, name, stock) VALUES (1, 'TONSTAD', 10);
-INSERT INTO product(id, name, stock) VALUES (2, 'KALLAX', 5);
-INSERT INTO product(id, name, stock) VALUES (3, 'BESTÅ', 3);
+INSERT INTO product(id, name, stock, version) VALUES (1, 'TONSTAD', 10, 0);
+INSERT INTO product(id, name, stock, version) VALUES (2, 'KALLAX', 5, 0);
+INSERT INTO product(id, name, stock, version) VALUES (3, 'BESTÅ', 3, 0);
 ALTER SEQUENCE product_seq RESTART WITH 4;
 
 INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) 
@@ -23,3 +23,18 @@ ALTER TABLE warehouse
 CREATE UNIQUE INDEX IF NOT EXISTS uk_warehouse_active_buc
   ON warehouse (businessUnitCode)
   WHERE archivedAt IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_ready
+  ON outbox_message (nextAttemptAt, createdAt, id)
+  WHERE publishedAt IS NULL AND deadLetteredAt IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_dead_letter
+  ON outbox_message (id)
+  WHERE publishedAt IS NULL AND deadLetteredAt IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_fresh
+  ON outbox_message (createdAt, id)
+  WHERE publishedAt IS NULL AND deadLetteredAt IS NULL AND attempts = 0;
+
+CREATE INDEX IF NOT EXISTS idx_store_name_id
+  ON store (name, id);
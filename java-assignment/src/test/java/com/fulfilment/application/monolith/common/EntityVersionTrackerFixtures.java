@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.common;
+
+public final class EntityVersionTrackerFixtures {
+
+  private EntityVersionTrackerFixtures() {}
+
+  public static EntityVersionTracker withLocalVersions() {
+    EntityVersionTracker tracker = new EntityVersionTracker();
+    tracker.localVersionsEnabled = true;
+    return tracker;
+  }
+}
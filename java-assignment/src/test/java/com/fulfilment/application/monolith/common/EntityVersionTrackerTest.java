@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.ws.rs.core.EntityTag;
+import org.junit.jupiter.api.Test;
+
+public class EntityVersionTrackerTest {
+
+  private static class Widget {}
+
+  @Test
+  public void testObservedVersionShouldNeverMoveBackwards() {
+    EntityVersionTracker tracker = EntityVersionTrackerFixtures.withLocalVersions();
+
+    tracker.changed(Widget.class, 1L, 5L);
+    tracker.observed(Widget.class, 1L, 4L);
+
+    assertEquals(5L, tracker.knownVersion(Widget.class, 1L));
+    assertNull(tracker.knownVersion(Widget.class, 2L));
+  }
+
+  @Test
+  public void testDeletedEntityShouldNotBeAnsweredFromMemory() {
+    EntityVersionTracker tracker = EntityVersionTrackerFixtures.withLocalVersions();
+    tracker.observed(Widget.class, 1L, 2L);
+
+    tracker.deleted(Widget.class, 1L);
+    tracker.observed(Widget.class, 1L, 2L);
+
+    assertNull(tracker.knownVersion(Widget.class, 1L));
+  }
+
+  @Test
+  public void testTrackedVersionsShouldBeBoundedPerStripe() {
+    EntityVersionTracker tracker = EntityVersionTrackerFixtures.withLocalVersions();
+    tracker.maxEntries = 32;
+
+    for (long id = 1; id <= 1_000; id++) {
+      tracker.observed(Widget.class, id, 1L);
+    }
+
+    assertEquals(32, tracker.trackedCount(Widget.class));
+    assertEquals(1L, tracker.knownVersion(Widget.class, 1_000L));
+    assertNull(tracker.knownVersion(Widget.class, 1L));
+  }
+
+  @Test
+  public void testCollectionTagShouldChangeOnEveryMutation() {
+    EntityVersionTracker tracker = EntityVersionTrackerFixtures.withLocalVersions();
+    EntityTag initial = tracker.collectionTag(Widget.class);
+
+    tracker.observed(Widget.class, 1L, 0L);
+    assertEquals(initial, tracker.collectionTag(Widget.class));
+
+    tracker.changed(Widget.class, 1L, 1L);
+    EntityTag changed = tracker.collectionTag(Widget.class);
+    tracker.deleted(Widget.class, 1L);
+
+    assertNotEquals(initial, changed);
+    assertNotEquals(changed, tracker.collectionTag(Widget.class));
+    assertEquals("widget-7-3", tracker.entityTag(Widget.class, 7L, 3L).getValue());
+  }
+
+  @Test
+  public void testLocalVersionsShouldBeDisabledByDefault() {
+    EntityVersionTracker tracker = new EntityVersionTracker();
+    tracker.changed(Widget.class, 1L, 5L);
+
+    assertNull(tracker.knownVersion(Widget.class, 1L));
+    assertNull(tracker.collectionTag(Widget.class));
+  }
+
+  @Test
+  public void testIfNoneMatchShouldAcceptListsWeakTagsAndWildcard() {
+    EntityTag tag = new EntityTag("product-1-3");
+
+    assertTrue(EntityVersionTracker.matches("\"product-1-2\", \"product-1-3\"", tag));
+    assertTrue(EntityVersionTracker.matches("W/\"product-1-3\"", tag));
+    assertTrue(EntityVersionTracker.matches("*", tag));
+    assertFalse(EntityVersionTracker.matches("product-1-3", tag));
+    assertFalse(EntityVersionTracker.matches(null, tag));
+    assertFalse(EntityVersionTracker.matches("*", null));
+  }
+}
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.products;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("e2e")
+public class ProductConditionalGetTest {
+
+  @Test
+  public void testProductPollingShouldGetNotModifiedUntilProductChanges() {
+    String name = "ETAG-" + UUID.randomUUID().toString().substring(0, 8);
+    long id =
+        given()
+            .contentType(ContentType.JSON)
+            .body(Map.of("name", name, "stock", 2))
+            .when()
+            .post("/product")
+            .then()
+            .statusCode(201)
+            .extract()
+            .jsonPath()
+            .getLong("id");
+    String etag = given().when().get("/product/" + id).then().statusCode(200).extract().header("ETag");
+    String listEtag = given().when().get("/product").then().statusCode(200).extract().header("ETag");
+    assertNotNull(etag);
+    given().header("If-None-Match", etag).when().get("/product/" + id).then().statusCode(304);
+    given().header("If-None-Match", listEtag).when().get("/product").then().statusCode(304);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("name", name, "stock", 5))
+        .when()
+        .put("/product/" + id)
+        .then()
+        .statusCode(200);
+
+    given().header("If-None-Match", etag).when().get("/product/" + id).then().statusCode(200);
+    given().header("If-None-Match", listEtag).when().get("/product").then().statusCode(200);
+  }
+}
@@ -2,9 +2,12 @@ package com.fulfilment.application.monolith.products;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
+import com.fulfilment.application.monolith.common.EntityVersionTrackerFixtures;
 import io.quarkus.panache.common.Sort;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
@@ -44,11 +47,19 @@ public class ProductResourceUnitTest {
     public void delete(Product entity) {
       deleted = entity;
     }
+
+    @Override
+    public void flush() {
+      if (byId != null) {
+        byId.version = byId.version == null ? 0L : byId.version + 1;
+      }
+    }
   }
 
   @Test
   public void testGetShouldReturnAllProducts() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     Product p1 = new Product("P-1");
     Product p2 = new Product("P-2");
@@ -56,7 +67,8 @@ public class ProductResourceUnitTest {
     repository.products.add(p2);
     resource.productRepository = repository;
 
-    List<Product> result = resource.get();
+    @SuppressWarnings("unchecked")
+    List<Product> result = (List<Product>) resource.get(null).getEntity();
 
     assertEquals(2, result.size());
     assertSame(p1, result.get(0));
@@ -67,10 +79,11 @@ public class ProductResourceUnitTest {
   @Test
   public void testGetSingleShouldThrowWhenMissing() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     resource.productRepository = repository;
 
-    WebApplicationException ex = assertThrows(WebApplicationException.class, () -> resource.getSingle(10L));
+    WebApplicationException ex = assertThrows(WebApplicationException.class, () -> resource.getSingle(10L, null));
 
     assertEquals(404, ex.getResponse().getStatus());
     assertEquals("Product with id of 10 does not exist.", ex.getMessage());
@@ -80,20 +93,23 @@ public class ProductResourceUnitTest {
   @Test
   public void testGetSingleShouldReturnEntityWhenFound() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     Product product = new Product("Existing");
     product.id = 11L;
     repository.byId = product;
     resource.productRepository = repository;
 
-    Product result = resource.getSingle(11L);
+    Response response = resource.getSingle(11L, null);
 
-    assertSame(product, result);
+    assertSame(product, response.getEntity());
+    assertEquals("\"product-11-0\"", response.getHeaderString("ETag"));
   }
 
   @Test
   public void testCreateShouldRejectPreSetId() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     resource.productRepository = repository;
     Product product = new Product("Invalid");
@@ -108,6 +124,7 @@ public class ProductResourceUnitTest {
   @Test
   public void testCreateShouldPersistAndReturnCreated() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     resource.productRepository = repository;
     Product product = new Product("Created");
@@ -122,6 +139,7 @@ public class ProductResourceUnitTest {
   @Test
   public void testUpdateShouldRejectMissingName() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     resource.productRepository = repository;
     Product input = new Product();
@@ -136,6 +154,7 @@ public class ProductResourceUnitTest {
   @Test
   public void testUpdateShouldThrowWhenEntityMissing() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     resource.productRepository = repository;
     Product input = new Product("Update");
@@ -149,6 +168,7 @@ public class ProductResourceUnitTest {
   @Test
   public void testUpdateShouldMutateAndPersistEntity() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     Product existing = new Product("Old");
     existing.id = 55L;
@@ -176,6 +196,7 @@ public class ProductResourceUnitTest {
   @Test
   public void testDeleteShouldThrowWhenEntityMissing() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     resource.productRepository = repository;
 
@@ -188,6 +209,7 @@ public class ProductResourceUnitTest {
   @Test
   public void testDeleteShouldRemoveEntityAndReturnNoContent() {
     ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = new EntityVersionTracker();
     FakeProductRepository repository = new FakeProductRepository();
     Product existing = new Product("Delete");
     existing.id = 88L;
@@ -199,4 +221,47 @@ public class ProductResourceUnitTest {
     assertEquals(204, response.getStatus());
     assertSame(existing, repository.deleted);
   }
+
+  @Test
+  public void testGetSingleShouldAnswerNotModifiedWithoutLoadingWhenVersionIsKnown() {
+    ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = EntityVersionTrackerFixtures.withLocalVersions();
+    FakeProductRepository repository = new FakeProductRepository();
+    Product product = new Product("Polled");
+    product.id = 12L;
+    product.version = 4L;
+    repository.byId = product;
+    resource.productRepository = repository;
+    String etag = resource.getSingle(12L, null).getHeaderString("ETag");
+    repository.lastFindId = null;
+
+    Response response = resource.getSingle(12L, etag);
+
+    assertEquals(304, response.getStatus());
+    assertEquals(etag, response.getHeaderString("ETag"));
+    assertNull(repository.lastFindId);
+  }
+
+  @Test
+  public void testUpdateShouldChangeEntityAndCollectionTags() {
+    ProductResource resource = new ProductResource();
+    resource.entityVersionTracker = EntityVersionTrackerFixtures.withLocalVersions();
+    FakeProductRepository repository = new FakeProductRepository();
+    Product existing = new Product("Old");
+    existing.id = 13L;
+    existing.version = 1L;
+    repository.byId = existing;
+    repository.products.add(existing);
+    resource.productRepository = repository;
+    String entityTag = resource.getSingle(13L, null).getHeaderString("ETag");
+    String collectionTag = resource.get(null).getHeaderString("ETag");
+    assertEquals(304, resource.get(collectionTag).getStatus());
+
+    resource.update(13L, new Product("New"));
+
+    Response entity = resource.getSingle(13L, entityTag);
+    assertEquals(200, entity.getStatus());
+    assertEquals("\"product-13-2\"", entity.getHeaderString("ETag"));
+    assertEquals(200, resource.get(collectionTag).getStatus());
+  }
 }
@@ -0,0 +1,85 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class IdempotencyKeyStoreTest {
+
+  @Test
+  public void testMarkIfAbsentShouldDetectDuplicates() {
+    IdempotencyKeyStore store = new IdempotencyKeyStore(100, Duration.ofMinutes(5));
+
+    assertTrue(store.markIfAbsent("Store:1:StoreCreated:evt-1"));
+    assertFalse(store.markIfAbsent("Store:1:StoreCreated:evt-1"));
+    assertTrue(store.markIfAbsent("Store:1:StoreCreated:evt-2"));
+
+    assertEquals(1, store.hits());
+    assertEquals(2, store.misses());
+    assertEquals(2, store.size());
+  }
+
+  @Test
+  public void testEntriesShouldExpireAfterTtl() {
+    AtomicLong clock = new AtomicLong();
+    IdempotencyKeyStore store = new IdempotencyKeyStore(100, Duration.ofSeconds(10), clock::get);
+
+    store.markIfAbsent("key-1");
+    clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+    assertTrue(store.markIfAbsent("key-1"));
+    assertEquals(1, store.evictions());
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  public void testSizeShouldStayBoundedUnderSustainedLoad() {
+    IdempotencyKeyStore store = new IdempotencyKeyStore(1_000, Duration.ofHours(1));
+
+    for (int i = 0; i < 50_000; i++) {
+      store.markIfAbsent("Store:" + i + ":StoreUpdated:evt-" + i);
+    }
+
+    assertTrue(store.size() <= 1_000);
+    assertEquals(50_000 - store.size(), store.evictions());
+  }
+
+  @Test
+  public void testForgetShouldAllowKeyToBeMarkedAgain() {
+    IdempotencyKeyStore store = new IdempotencyKeyStore(100, Duration.ofMinutes(5));
+    store.markIfAbsent("key-1");
+
+    store.forget("key-1");
+
+    assertTrue(store.markIfAbsent("key-1"));
+  }
+
+  @Test
+  public void testClearShouldDropEntriesAndCounters() {
+    IdempotencyKeyStore store = new IdempotencyKeyStore(100, Duration.ofMinutes(5));
+    store.markIfAbsent("key-1");
+    store.markIfAbsent("key-1");
+
+    store.clear();
+
+    assertEquals(0, store.size());
+    assertEquals(0, store.hits());
+    assertEquals(0, store.misses());
+  }
+
+  @Test
+  public void testKeysShouldHashToStable128BitValues() {
+    IdempotencyKeyStore.Key first = IdempotencyKeyStore.Key.of("Store:1:StoreCreated:evt-1");
+    IdempotencyKeyStore.Key same = IdempotencyKeyStore.Key.of("Store:1:StoreCreated:evt-1");
+    IdempotencyKeyStore.Key other = IdempotencyKeyStore.Key.of("Store:1:StoreCreated:evt-2");
+
+    assertEquals(first, same);
+    assertEquals(first.hashCode(), same.hashCode());
+    assertNotEquals(first, other);
+  }
+}
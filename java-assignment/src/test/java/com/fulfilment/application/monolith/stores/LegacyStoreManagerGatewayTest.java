@@ -1,11 +1,23 @@
 package com.fulfilment.application.monolith.stores;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.stores.outbox.BinaryPayloadCodec;
+import com.fulfilment.application.monolith.stores.outbox.JsonPayloadCodec;
+import com.fulfilment.application.monolith.stores.outbox.OutboxPayloadCodecs;
+import com.fulfilment.application.monolith.stores.outbox.OutboxPayloadException;
 import com.fulfilment.application.monolith.stores.outbox.StoreChangedEventPayload;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class LegacyStoreManagerGatewayTest {
 
@@ -14,6 +26,7 @@ public class LegacyStoreManagerGatewayTest {
   @BeforeEach
   public void setup() {
     gateway = new LegacyStoreManagerGateway();
+    gateway.payloadCodecs = new OutboxPayloadCodecs(new ObjectMapper());
     gateway.clearTestState();
   }
 
@@ -87,6 +100,143 @@ public class LegacyStoreManagerGatewayTest {
     assertEquals(1, gateway.processedEventsCount());
   }
 
+  @Test
+  public void testDuplicateShouldBeCountedAsDedupHit() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(10L, "STORE-1", 5);
+
+    gateway.publishStoreEvent("evt-1", "idem-1", "StoreCreated", 1, "corr-1", payload);
+    gateway.publishStoreEvent("evt-1", "idem-1", "StoreCreated", 1, "corr-1", payload);
+
+    assertEquals(1, gateway.idempotencyKeys().size());
+    assertEquals(1, gateway.idempotencyKeys().hits());
+    assertEquals(1, gateway.idempotencyKeys().misses());
+  }
+
+  @Test
+  public void testFailedWriteShouldNotBlockRetryWithSameIdempotencyKey() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> gateway.publishStoreEvent("evt-1", "idem-1", "StoreCreated", 1, "corr-1", null));
+
+    gateway.publishStoreEvent(
+        "evt-1", "idem-1", "StoreCreated", 1, "corr-1", new StoreChangedEventPayload(10L, "STORE-1", 5));
+
+    assertEquals(1, gateway.processedEventsCount());
+  }
+
+  @Test
+  public void testPublishStoreEventShouldDropEventsAtOrBelowAppliedVersion() {
+    gateway.publishStoreEvent(
+        "evt-3", "idem-3", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(10L, "STORE-3", 3, 3L));
+    gateway.publishStoreEvent(
+        "evt-2", "idem-2", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(10L, "STORE-2", 2, 2L));
+    gateway.publishStoreEvent(
+        "evt-3b", "idem-3b", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(10L, "STORE-3", 3, 3L));
+    gateway.publishStoreEvent(
+        "evt-1", "idem-1", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(11L, "OTHER", 1, 1L));
+
+    assertEquals(2, gateway.processedEventsCount());
+    assertEquals(2, gateway.staleEventsDroppedCount());
+    assertEquals(3L, gateway.appliedVersion(10L));
+    assertEquals(1L, gateway.appliedVersion(11L));
+  }
+
+  @Test
+  public void testAppliedVersionsShouldEvictLeastRecentlyUsedStoresAtCapacity() {
+    gateway.appliedVersionsMaxEntries = 2;
+
+    gateway.publishStoreEvent(
+        "evt-1", "idem-1", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(10L, "A", 1, 1L));
+    gateway.publishStoreEvent(
+        "evt-2", "idem-2", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(11L, "B", 1, 1L));
+    gateway.publishStoreEvent(
+        "evt-3", "idem-3", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(10L, "A", 2, 2L));
+    gateway.publishStoreEvent(
+        "evt-4", "idem-4", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(12L, "C", 1, 1L));
+
+    assertEquals(2, gateway.appliedVersionsSize());
+    assertEquals(2L, gateway.appliedVersion(10L));
+    assertNull(gateway.appliedVersion(11L));
+    assertEquals(1L, gateway.appliedVersion(12L));
+  }
+
+  @Test
+  public void testPublishStoreEventShouldApplyUnversionedEventsWithoutTrackingVersion() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(10L, "STORE-1", 5);
+
+    gateway.publishStoreEvent("evt-1", "idem-1", "StoreUpdated", 1, "corr-1", payload);
+    gateway.publishStoreEvent("evt-2", "idem-2", "StoreUpdated", 1, "corr-1", payload);
+
+    assertEquals(2, gateway.processedEventsCount());
+    assertEquals(0, gateway.staleEventsDroppedCount());
+    assertNull(gateway.appliedVersion(10L));
+  }
+
+  @Test
+  public void testFailedWriteShouldRestorePreviouslyAppliedVersion(@TempDir Path directory) throws Exception {
+    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    gateway.payloadCodecs = new OutboxPayloadCodecs(new ObjectMapper());
+    Path blocker = Files.createFile(directory.resolve("not-a-directory"));
+    gateway.syncLogDirectory = Optional.of(blocker.resolve("sync").toString());
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            gateway.publishStoreEvent(
+                "evt-4", "idem-4", "StoreUpdated", 1, "corr-1", new StoreChangedEventPayload(10L, "S", 4, 4L)));
+
+    assertNull(gateway.appliedVersion(10L));
+    assertEquals(0, gateway.staleEventsDroppedCount());
+  }
+
+  @Test
+  public void testPublishEncodedStoreEventShouldDecodeBySchemaVersion() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(10L, "STORE-1", 5, 2L);
+
+    gateway.publishEncodedStoreEvent(
+        "evt-1", "idem-1", "StoreUpdated", 2, "corr-1", new BinaryPayloadCodec().encode(payload));
+    gateway.publishEncodedStoreEvent(
+        "evt-2", "idem-2", "StoreUpdated", 1, "corr-1", new JsonPayloadCodec(new ObjectMapper()).encode(payload));
+
+    assertEquals(1, gateway.processedEventsCount());
+    assertEquals(1, gateway.staleEventsDroppedCount());
+    assertEquals(2L, gateway.appliedVersion(10L));
+    assertThrows(
+        OutboxPayloadException.class,
+        () -> gateway.publishEncodedStoreEvent("evt-3", "idem-3", "StoreUpdated", 2, "corr-1", new byte[] {1}));
+  }
+
+  @Test
+  public void testSimulatedFailureRateShouldFailPublications() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(10L, "STORE-1", 5);
+    gateway.setSimulatedFailureRate(1.0);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> gateway.publishStoreEvent("evt-1", "idem-1", "StoreUpdated", 1, "corr-1", payload));
+
+    gateway.setSimulatedFailureRate(0);
+    gateway.publishStoreEvent("evt-1", "idem-1", "StoreUpdated", 1, "corr-1", payload);
+    assertEquals(1, gateway.processedEventsCount());
+  }
+
+  @Test
+  public void testPublishStoreEventShouldAppendRecordsToSyncLog(@TempDir Path directory) throws Exception {
+    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    gateway.payloadCodecs = new OutboxPayloadCodecs(new ObjectMapper());
+    gateway.syncLogDirectory = Optional.of(directory.toString());
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(10L, "STORE-1", 5);
+
+    gateway.publishStoreEvent("evt-1", "idem-1", "StoreCreated", 1, "corr-1", payload);
+    gateway.publishStoreEvent("evt-2", "idem-2", "StoreUpdated", 1, "corr-2", payload);
+    gateway.shutdown();
+
+    List<String> lines = Files.readAllLines(gateway.syncLog().segments().get(0));
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(0).startsWith("eventId=evt-1,idempotencyKey=idem-1,eventType=StoreCreated"));
+    assertTrue(lines.get(1).contains("storeId=10,name=STORE-1,itemsOnStock=5"));
+  }
+
   @Test
   public void testPublishStoreEventShouldWrapWriteFailures() {
     assertThrows(
@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SegmentedAppendLogTest {
+
+  @TempDir Path directory;
+
+  @Test
+  public void testAppendShouldWriteRecordsToSingleSegment() throws Exception {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1024, 4, 1_000)) {
+      log.append(bytes("first\n"));
+      log.append(bytes("second\n"));
+      log.flush();
+
+      assertEquals(1, log.segments().size());
+      assertEquals("first\nsecond\n", Files.readString(log.currentSegment()));
+      assertEquals(2, log.appendedRecords());
+      assertEquals(1, log.forcedSyncs());
+    }
+  }
+
+  @Test
+  public void testAppendShouldRotateWhenSegmentIsFull() throws Exception {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 10, 10, 1_000)) {
+      log.append(bytes("12345678\n"));
+      log.append(bytes("abcdefgh\n"));
+      log.append(bytes("ABCDEFGH\n"));
+
+      List<Path> segments = log.segments();
+      assertEquals(3, segments.size());
+      assertEquals(2, log.rotations());
+      assertEquals("12345678\n", Files.readString(segments.get(0)));
+      assertEquals(segments.get(2), log.currentSegment());
+    }
+  }
+
+  @Test
+  public void testRotationShouldKeepOnlyMaxSegments() {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 4, 3, 1_000)) {
+      for (int i = 0; i < 10; i++) {
+        log.append(bytes("rec\n"));
+      }
+
+      assertEquals(3, log.segments().size());
+      assertTrue(log.segments().contains(log.currentSegment()));
+    }
+  }
+
+  @Test
+  public void testAppendShouldGroupFsyncsByFlushInterval() {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1 << 20, 2, 60_000)) {
+      for (int i = 0; i < 1_000; i++) {
+        log.append(bytes("record-" + i + "\n"));
+      }
+
+      assertEquals(0, log.forcedSyncs());
+      log.flush();
+      assertEquals(1, log.forcedSyncs());
+    }
+  }
+
+  @Test
+  public void testIdleTailShouldBeForcedWithinFlushInterval() throws Exception {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1 << 20, 2, 20)) {
+      log.append(bytes("first\n"));
+      log.append(bytes("second\n"));
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (log.forcedSyncs() == 0 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      assertTrue(log.forcedSyncs() >= 1);
+      assertEquals(2, log.appendedRecords());
+    }
+  }
+
+  @Test
+  public void testReopenedLogShouldContinueAfterExistingSegments() throws Exception {
+    Path firstSegment;
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1024, 4, 0)) {
+      log.append(bytes("before restart\n"));
+      firstSegment = log.currentSegment();
+    }
+
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1024, 4, 0)) {
+      log.append(bytes("after restart\n"));
+
+      assertNotEquals(firstSegment, log.currentSegment());
+      assertEquals("before restart\n", Files.readString(firstSegment));
+      assertEquals(2, log.segments().size());
+    }
+  }
+
+  @Test
+  public void testConcurrentWritersShouldNotShareSegments() {
+    try (SegmentedAppendLog first = new SegmentedAppendLog(directory, "sync", 1024, 4, 0);
+        SegmentedAppendLog second = new SegmentedAppendLog(directory, "sync", 1024, 4, 0)) {
+      first.append(bytes("a\n"));
+      second.append(bytes("b\n"));
+
+      assertNotEquals(first.currentSegment(), second.currentSegment());
+    }
+  }
+
+  @Test
+  public void testRollShouldStartNewSegmentOnlyWhenCurrentHasRecords() {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1024, 10, 1_000)) {
+      Path first = log.roll();
+      assertEquals(first, log.roll());
+
+      log.append(bytes("a\n"));
+      Path second = log.roll();
+
+      assertNotEquals(first, second);
+      assertEquals(second, log.currentSegment());
+      assertEquals(2, log.segments().size());
+    }
+  }
+
+  @Test
+  public void testDeleteSegmentsBeforeShouldKeepBoundaryAndLaterSegments() throws Exception {
+    try (SegmentedAppendLog log = new SegmentedAppendLog(directory, "sync", 1024, 10, 1_000)) {
+      log.append(bytes("old\n"));
+      log.roll();
+      log.append(bytes("older\n"));
+      Path boundary = log.roll();
+      log.append(bytes("kept\n"));
+      log.roll();
+
+      assertEquals(2, log.deleteSegmentsBefore(boundary));
+
+      List<Path> segments = log.segments();
+      assertEquals(2, segments.size());
+      assertEquals(boundary, segments.get(0));
+      assertEquals("kept\n", Files.readString(boundary));
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,179 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
+import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class StoreBulkServiceTest {
+
+  private static class RecordingWriter extends StoreBulkWriter {
+    final List<Integer> chunkStarts = new ArrayList<>();
+    int failChunkStartingAt = -1;
+
+    @Override
+    public List<StoreBulkItemResult> upsertChunk(List<Store> chunk, int firstIndex) {
+      chunkStarts.add(firstIndex);
+      if (firstIndex == failChunkStartingAt) {
+        throw new IllegalStateException("commit failed", new IllegalStateException("duplicate key"));
+      }
+      List<StoreBulkItemResult> results = new ArrayList<>();
+      for (int i = 0; i < chunk.size(); i++) {
+        results.add(
+            new StoreBulkItemResult(
+                firstIndex + i, chunk.get(i).name, (long) firstIndex + i, StoreBulkItemResult.Status.CREATED, null));
+      }
+      return results;
+    }
+  }
+
+  private static class InMemoryStoreGateway extends StoreGateway {
+    final Map<String, Store> stores = new HashMap<>();
+    long nextId = 1;
+    int flushes;
+
+    @Override
+    public List<Store> findByNames(Collection<String> names) {
+      return names.stream().filter(stores::containsKey).map(stores::get).toList();
+    }
+
+    @Override
+    public void persist(Store store) {
+      store.id = nextId++;
+      stores.put(store.name, store);
+    }
+
+    @Override
+    public void flush() {
+      flushes++;
+      stores.values().forEach(store -> store.version = store.version == null ? 0L : store.version + 1);
+    }
+  }
+
+  private static class BatchCapturingOutboxService extends StoreOutboxService {
+    final Map<String, List<Long>> versionsByEventType = new HashMap<>();
+
+    @Override
+    public void enqueueStoreChanged(String eventType, Collection<? extends Store> stores) {
+      versionsByEventType.put(eventType, stores.stream().map(store -> store.version).toList());
+    }
+  }
+
+  @Test
+  public void testUpsertShouldWriteInChunksAndReportEveryItem() {
+    StoreBulkService service = new StoreBulkService();
+    RecordingWriter writer = new RecordingWriter();
+    service.storeBulkWriter = writer;
+    service.chunkSize = 2;
+
+    StoreBulkResult result = service.upsert(stores("A", "B", "C", "D", "E"));
+
+    assertEquals(List.of(0, 2, 4), writer.chunkStarts);
+    assertEquals(5, result.created);
+    assertEquals(5, result.items.size());
+    assertEquals(4, result.items.get(4).index);
+  }
+
+  @Test
+  public void testUpsertShouldReportFailedChunkAndContinue() {
+    StoreBulkService service = new StoreBulkService();
+    RecordingWriter writer = new RecordingWriter();
+    writer.failChunkStartingAt = 2;
+    service.storeBulkWriter = writer;
+    service.chunkSize = 2;
+
+    StoreBulkResult result = service.upsert(stores("A", "B", "C", "D", "E"));
+
+    assertEquals(3, result.created);
+    assertEquals(2, result.failed);
+    StoreBulkItemResult failed = result.items.get(2);
+    assertEquals(StoreBulkItemResult.Status.FAILED, failed.status);
+    assertEquals("C", failed.name);
+    assertEquals("duplicate key", failed.error);
+    assertNull(failed.id);
+  }
+
+  @Test
+  public void testUpsertShouldValidateEverythingBeforeWriting() {
+    StoreBulkService service = new StoreBulkService();
+    RecordingWriter writer = new RecordingWriter();
+    service.storeBulkWriter = writer;
+    List<Store> stores = stores("A", "B", "A", null, "X".repeat(41), "C");
+    stores.get(5).quantityProductsInStock = -1;
+    Store withId = new Store("D");
+    withId.id = 9L;
+    stores.add(withId);
+
+    StoreBulkResult result = service.upsert(stores);
+
+    assertTrue(writer.chunkStarts.isEmpty());
+    assertEquals(5, result.invalid);
+    assertEquals(
+        List.of(2, 3, 4, 5, 6), result.items.stream().map(item -> item.index).toList());
+    assertEquals("Store Name duplicates item 0.", result.items.get(0).error);
+    assertEquals("Id was invalidly set on request.", result.items.get(4).error);
+  }
+
+  @Test
+  public void testUpsertShouldRejectEmptyAndOversizedRequests() {
+    StoreBulkService service = new StoreBulkService();
+    service.storeBulkWriter = new RecordingWriter();
+    service.maxItems = 2;
+
+    WebApplicationException empty = assertThrows(WebApplicationException.class, () -> service.upsert(List.of()));
+    WebApplicationException oversized =
+        assertThrows(WebApplicationException.class, () -> service.upsert(stores("A", "B", "C")));
+
+    assertEquals(400, empty.getResponse().getStatus());
+    assertEquals(400, oversized.getResponse().getStatus());
+  }
+
+  @Test
+  public void testWriterShouldCreateNewStoresUpdateExistingOnesAndEnqueueBatchEvents() {
+    InMemoryStoreGateway gateway = new InMemoryStoreGateway();
+    Store existing = new Store("B");
+    existing.id = 50L;
+    existing.version = 3L;
+    existing.quantityProductsInStock = 1;
+    gateway.stores.put("B", existing);
+    BatchCapturingOutboxService outbox = new BatchCapturingOutboxService();
+    StoreBulkWriter writer = new StoreBulkWriter();
+    writer.storeGateway = gateway;
+    writer.storeOutboxService = outbox;
+    writer.entityVersionTracker = new EntityVersionTracker();
+    List<Store> chunk = stores("A", "B");
+    chunk.get(1).quantityProductsInStock = 9;
+
+    List<StoreBulkItemResult> results = writer.upsertChunk(chunk, 10);
+
+    assertEquals(1, gateway.flushes);
+    assertEquals(StoreBulkItemResult.Status.CREATED, results.get(0).status);
+    assertEquals(10, results.get(0).index);
+    assertEquals(1L, results.get(0).id);
+    assertEquals(StoreBulkItemResult.Status.UPDATED, results.get(1).status);
+    assertEquals(50L, results.get(1).id);
+    assertEquals(9, existing.quantityProductsInStock);
+    assertEquals(List.of(0L), outbox.versionsByEventType.get("StoreCreated"));
+    assertEquals(List.of(4L), outbox.versionsByEventType.get("StoreUpdated"));
+  }
+
+  private static List<Store> stores(String... names) {
+    List<Store> stores = new ArrayList<>();
+    for (String name : names) {
+      Store store = new Store(name);
+      store.quantityProductsInStock = 1;
+      stores.add(store);
+    }
+    return stores;
+  }
+}
@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("load")
+public class StoreBulkThroughputTest {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreBulkThroughputTest.class);
+
+  private static final int STORES = Integer.getInteger("store.bulk.load.stores", 5_000);
+  private static final double MIN_SPEEDUP = Double.parseDouble(System.getProperty("store.bulk.load.min-speedup", "20"));
+
+  @Test
+  public void testBulkUpsertShouldOutpaceSingleItemCreates() {
+    String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    long singleStarted = System.nanoTime();
+    for (int i = 0; i < STORES; i++) {
+      given()
+          .contentType(ContentType.JSON)
+          .body(Map.of("name", "S-" + runId + "-" + i, "quantityProductsInStock", i % 100))
+          .when()
+          .post("/store")
+          .then()
+          .statusCode(201);
+    }
+    long singleNanos = System.nanoTime() - singleStarted;
+
+    List<Map<String, Object>> bulk = new ArrayList<>(STORES);
+    for (int i = 0; i < STORES; i++) {
+      bulk.add(Map.of("name", "B-" + runId + "-" + i, "quantityProductsInStock", i % 100));
+    }
+    long bulkStarted = System.nanoTime();
+    int created =
+        given()
+            .contentType(ContentType.JSON)
+            .body(bulk)
+            .when()
+            .post("/store/bulk")
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getInt("created");
+    long bulkNanos = System.nanoTime() - bulkStarted;
+
+    double speedup = (double) singleNanos / bulkNanos;
+    LOGGER.infof(
+        "%d stores: single-item %d ms (%.0f/s), bulk %d ms (%.0f/s), speedup %.1fx",
+        STORES,
+        singleNanos / 1_000_000,
+        STORES / (singleNanos / 1e9),
+        bulkNanos / 1_000_000,
+        STORES / (bulkNanos / 1e9),
+        speedup);
+    assertEquals(STORES, created);
+    assertTrue(speedup >= MIN_SPEEDUP, String.format("expected bulk upsert to be at least %.0fx faster", MIN_SPEEDUP));
+  }
+}
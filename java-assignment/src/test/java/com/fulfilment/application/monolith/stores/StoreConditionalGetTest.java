@@ -0,0 +1,79 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("e2e")
+public class StoreConditionalGetTest {
+
+  @Test
+  public void testStorePollingShouldGetNotModifiedUntilStoreChanges() {
+    String name = "ETAG-" + UUID.randomUUID().toString().substring(0, 8);
+    long id =
+        given()
+            .contentType(ContentType.JSON)
+            .body(Map.of("name", name, "quantityProductsInStock", 4))
+            .when()
+            .post("/store")
+            .then()
+            .statusCode(201)
+            .extract()
+            .jsonPath()
+            .getLong("id");
+
+    String etag = given().when().get("/store/" + id).then().statusCode(200).extract().header("ETag");
+    assertNotNull(etag);
+    given().header("If-None-Match", etag).when().get("/store/" + id).then().statusCode(304);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("delta", 3))
+        .when()
+        .post("/store/" + id + "/stock-delta")
+        .then()
+        .statusCode(200);
+
+    String changed =
+        given()
+            .header("If-None-Match", etag)
+            .when()
+            .get("/store/" + id)
+            .then()
+            .statusCode(200)
+            .extract()
+            .header("ETag");
+    assertNotEquals(etag, changed);
+    assertEquals(
+        7,
+        given().header("If-None-Match", etag).when().get("/store/" + id).jsonPath().getInt("quantityProductsInStock"));
+  }
+
+  @Test
+  public void testStoreListShouldGetNotModifiedUntilAnyStoreChanges() {
+    String etag = given().when().get("/store").then().statusCode(200).extract().header("ETag");
+    given().header("If-None-Match", etag).when().get("/store").then().statusCode(304);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("name", "ETAG-" + UUID.randomUUID().toString().substring(0, 8), "quantityProductsInStock", 1))
+        .when()
+        .post("/store")
+        .then()
+        .statusCode(201);
+
+    given().header("If-None-Match", etag).when().get("/store").then().statusCode(200);
+  }
+}
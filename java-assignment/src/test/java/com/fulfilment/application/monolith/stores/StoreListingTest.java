@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("e2e")
+public class StoreListingTest {
+
+  @Test
+  public void testKeysetPagesShouldCoverFullListingInOrder() {
+    List<String> expected = given().when().get("store").then().statusCode(200).extract().jsonPath().getList("name");
+
+    List<String> paged = new ArrayList<>();
+    String cursor = null;
+    do {
+      Response page =
+          cursor == null
+              ? given().queryParam("limit", 2).when().get("store")
+              : given().queryParam("limit", 2).queryParam("cursor", cursor).when().get("store");
+      assertEquals(200, page.statusCode());
+      List<String> names = page.jsonPath().getList("name");
+      assertTrue(names.size() <= 2);
+      paged.addAll(names);
+      cursor = page.header(StoreResource.NEXT_CURSOR_HEADER);
+    } while (cursor != null);
+
+    assertEquals(expected, paged);
+  }
+
+  @Test
+  public void testInvalidCursorShouldReturn400() {
+    given().queryParam("cursor", "%%%").when().get("store").then().statusCode(400);
+  }
+
+  @Test
+  public void testStreamShouldReturnNdjson() {
+    Response response = given().when().get("store/stream");
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.contentType().startsWith(StoreResource.NDJSON));
+    String[] lines = response.asString().split("\n");
+    int listed = given().when().get("store").then().extract().jsonPath().getList("id").size();
+    assertEquals(listed, lines.length);
+    assertTrue(lines[0].startsWith("{") && lines[0].contains("\"name\""));
+    assertNull(response.header(StoreResource.NEXT_CURSOR_HEADER));
+  }
+}
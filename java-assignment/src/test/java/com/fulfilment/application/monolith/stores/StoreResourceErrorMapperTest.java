@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
@@ -39,6 +40,19 @@ public class StoreResourceErrorMapperTest {
     assertEquals("boom", body.get("error").asText());
   }
 
+  @Test
+  public void testToResponseShouldMapOptimisticLockFailureTo409() {
+    StoreResource.ErrorMapper errorMapper = new StoreResource.ErrorMapper();
+    errorMapper.objectMapper = new ObjectMapper();
+
+    Response response =
+        errorMapper.toResponse(new RuntimeException("commit failed", new OptimisticLockException("stale store")));
+
+    assertEquals(409, response.getStatus());
+    ObjectNode body = (ObjectNode) response.getEntity();
+    assertEquals(409, body.get("code").asInt());
+  }
+
   @Test
   public void testToResponseShouldOmitErrorFieldWhenMessageIsNull() {
     StoreResource.ErrorMapper errorMapper = new StoreResource.ErrorMapper();
@@ -2,19 +2,30 @@ package com.fulfilment.application.monolith.stores;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.common.EntityVersionTrackerFixtures;
 import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class StoreResourceUnitTest {
 
@@ -23,6 +34,7 @@ public class StoreResourceUnitTest {
     private Store persistedStore;
     private Store deletedStore;
     private long nextId = 100L;
+    private int streamFetchSize;
 
     @Override
     public List<Store> listAllByName() {
@@ -31,6 +43,29 @@ public class StoreResourceUnitTest {
           .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
 
+    @Override
+    public List<Store> listPageByName(StorePageCursor after, int limit) {
+      Comparator<Store> keyset =
+          Comparator.comparing((Store store) -> store.name, Comparator.nullsLast(Comparator.naturalOrder()))
+              .thenComparing(store -> store.id);
+      Store start = after == null ? null : store(after.id, after.name, 0);
+      return stores.values().stream()
+          .filter(store -> start == null || keyset.compare(store, start) > 0)
+          .sorted(keyset)
+          .limit(limit)
+          .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+
+    @Override
+    public long streamAllByName(
+        int fetchSize, Function<Runnable, UnaryOperator<Store>> opening, Consumer<Store> consumer) {
+      streamFetchSize = fetchSize;
+      List<List<Store>> opened = new ArrayList<>();
+      UnaryOperator<Store> view = opening.apply(() -> opened.add(listPageByName(null, Integer.MAX_VALUE)));
+      opened.get(0).forEach(store -> consumer.accept(view.apply(store)));
+      return opened.get(0).size();
+    }
+
     @Override
     public Store findById(Long id) {
       return stores.get(id);
@@ -51,19 +86,51 @@ public class StoreResourceUnitTest {
       stores.remove(store.id);
     }
 
+    @Override
+    public void flush() {
+      for (Store store : stores.values()) {
+        store.version = store.version == null ? 0L : store.version + 1;
+      }
+    }
+
+    @Override
+    public Store applyStockDelta(Long id, int delta, int floor) {
+      Store entity = stores.get(id);
+      if (entity == null || (long) entity.quantityProductsInStock + delta < floor) {
+        return null;
+      }
+      entity.quantityProductsInStock += delta;
+      entity.version = entity.version == null ? 1L : entity.version + 1;
+      Store updated = store(id, entity.name, entity.quantityProductsInStock);
+      updated.version = entity.version;
+      return updated;
+    }
+
     void put(Store store) {
       stores.put(store.id, store);
     }
   }
 
+  private static class CountingStoreGateway extends TestStoreGateway {
+    int finds;
+
+    @Override
+    public Store findById(Long id) {
+      finds++;
+      return super.findById(id);
+    }
+  }
+
   private static class CapturingOutboxService extends StoreOutboxService {
     String capturedEventType;
     Store capturedStore;
+    Long capturedVersion;
 
     @Override
     public void enqueueStoreChanged(String eventType, Store store) {
       capturedEventType = eventType;
       capturedStore = store;
+      capturedVersion = store.version;
     }
   }
 
@@ -78,7 +145,7 @@ public class StoreResourceUnitTest {
     storeGateway.put(beta);
     storeGateway.put(alpha);
 
-    List<Store> result = resource.get();
+    List<Store> result = entities(resource.list(null, null, null));
 
     assertEquals(2, result.size());
     assertEquals("Alpha", result.get(0).name);
@@ -89,7 +156,7 @@ public class StoreResourceUnitTest {
   public void testGetSingleShouldThrow404WhenMissing() {
     StoreResource resource = createResource(new TestStoreGateway(), new CapturingOutboxService());
 
-    WebApplicationException ex = assertThrows(WebApplicationException.class, () -> resource.getSingle(99L));
+    WebApplicationException ex = assertThrows(WebApplicationException.class, () -> resource.getSingle(99L, null));
 
     assertEquals(404, ex.getResponse().getStatus());
     assertEquals("Store with id of 99 does not exist.", ex.getMessage());
@@ -102,9 +169,10 @@ public class StoreResourceUnitTest {
     storeGateway.put(existing);
     StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
 
-    Store result = resource.getSingle(50L);
+    Response response = resource.getSingle(50L, null);
 
-    assertSame(existing, result);
+    assertSame(existing, response.getEntity());
+    assertEquals("\"store-50-0\"", response.getHeaderString("ETag"));
   }
 
   @Test
@@ -140,6 +208,23 @@ public class StoreResourceUnitTest {
     assertSame(existing, outboxService.capturedStore);
   }
 
+  @Test
+  public void testUpdateShouldFlushBeforeEnqueueSoEventCarriesNewVersion() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    CapturingOutboxService outboxService = new CapturingOutboxService();
+    StoreResource resource = createResource(storeGateway, outboxService);
+    Store existing = store(10L, "Original", 5);
+    existing.version = 3L;
+    storeGateway.put(existing);
+    Store updatePayload = new Store();
+    updatePayload.name = "Updated";
+    updatePayload.quantityProductsInStock = 6;
+
+    resource.update(10L, updatePayload);
+
+    assertEquals(4L, outboxService.capturedVersion);
+  }
+
   @Test
   public void testPatchShouldThrow404WhenMissing() {
     StoreResource resource = createResource(new TestStoreGateway(), new CapturingOutboxService());
@@ -234,19 +319,299 @@ public class StoreResourceUnitTest {
     assertSame(newStore, outboxService.capturedStore);
   }
 
+  @Test
+  public void testCreateShouldIgnoreClientSuppliedVersion() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    CapturingOutboxService outboxService = new CapturingOutboxService();
+    StoreResource resource = createResource(storeGateway, outboxService);
+    Store newStore = new Store();
+    newStore.name = "CreateMe";
+    newStore.version = 41L;
+
+    resource.create(newStore);
+
+    assertEquals(0L, outboxService.capturedVersion);
+  }
+
+  @Test
+  public void testListShouldPageByNameWithNextCursor() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    storeGateway.put(store(3L, "Charlie", 1));
+    storeGateway.put(store(1L, "Alpha", 1));
+    storeGateway.put(store(2L, "Bravo", 1));
+    storeGateway.put(store(4L, null, 1));
+
+    Response first = resource.list(2, null, null);
+    String cursor = first.getHeaderString(StoreResource.NEXT_CURSOR_HEADER);
+    Response second = resource.list(2, cursor, null);
+
+    assertEquals(List.of(1L, 2L), ids(first));
+    assertEquals(List.of(3L, 4L), ids(second));
+    assertNull(second.getHeaderString(StoreResource.NEXT_CURSOR_HEADER));
+  }
+
+  @Test
+  public void testListShouldRejectInvalidLimitAndCursor() {
+    StoreResource resource = createResource(new TestStoreGateway(), new CapturingOutboxService());
+
+    WebApplicationException tooLarge =
+        assertThrows(WebApplicationException.class, () -> resource.list(1001, null, null));
+    WebApplicationException zero = assertThrows(WebApplicationException.class, () -> resource.list(0, null, null));
+    WebApplicationException badCursor =
+        assertThrows(WebApplicationException.class, () -> resource.list(10, "not base64!", null));
+
+    assertEquals(400, tooLarge.getResponse().getStatus());
+    assertEquals(400, zero.getResponse().getStatus());
+    assertEquals(400, badCursor.getResponse().getStatus());
+  }
+
+  @Test
+  public void testPageCursorShouldRoundTripNamesAndNulls() {
+    StorePageCursor named = StorePageCursor.decode(new StorePageCursor("A:B=~", 7L).encode());
+    StorePageCursor unnamed = StorePageCursor.decode(new StorePageCursor(null, 8L).encode());
+
+    assertEquals("A:B=~", named.name);
+    assertEquals(7L, named.id);
+    assertNull(unnamed.name);
+    assertEquals(8L, unnamed.id);
+  }
+
+  @Test
+  public void testStreamShouldWriteOneJsonObjectPerLine() throws Exception {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    resource.streamFetchSize = 2;
+    storeGateway.put(store(2L, "Bravo", 4));
+    storeGateway.put(store(1L, "Alpha", 3));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    resource.stream().write(output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("Alpha", new ObjectMapper().readTree(lines[0]).get("name").asText());
+    assertEquals(2L, new ObjectMapper().readTree(lines[1]).get("id").asLong());
+    assertEquals(2, storeGateway.streamFetchSize);
+  }
+
+  @Test
+  public void testStreamShouldMergeUnflushedWriteBehindDeltas(@TempDir Path journalDirectory) throws Exception {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    StoreStockWriteBehind writeBehind = new StoreStockWriteBehind();
+    writeBehind.enabled = true;
+    writeBehind.journalDirectory = Optional.of(journalDirectory.toString());
+    resource.storeStockWriteBehind = writeBehind;
+    storeGateway.put(store(1L, "Alpha", 3));
+    storeGateway.put(store(2L, "Bravo", 4));
+
+    try {
+      resource.applyStockDelta(2L, new StoreStockDelta(5));
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+      resource.stream().write(output);
+
+      String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+      assertEquals(3, new ObjectMapper().readTree(lines[0]).get("quantityProductsInStock").asInt());
+      assertEquals(9, new ObjectMapper().readTree(lines[1]).get("quantityProductsInStock").asInt());
+      assertEquals(4, storeGateway.findById(2L).quantityProductsInStock);
+    } finally {
+      writeBehind.shutdown();
+    }
+  }
+
+  @Test
+  public void testStockDeltaShouldApplyRelativeChangeAndEnqueueResultingValue() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    CapturingOutboxService outboxService = new CapturingOutboxService();
+    StoreResource resource = createResource(storeGateway, outboxService);
+    Store existing = store(41L, "Hot", 10);
+    existing.version = 3L;
+    storeGateway.put(existing);
+
+    Store result = resource.applyStockDelta(41L, new StoreStockDelta(-4));
+
+    assertEquals(6, result.quantityProductsInStock);
+    assertEquals(4L, result.version);
+    assertEquals(6, existing.quantityProductsInStock);
+    assertEquals("StoreStockAdjusted", outboxService.capturedEventType);
+    assertSame(result, outboxService.capturedStore);
+    assertEquals(4L, outboxService.capturedVersion);
+  }
+
+  @Test
+  public void testStockDeltaShouldRejectResultBelowFloor() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    CapturingOutboxService outboxService = new CapturingOutboxService();
+    StoreResource resource = createResource(storeGateway, outboxService);
+    resource.stockFloor = 2;
+    storeGateway.put(store(42L, "Low", 5));
+
+    WebApplicationException ex =
+        assertThrows(WebApplicationException.class, () -> resource.applyStockDelta(42L, new StoreStockDelta(-4)));
+
+    assertEquals(409, ex.getResponse().getStatus());
+    assertEquals(5, storeGateway.findById(42L).quantityProductsInStock);
+    assertNull(outboxService.capturedEventType);
+  }
+
+  @Test
+  public void testStockDeltaShouldThrow404WhenMissing() {
+    StoreResource resource = createResource(new TestStoreGateway(), new CapturingOutboxService());
+
+    WebApplicationException ex =
+        assertThrows(WebApplicationException.class, () -> resource.applyStockDelta(404L, new StoreStockDelta(1)));
+
+    assertEquals(404, ex.getResponse().getStatus());
+  }
+
+  @Test
+  public void testStockDeltaShouldRequireDelta() {
+    StoreResource resource = createResource(new TestStoreGateway(), new CapturingOutboxService());
+
+    WebApplicationException missingBody =
+        assertThrows(WebApplicationException.class, () -> resource.applyStockDelta(1L, null));
+    WebApplicationException missingDelta =
+        assertThrows(WebApplicationException.class, () -> resource.applyStockDelta(1L, new StoreStockDelta()));
+
+    assertEquals(422, missingBody.getResponse().getStatus());
+    assertEquals(422, missingDelta.getResponse().getStatus());
+  }
+
+  @Test
+  public void testStockDeltaShouldBufferWhenWriteBehindIsEnabled(@TempDir Path journalDirectory) {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    CapturingOutboxService outboxService = new CapturingOutboxService();
+    StoreResource resource = createResource(storeGateway, outboxService);
+    StoreStockWriteBehind writeBehind = new StoreStockWriteBehind();
+    writeBehind.enabled = true;
+    writeBehind.journalDirectory = Optional.of(journalDirectory.toString());
+    resource.storeStockWriteBehind = writeBehind;
+    storeGateway.put(store(43L, "Buffered", 10));
+
+    try {
+      Store result = resource.applyStockDelta(43L, new StoreStockDelta(-3));
+
+      assertEquals(7, result.quantityProductsInStock);
+      assertEquals(10, storeGateway.findById(43L).quantityProductsInStock);
+      assertEquals(7, ((Store) resource.getSingle(43L, null).getEntity()).quantityProductsInStock);
+      assertNull(outboxService.capturedEventType);
+      WebApplicationException ex =
+          assertThrows(WebApplicationException.class, () -> resource.applyStockDelta(43L, new StoreStockDelta(-8)));
+      assertEquals(409, ex.getResponse().getStatus());
+    } finally {
+      writeBehind.shutdown();
+    }
+  }
+
+  @Test
+  public void testGetSingleShouldAnswerNotModifiedFromTrackedVersionWithoutLoading() {
+    CountingStoreGateway storeGateway = new CountingStoreGateway();
+    storeGateway.put(versioned(60L, "Polled", 4, 2L));
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    String etag = resource.getSingle(60L, null).getHeaderString("ETag");
+    storeGateway.finds = 0;
+
+    Response notModified = resource.getSingle(60L, etag);
+
+    assertEquals(304, notModified.getStatus());
+    assertEquals(etag, notModified.getHeaderString("ETag"));
+    assertNull(notModified.getEntity());
+    assertEquals(0, storeGateway.finds);
+  }
+
+  @Test
+  public void testUpdateShouldInvalidateEntityAndCollectionTags() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    storeGateway.put(versioned(61L, "Before", 4, 3L));
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    String entityTag = resource.getSingle(61L, null).getHeaderString("ETag");
+    String collectionTag = resource.list(null, null, null).getHeaderString("ETag");
+    assertEquals(304, resource.list(null, null, collectionTag).getStatus());
+
+    Store updatePayload = new Store("After");
+    updatePayload.quantityProductsInStock = 9;
+    resource.update(61L, updatePayload);
+
+    Response entity = resource.getSingle(61L, entityTag);
+    Response collection = resource.list(null, null, collectionTag);
+    assertEquals(200, entity.getStatus());
+    assertEquals("After", ((Store) entity.getEntity()).name);
+    assertEquals(200, collection.getStatus());
+    assertFalse(collectionTag.equals(collection.getHeaderString("ETag")));
+  }
+
+  @Test
+  public void testDeleteShouldStopAnsweringNotModified() {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    storeGateway.put(versioned(62L, "Gone", 1, 0L));
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    String etag = resource.getSingle(62L, null).getHeaderString("ETag");
+
+    resource.delete(62L);
+
+    WebApplicationException ex = assertThrows(WebApplicationException.class, () -> resource.getSingle(62L, etag));
+    assertEquals(404, ex.getResponse().getStatus());
+  }
+
+  @Test
+  public void testWriteBehindDeltasShouldChangeStoreTags(@TempDir Path journalDirectory) {
+    TestStoreGateway storeGateway = new TestStoreGateway();
+    StoreResource resource = createResource(storeGateway, new CapturingOutboxService());
+    StoreStockWriteBehind writeBehind = new StoreStockWriteBehind();
+    writeBehind.enabled = true;
+    writeBehind.journalDirectory = Optional.of(journalDirectory.toString());
+    resource.storeStockWriteBehind = writeBehind;
+    storeGateway.put(versioned(63L, "Buffered", 10, 5L));
+
+    try {
+      String entityTag = resource.getSingle(63L, null).getHeaderString("ETag");
+      String collectionTag = resource.list(null, null, null).getHeaderString("ETag");
+
+      resource.applyStockDelta(63L, new StoreStockDelta(2));
+
+      Response entity = resource.getSingle(63L, entityTag);
+      assertEquals(200, entity.getStatus());
+      assertEquals(12, ((Store) entity.getEntity()).quantityProductsInStock);
+      assertEquals(200, resource.list(null, null, collectionTag).getStatus());
+      assertEquals(304, resource.getSingle(63L, entity.getHeaderString("ETag")).getStatus());
+    } finally {
+      writeBehind.shutdown();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Store> entities(Response response) {
+    return (List<Store>) response.getEntity();
+  }
+
+  private static List<Long> ids(Response response) {
+    return entities(response).stream().map(store -> store.id).toList();
+  }
+
   private StoreResource createResource(
       TestStoreGateway storeGateway, CapturingOutboxService outboxService) {
     StoreResource resource = new StoreResource();
     resource.storeGateway = storeGateway;
     resource.storeOutboxService = outboxService;
+    resource.objectMapper = new ObjectMapper();
+    resource.storeStockWriteBehind = new StoreStockWriteBehind();
+    resource.entityVersionTracker = EntityVersionTrackerFixtures.withLocalVersions();
     return resource;
   }
 
-  private Store store(Long id, String name, int stock) {
+  private static Store store(Long id, String name, int stock) {
     Store store = new Store();
     store.id = id;
     store.name = name;
     store.quantityProductsInStock = stock;
     return store;
   }
+
+  private static Store versioned(Long id, String name, int stock, Long version) {
+    Store store = store(id, name, stock);
+    store.version = version;
+    return store;
+  }
 }
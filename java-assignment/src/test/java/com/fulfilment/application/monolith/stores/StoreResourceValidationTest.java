@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.common.EntityVersionTracker;
 import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
@@ -35,6 +36,9 @@ public class StoreResourceValidationTest {
       this.capturedStore = store;
       ((PersistTrackingStore) store).persisted = true;
     }
+
+    @Override
+    public void flush() {}
   }
 
   @Test
@@ -56,6 +60,7 @@ public class StoreResourceValidationTest {
     PersistTrackingStoreGateway storeGateway = new PersistTrackingStoreGateway();
     storeResource.storeOutboxService = outboxService;
     storeResource.storeGateway = storeGateway;
+    storeResource.entityVersionTracker = new EntityVersionTracker();
 
     PersistTrackingStore store = new PersistTrackingStore();
     store.name = "Store-1";
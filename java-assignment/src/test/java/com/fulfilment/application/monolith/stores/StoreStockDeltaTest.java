@@ -0,0 +1,126 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.stores.outbox.OutboxMessageRepository;
+import com.fulfilment.application.monolith.stores.outbox.StoreOutboxService;
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntUnaryOperator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("e2e")
+public class StoreStockDeltaTest {
+
+  private static final int CONCURRENT_DELTAS = 300;
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+
+  @Test
+  public void testConcurrentDeltasOnHotStoreShouldNotLoseUpdates() throws Exception {
+    long storeId = createStore(1_000);
+
+    List<Integer> statuses = applyConcurrently(storeId, CONCURRENT_DELTAS, index -> index % 3 == 0 ? -2 : 1);
+
+    int expected = 1_000;
+    for (int i = 0; i < CONCURRENT_DELTAS; i++) {
+      expected += i % 3 == 0 ? -2 : 1;
+      assertEquals(200, statuses.get(i));
+    }
+    assertEquals(expected, stock(storeId));
+    assertEquals(CONCURRENT_DELTAS, stockAdjustedEvents(storeId));
+  }
+
+  @Test
+  public void testConcurrentDecrementsShouldStopAtFloor() throws Exception {
+    long storeId = createStore(50);
+
+    List<Integer> statuses = applyConcurrently(storeId, 120, index -> -1);
+
+    assertEquals(50, statuses.stream().filter(status -> status == 200).count());
+    assertEquals(70, statuses.stream().filter(status -> status == 409).count());
+    assertEquals(0, stock(storeId));
+    assertEquals(50, stockAdjustedEvents(storeId));
+  }
+
+  @Test
+  public void testDeltaShouldReturn404ForMissingStore() {
+    given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("delta", 1))
+        .when()
+        .post("/store/987654321/stock-delta")
+        .then()
+        .statusCode(404);
+  }
+
+  private long createStore(int stock) {
+    return given()
+        .contentType(ContentType.JSON)
+        .body(Map.of("name", "HOT-" + UUID.randomUUID().toString().substring(0, 8), "quantityProductsInStock", stock))
+        .when()
+        .post("/store")
+        .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getLong("id");
+  }
+
+  private List<Integer> applyConcurrently(long storeId, int count, IntUnaryOperator deltas) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        int delta = deltas.applyAsInt(i);
+        Callable<Integer> call =
+            () ->
+                given()
+                    .contentType(ContentType.JSON)
+                    .body(Map.of("delta", delta))
+                    .when()
+                    .post("/store/" + storeId + "/stock-delta")
+                    .statusCode();
+        futures.add(executor.submit(call));
+      }
+      List<Integer> statuses = new ArrayList<>(count);
+      for (Future<Integer> future : futures) {
+        statuses.add(future.get());
+      }
+      return statuses;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private int stock(long storeId) {
+    return given()
+        .when()
+        .get("/store/" + storeId)
+        .then()
+        .statusCode(200)
+        .extract()
+        .jsonPath()
+        .getInt("quantityProductsInStock");
+  }
+
+  private long stockAdjustedEvents(long storeId) {
+    return outboxMessageRepository.count(
+        "aggregateId = ?1 and eventType = ?2", String.valueOf(storeId), StoreOutboxService.STORE_STOCK_ADJUSTED);
+  }
+}
@@ -0,0 +1,91 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StoreStockJournalTest {
+
+  @TempDir Path directory;
+
+  @Test
+  public void testReplayShouldReturnRecordsAfterCheckpointInOrder() {
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      journal.append(1L, 5);
+      journal.append(2L, -3);
+      journal.append(1L, 7);
+    }
+
+    List<long[]> records = new ArrayList<>();
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      long replayed =
+          journal.replay(1, (sequence, storeId, delta) -> records.add(new long[] {sequence, storeId, delta}));
+
+      assertEquals(2, replayed);
+      assertEquals(3, journal.lastSequence());
+      assertEquals(4, journal.append(3L, 1));
+    }
+    assertEquals(List.of(2L, 2L, -3L), List.of(records.get(0)[0], records.get(0)[1], records.get(0)[2]));
+    assertEquals(List.of(3L, 1L, 7L), List.of(records.get(1)[0], records.get(1)[1], records.get(1)[2]));
+  }
+
+  @Test
+  public void testReplayShouldStopAtTornTail() throws Exception {
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      journal.append(1L, 5);
+      journal.append(1L, 6);
+    }
+    Path written = Files.list(directory).sorted().findFirst().orElseThrow();
+    byte[] partial = StoreStockJournal.encode(3, 1L, 100);
+    Files.write(written, Arrays.copyOf(partial, 10), StandardOpenOption.APPEND);
+
+    List<Long> deltas = new ArrayList<>();
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      journal.replay(0, (sequence, storeId, delta) -> deltas.add(delta));
+
+      assertEquals(2, journal.lastSequence());
+    }
+    assertEquals(List.of(5L, 6L), deltas);
+  }
+
+  @Test
+  public void testReplayShouldSkipCorruptRecord() throws Exception {
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      journal.append(1L, 5);
+      journal.append(1L, 6);
+    }
+    Path written = Files.list(directory).sorted().findFirst().orElseThrow();
+    byte[] bytes = Files.readAllBytes(written);
+    bytes[StoreStockJournal.RECORD_BYTES + 20] ^= 0x7f;
+    Files.write(written, bytes);
+
+    List<Long> deltas = new ArrayList<>();
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      journal.replay(0, (sequence, storeId, delta) -> deltas.add(delta));
+    }
+    assertEquals(List.of(5L), deltas);
+  }
+
+  @Test
+  public void testRecordsShouldSpanRotatedSegments() {
+    try (StoreStockJournal journal =
+        new StoreStockJournal(directory, "stock", StoreStockJournal.RECORD_BYTES * 2, 1_000)) {
+      for (int i = 1; i <= 5; i++) {
+        journal.append(i, i);
+      }
+    }
+
+    List<Long> sequences = new ArrayList<>();
+    try (StoreStockJournal journal = new StoreStockJournal(directory, "stock", 1024, 1_000)) {
+      journal.replay(0, (sequence, storeId, delta) -> sequences.add(sequence));
+    }
+    assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences);
+  }
+}
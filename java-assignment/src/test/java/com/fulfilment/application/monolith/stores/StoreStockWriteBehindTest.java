@@ -0,0 +1,360 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StoreStockWriteBehindTest {
+
+  private static class InMemoryFlushWriter extends StoreStockFlushWriter {
+    final Map<Long, Long> applied = new HashMap<>();
+    final List<Map<Long, Long>> batches = new ArrayList<>();
+    final Set<Long> rejected = new HashSet<>();
+    final Map<Long, Long> versions = new HashMap<>();
+    final Map<String, Long> checkpoints = new HashMap<>();
+    long checkpoint;
+    boolean fail;
+
+    @Override
+    public synchronized List<Store> apply(
+        Map<Long, Long> deltas, String journal, long sequence, Consumer<List<Store>> onApplied) {
+      if (fail) {
+        throw new IllegalStateException("database unavailable");
+      }
+      batches.add(new HashMap<>(deltas));
+      List<Store> updated = new ArrayList<>();
+      deltas.forEach(
+          (storeId, delta) -> {
+            if (rejected.contains(storeId)) {
+              return;
+            }
+            applied.merge(storeId, delta, Long::sum);
+            Store store = new Store("store-" + storeId);
+            store.id = storeId;
+            store.version = versions.merge(storeId, 1L, Long::sum);
+            updated.add(store);
+          });
+      onApplied.accept(updated);
+      checkpoints.put(journal, sequence);
+      checkpoint = sequence;
+      return updated;
+    }
+
+    @Override
+    public long checkpoint(String journal) {
+      return checkpoints.getOrDefault(journal, 0L);
+    }
+  }
+
+  @TempDir Path directory;
+
+  private final List<StoreStockWriteBehind> created = new ArrayList<>();
+
+  @AfterEach
+  public void closeJournals() {
+    created.forEach(StoreStockWriteBehind::shutdown);
+  }
+
+  @Test
+  public void testReadsShouldMergeUnflushedDeltas() {
+    StoreStockWriteBehind writeBehind = writeBehind(new InMemoryFlushWriter());
+    Store persisted = store(1L, 10);
+
+    add(writeBehind, 1L, 5);
+    add(writeBehind, 1L, -2);
+
+    Store merged = writeBehind.readAll(() -> List.of(persisted)).get(0);
+    assertEquals(13, merged.quantityProductsInStock);
+    assertEquals(10, persisted.quantityProductsInStock);
+    assertEquals(3, writeBehind.unflushed(1L));
+  }
+
+  @Test
+  public void testReadsShouldNotWaitForAFlushInProgress() throws Exception {
+    CountDownLatch updated = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    InMemoryFlushWriter flushWriter =
+        new InMemoryFlushWriter() {
+          @Override
+          public synchronized List<Store> apply(
+              Map<Long, Long> deltas, String journal, long sequence, Consumer<List<Store>> onApplied) {
+            return super.apply(
+                deltas,
+                journal,
+                sequence,
+                stores -> {
+                  onApplied.accept(stores);
+                  updated.countDown();
+                  try {
+                    commit.await();
+                  } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                  }
+                });
+          }
+        };
+    StoreStockWriteBehind writeBehind = writeBehind(flushWriter);
+    add(writeBehind, 1L, 5);
+    Store beforeCommit = store(1L, 10);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> flush = executor.submit(writeBehind::flush);
+      assertTrue(updated.await(5, TimeUnit.SECONDS));
+
+      assertEquals(15, writeBehind.readAll(() -> List.of(beforeCommit)).get(0).quantityProductsInStock);
+      Store afterCommit = store(1L, 15);
+      afterCommit.version = 1L;
+      assertEquals(15, writeBehind.readAll(() -> List.of(afterCommit)).get(0).quantityProductsInStock);
+
+      commit.countDown();
+      assertEquals(1, flush.get(5, TimeUnit.SECONDS));
+    } finally {
+      commit.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testViewTakenBeforeAFlushShouldStillCountItsDeltasOnAStaleRow() {
+    StoreStockWriteBehind writeBehind = writeBehind(new InMemoryFlushWriter());
+    add(writeBehind, 1L, 5);
+    StoreStockWriteBehind.UnflushedView view = writeBehind.view();
+
+    writeBehind.flush();
+    add(writeBehind, 1L, 2);
+
+    Store stale = store(1L, 10);
+    assertEquals(17, view.apply(stale).quantityProductsInStock);
+    Store fresh = store(1L, 15);
+    fresh.version = 1L;
+    assertEquals(17, view.apply(fresh).quantityProductsInStock);
+    assertEquals(17, writeBehind.readAll(() -> List.of(fresh)).get(0).quantityProductsInStock);
+  }
+
+  @Test
+  public void testFlushShouldFoldDeltasPerStoreAndCheckpointJournal() {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind writeBehind = writeBehind(flushWriter);
+    add(writeBehind, 1L, 5);
+    add(writeBehind, 2L, 4);
+    add(writeBehind, 1L, -1);
+    add(writeBehind, 3L, 2);
+    add(writeBehind, 3L, -2);
+
+    assertEquals(2, writeBehind.flush());
+
+    assertEquals(List.of(Map.of(1L, 4L, 2L, 4L)), flushWriter.batches);
+    assertEquals(5, flushWriter.checkpoint);
+    assertEquals(0, writeBehind.unflushed(1L));
+    assertEquals(1, directory.toFile().list().length);
+    assertEquals(0, writeBehind.flush());
+    assertEquals(1, flushWriter.batches.size());
+  }
+
+  @Test
+  public void testFailedFlushShouldKeepDeltasForNextFlush() {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind writeBehind = writeBehind(flushWriter);
+    add(writeBehind, 1L, 5);
+    flushWriter.fail = true;
+
+    assertThrows(IllegalStateException.class, writeBehind::flush);
+    assertEquals(5, writeBehind.unflushed(1L));
+    assertEquals(1, writeBehind.failedFlushCount());
+
+    add(writeBehind, 1L, 2);
+    flushWriter.fail = false;
+    writeBehind.flush();
+
+    assertEquals(7L, flushWriter.applied.get(1L));
+    assertEquals(2, flushWriter.checkpoint);
+  }
+
+  @Test
+  public void testFlushShouldReportStoresTheDatabaseRejected() {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind writeBehind = writeBehind(flushWriter);
+    flushWriter.rejected.add(2L);
+    add(writeBehind, 1L, 5);
+    add(writeBehind, 2L, -7);
+
+    assertEquals(1, writeBehind.flush());
+
+    assertEquals(1, writeBehind.rejectedStoreCount());
+    assertEquals(0, writeBehind.unflushed(2L));
+    assertEquals(2, flushWriter.checkpoint);
+  }
+
+  @Test
+  public void testConcurrentDeltasShouldNeverPassTheFloor() throws Exception {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind writeBehind = writeBehind(flushWriter);
+    writeBehind.journalSyncIntervalMs = 1_000;
+    AtomicInteger accepted = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> writers = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        writers.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 50; i++) {
+                    if (writeBehind.addWithinRange(writeBehind.view(), store(1L, 100), -1, 0) != null) {
+                      accepted.incrementAndGet();
+                    }
+                  }
+                }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(100, accepted.get());
+    assertEquals(-100, writeBehind.unflushed(1L));
+    assertNull(writeBehind.addWithinRange(writeBehind.view(), store(1L, 200), Integer.MAX_VALUE, 0));
+  }
+
+  @Test
+  public void testRecoveryShouldReplayOnlyDeltasAfterCheckpoint() {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind first = writeBehind(flushWriter);
+    add(first, 1L, 5);
+    first.flush();
+    add(first, 1L, 3);
+    add(first, 2L, -4);
+    first.journal().close();
+
+    StoreStockWriteBehind restarted = writeBehind(flushWriter);
+
+    assertEquals(2, restarted.recover());
+    assertEquals(3, restarted.unflushed(1L));
+    assertEquals(-4, restarted.unflushed(2L));
+    restarted.flush();
+    assertEquals(8L, flushWriter.applied.get(1L));
+    assertEquals(-4L, flushWriter.applied.get(2L));
+    assertEquals(3, flushWriter.checkpoint);
+  }
+
+  @Test
+  public void testNodesShouldKeepSeparateCheckpoints(@TempDir Path otherDirectory) {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind nodeA = writeBehind(flushWriter);
+    nodeA.configuredNodeId = Optional.of("node-a");
+    StoreStockWriteBehind nodeB = writeBehind(flushWriter);
+    nodeB.configuredNodeId = Optional.of("node-b");
+    nodeB.journalDirectory = Optional.of(otherDirectory.toString());
+    add(nodeA, 1L, 1);
+    add(nodeA, 1L, 1);
+    add(nodeA, 1L, 1);
+    nodeA.flush();
+    add(nodeB, 2L, 4);
+    nodeB.journal().close();
+
+    StoreStockWriteBehind restartedB = writeBehind(flushWriter);
+    restartedB.configuredNodeId = Optional.of("node-b");
+    restartedB.journalDirectory = Optional.of(otherDirectory.toString());
+
+    assertEquals(1, restartedB.recover());
+    assertEquals(4, restartedB.unflushed(2L));
+    assertEquals(Map.of("store-stock@node-a", 3L), flushWriter.checkpoints);
+  }
+
+  @Test
+  public void testEnabledWriteBehindShouldRequireAJournalDirectory() {
+    StoreStockWriteBehind writeBehind = writeBehind(new InMemoryFlushWriter());
+    writeBehind.journalDirectory = Optional.empty();
+
+    assertThrows(IllegalStateException.class, writeBehind::start);
+  }
+
+  @Test
+  public void testConcurrentDeltasShouldAllReachFlushes() throws Exception {
+    InMemoryFlushWriter flushWriter = new InMemoryFlushWriter();
+    StoreStockWriteBehind writeBehind = writeBehind(flushWriter);
+    writeBehind.journalSyncIntervalMs = 1_000;
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> writers = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        writers.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 5_000; i++) {
+                    add(writeBehind, 1L + (i % 2), i % 3 == 0 ? -1 : 1);
+                  }
+                }));
+      }
+      while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+        writeBehind.flush();
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    writeBehind.flush();
+
+    long expectedPerStore = 0;
+    for (int i = 0; i < 5_000; i += 2) {
+      expectedPerStore += i % 3 == 0 ? -1 : 1;
+    }
+    assertEquals(8 * expectedPerStore, flushWriter.applied.get(1L));
+    assertEquals(40_000, writeBehind.acceptedDeltaCount());
+    assertTrue(writeBehind.flushCount() >= 1);
+    assertEquals(40_000, flushWriter.checkpoint);
+  }
+
+  @Test
+  public void testDisabledWriteBehindShouldReadThrough() {
+    StoreStockWriteBehind writeBehind = new StoreStockWriteBehind();
+    Store persisted = store(1L, 10);
+
+    assertSame(persisted, writeBehind.readAll(() -> List.of(persisted)).get(0));
+  }
+
+  private StoreStockWriteBehind writeBehind(InMemoryFlushWriter flushWriter) {
+    StoreStockWriteBehind writeBehind = new StoreStockWriteBehind();
+    writeBehind.enabled = true;
+    writeBehind.flushWriter = flushWriter;
+    writeBehind.journalDirectory = Optional.of(directory.toString());
+    created.add(writeBehind);
+    return writeBehind;
+  }
+
+  private static void add(StoreStockWriteBehind writeBehind, Long storeId, int delta) {
+    assertNotNull(writeBehind.addWithinRange(writeBehind.view(), store(storeId, 0), delta, Integer.MIN_VALUE));
+  }
+
+  private static Store store(Long id, int stock) {
+    Store store = new Store("store-" + id);
+    store.id = id;
+    store.quantityProductsInStock = stock;
+    return store;
+  }
+}
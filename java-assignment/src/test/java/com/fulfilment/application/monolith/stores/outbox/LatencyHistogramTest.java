@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testPercentilesShouldStayWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int i = 1; i <= 1000; i++) {
+      histogram.recordNanos(i * 1_000_000L);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000.0, histogram.getMaxMs());
+    assertWithin(500.0, histogram.getPercentileMs(0.5), 0.125);
+    assertWithin(900.0, histogram.getPercentileMs(0.9), 0.125);
+    assertWithin(990.0, histogram.getPercentileMs(0.99), 0.125);
+    assertEquals(500_500.0, histogram.getSumMs(), 0.001);
+  }
+
+  @Test
+  public void testPercentileShouldNotExceedRecordedMax() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.recordNanos(1_234_000L);
+
+    assertEquals(1.234, histogram.getPercentileMs(0.99));
+    assertEquals(1.234, histogram.getMaxMs());
+  }
+
+  @Test
+  public void testEmptyHistogramShouldReportZeros() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    Map<String, Object> summary = histogram.summaryMs();
+
+    assertEquals(0L, summary.get("count"));
+    assertEquals(0.0, summary.get("p50"));
+    assertEquals(0.0, summary.get("max"));
+  }
+
+  @Test
+  public void testNegativeSamplesShouldBeClampedToZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.recordNanos(-5_000_000L);
+
+    assertEquals(1, histogram.getCount());
+    assertEquals(0.0, histogram.getMaxMs());
+  }
+
+  @Test
+  public void testBucketBoundsShouldCoverEveryIndex() {
+    long previousUpperBound = -1;
+    for (long micros : new long[] {0, 15, 16, 31, 32, 1_000, 1_000_000, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.bucketIndex(micros);
+      long upperBound = LatencyHistogram.bucketUpperBoundMicros(index);
+      assertTrue(upperBound >= micros);
+      assertTrue(upperBound > previousUpperBound);
+      previousUpperBound = upperBound;
+    }
+  }
+
+  @Test
+  public void testResetShouldClearSamples() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordNanos(3_000_000L);
+
+    histogram.reset();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0.0, histogram.getPercentileMs(0.5));
+  }
+
+  private static void assertWithin(double expected, double actual, double relativeError) {
+    assertTrue(
+        Math.abs(actual - expected) <= expected * relativeError,
+        () -> "expected ~" + expected + " but was " + actual);
+  }
+}
@@ -1,11 +1,19 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
 public class OutboxAdminResourceTest {
@@ -14,37 +22,72 @@ public class OutboxAdminResourceTest {
     long pendingCount;
     long failedCount;
     long publishedCount;
+    long deadLetteredCount;
+    int countByStateCalls;
     int replayResult;
     String replayAggregateId;
     LocalDateTime replayFrom;
     LocalDateTime replayTo;
 
     @Override
-    public long countPending() {
-      return pendingCount;
+    public OutboxCounts countByState() {
+      countByStateCalls++;
+      return new OutboxCounts(pendingCount, failedCount, publishedCount, deadLetteredCount, LocalDateTime.now());
     }
 
     @Override
-    public long countFailed() {
-      return failedCount;
+    public int replay(String aggregateId, LocalDateTime from, LocalDateTime to) {
+      replayAggregateId = aggregateId;
+      replayFrom = from;
+      replayTo = to;
+      return replayResult;
     }
 
+    final Map<Long, OutboxMessage> deadLetters = new LinkedHashMap<>();
+    List<Long> requeuedIds;
+    String requeuedAggregateId;
+    boolean requeuedAll;
+
     @Override
-    public long countPublished() {
-      return publishedCount;
+    public List<OutboxMessage> listDeadLetters(String aggregateId, long afterId, int limit) {
+      return deadLetters.values().stream()
+          .filter(message -> aggregateId == null || aggregateId.equals(message.aggregateId))
+          .filter(message -> message.id > afterId)
+          .limit(limit)
+          .toList();
     }
 
     @Override
-    public int replay(String aggregateId, LocalDateTime from, LocalDateTime to) {
-      replayAggregateId = aggregateId;
-      replayFrom = from;
-      replayTo = to;
-      return replayResult;
+    public OutboxMessage findDeadLetter(Long id) {
+      return deadLetters.get(id);
+    }
+
+    @Override
+    public int requeueDeadLetters(List<Long> ids, LocalDateTime nextAttemptAt) {
+      requeuedIds = ids;
+      return (int) ids.stream().filter(deadLetters::containsKey).count();
+    }
+
+    @Override
+    public int requeueAllDeadLetters(String aggregateId, LocalDateTime nextAttemptAt) {
+      requeuedAggregateId = aggregateId;
+      requeuedAll = true;
+      return (int)
+          deadLetters.values().stream()
+              .filter(message -> aggregateId == null || aggregateId.equals(message.aggregateId))
+              .count();
     }
   }
 
   private static class StubOutboxPublisher extends OutboxPublisher {
     int processed;
+    int drainRequests;
+
+    @Override
+    public synchronized boolean requestDrain() {
+      drainRequests++;
+      return true;
+    }
 
     @Override
     public int publishPending() {
@@ -52,31 +95,314 @@ public class OutboxAdminResourceTest {
     }
   }
 
+  private static class StubRetentionJob extends OutboxRetentionJob {
+    long purged;
+
+    @Override
+    public long runOnce() {
+      return purged;
+    }
+  }
+
+  private static class StubReplayJobService extends OutboxReplayJobService {
+    OutboxReplayCriteria submittedCriteria;
+    Integer submittedRate;
+    OutboxReplayJob job;
+
+    @Override
+    public OutboxReplayJob submit(OutboxReplayCriteria criteria, Integer maxRowsPerSecond) {
+      submittedCriteria = criteria;
+      submittedRate = maxRowsPerSecond;
+      job = new OutboxReplayJob("job-1", criteria, 500, maxRowsPerSecond == null ? 0 : maxRowsPerSecond);
+      return job;
+    }
+
+    @Override
+    public Optional<OutboxReplayJob> find(String id) {
+      return job != null && job.id.equals(id) ? Optional.of(job) : Optional.empty();
+    }
+
+    @Override
+    public Optional<OutboxReplayJob> cancel(String id) {
+      return find(id);
+    }
+  }
+
+  @Test
+  public void testSubmitReplayJobShouldAcceptAggregateTypeFilter() {
+    StubReplayJobService jobs = new StubReplayJobService();
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxReplayJobService = jobs;
+
+    Response response =
+        resource.submitReplayJob("Store", null, "2026-02-01T00:00:00", null, false, 200);
+
+    assertEquals(202, response.getStatus());
+    assertSame(jobs.job, response.getEntity());
+    assertEquals("Store", jobs.submittedCriteria.aggregateType);
+    assertNull(jobs.submittedCriteria.aggregateId);
+    assertEquals(LocalDateTime.parse("2026-02-01T00:00:00"), jobs.submittedCriteria.from);
+    assertNull(jobs.submittedCriteria.to);
+    assertEquals(200, jobs.submittedRate);
+  }
+
+  @Test
+  public void testSubmitReplayJobShouldRequireExplicitAllForUnfilteredReplay() {
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxReplayJobService = new StubReplayJobService();
+
+    WebApplicationException ex =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.submitReplayJob(null, " ", null, null, false, null));
+
+    assertEquals(400, ex.getResponse().getStatus());
+    assertEquals(202, resource.submitReplayJob(null, null, null, null, true, null).getStatus());
+  }
+
+  @Test
+  public void testSubmitReplayJobShouldRejectInvalidRange() {
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxReplayJobService = new StubReplayJobService();
+
+    WebApplicationException ex =
+        assertThrows(
+            WebApplicationException.class,
+            () ->
+                resource.submitReplayJob(
+                    null, "AGG-1", "2026-02-24T11:00:00", "2026-02-24T10:00:00", false, null));
+
+    assertEquals("to must be greater than or equal to from", ex.getMessage());
+  }
+
+  @Test
+  public void testReplayJobEndpointsShouldReturn404ForUnknownJob() {
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxReplayJobService = new StubReplayJobService();
+
+    WebApplicationException lookup =
+        assertThrows(WebApplicationException.class, () -> resource.replayJob("missing"));
+    WebApplicationException cancel =
+        assertThrows(WebApplicationException.class, () -> resource.cancelReplayJob("missing"));
+
+    assertEquals(404, lookup.getResponse().getStatus());
+    assertEquals(404, cancel.getResponse().getStatus());
+  }
+
+  @Test
+  public void testDeadLettersShouldListAndInspectParkedMessages() {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.deadLetters.put(3L, deadLetter(3L, "A"));
+    repository.deadLetters.put(8L, deadLetter(8L, "B"));
+    repository.deadLetters.put(9L, deadLetter(9L, "A"));
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = repository;
+
+    assertEquals(List.of(3L, 9L), resource.deadLetters("A", 0, 100).stream().map(m -> m.id).toList());
+    assertEquals(List.of(9L), resource.deadLetters(null, 8, 100).stream().map(m -> m.id).toList());
+    assertEquals("B", resource.deadLetter(8L).aggregateId);
+
+    WebApplicationException missing =
+        assertThrows(WebApplicationException.class, () -> resource.deadLetter(4L));
+    assertEquals(404, missing.getResponse().getStatus());
+    assertEquals("Dead letter with id of 4 does not exist.", missing.getMessage());
+    WebApplicationException badLimit =
+        assertThrows(WebApplicationException.class, () -> resource.deadLetters(null, 0, 0));
+    assertEquals(400, badLimit.getResponse().getStatus());
+  }
+
+  @Test
+  public void testRequeueDeadLettersShouldResetSelectionAndWakeRelay() {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.deadLetters.put(3L, deadLetter(3L, "A"));
+    repository.deadLetters.put(9L, deadLetter(9L, "A"));
+    StubOutboxPublisher publisher = new StubOutboxPublisher();
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = repository;
+    resource.outboxPublisher = publisher;
+    resource.outboxStatsCache = statsCache(repository);
+
+    Map<String, Object> byId = resource.requeueDeadLetters(List.of(3L, 4L), null, false);
+    Map<String, Object> byAggregate = resource.requeueDeadLetters(null, "A", false);
+
+    assertEquals(1, byId.get("requeued"));
+    assertEquals(List.of(3L, 4L), repository.requeuedIds);
+    assertEquals(2, byAggregate.get("requeued"));
+    assertEquals("A", repository.requeuedAggregateId);
+    assertEquals(2, publisher.drainRequests);
+  }
+
+  @Test
+  public void testRequeueDeadLettersShouldRequireExactlyOneSelection() {
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = new FakeOutboxRepository();
+
+    WebApplicationException none =
+        assertThrows(WebApplicationException.class, () -> resource.requeueDeadLetters(List.of(), " ", false));
+    WebApplicationException both =
+        assertThrows(WebApplicationException.class, () -> resource.requeueDeadLetters(List.of(1L), null, true));
+
+    assertEquals(400, none.getResponse().getStatus());
+    assertEquals(400, both.getResponse().getStatus());
+  }
+
+  private static OutboxMessage deadLetter(Long id, String aggregateId) {
+    OutboxMessage message = new OutboxMessage();
+    message.id = id;
+    message.aggregateId = aggregateId;
+    message.attempts = 10;
+    message.deadLetteredAt = LocalDateTime.of(2026, 2, 25, 12, 0);
+    return message;
+  }
+
+  private static OutboxStatsCache statsCache(OutboxMessageRepository repository) {
+    OutboxStatsCache cache = new OutboxStatsCache();
+    cache.outboxMessageRepository = repository;
+    return cache;
+  }
+
+  @Test
+  public void testRunRetentionShouldReturnPurgedCount() {
+    StubRetentionJob retentionJob = new StubRetentionJob();
+    retentionJob.purged = 1200;
+
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = new FakeOutboxRepository();
+    resource.outboxPublisher = new StubOutboxPublisher();
+    resource.metrics = new OutboxPublisherMetrics();
+    resource.outboxRetentionJob = retentionJob;
+    resource.outboxStatsCache = statsCache(resource.outboxMessageRepository);
+    resource.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    resource.circuitBreaker = new OutboxCircuitBreaker();
+    resource.retryScheduler = new OutboxRetryScheduler();
+
+    Map<String, Object> response = resource.runRetention();
+
+    assertEquals(1200L, response.get("purged"));
+  }
+
   @Test
   public void testStatsShouldReturnRepositoryAndRelayMetrics() {
     FakeOutboxRepository repository = new FakeOutboxRepository();
     repository.pendingCount = 5;
     repository.failedCount = 2;
     repository.publishedCount = 11;
+    repository.deadLetteredCount = 3;
 
     OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
-    metrics.recordSuccess(8);
-    metrics.recordSuccess(12);
+    metrics.recordSuccess(8_000_000L);
+    metrics.recordSuccess(12_000_000L);
     metrics.recordFailure();
+    metrics.recordDeadLettered();
 
     OutboxAdminResource resource = new OutboxAdminResource();
     resource.outboxMessageRepository = repository;
     resource.outboxPublisher = new StubOutboxPublisher();
     resource.metrics = metrics;
+    resource.outboxStatsCache = statsCache(repository);
+    resource.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    resource.circuitBreaker = new OutboxCircuitBreaker();
+    resource.retryScheduler = new OutboxRetryScheduler();
 
     Map<String, Object> stats = resource.stats();
 
     assertEquals(5L, stats.get("pendingCount"));
     assertEquals(2L, stats.get("failedCount"));
     assertEquals(11L, stats.get("publishedCount"));
+    assertEquals(3L, stats.get("deadLetterCount"));
+    assertEquals(1L, stats.get("relayDeadLetteredCount"));
     assertEquals(2L, stats.get("relayPublishedCount"));
     assertEquals(1L, stats.get("relayFailureCount"));
     assertEquals(10L, stats.get("relayAveragePublishLatencyMs"));
+    Map<?, ?> latency = (Map<?, ?>) stats.get("relayPublishLatencyMs");
+    assertEquals(2L, latency.get("count"));
+    assertEquals(12.0, latency.get("max"));
+    assertTrue(stats.containsKey("relayEndToEndLagMs"));
+    assertTrue(stats.containsKey("relayPublishRatePerSecond1m"));
+    assertTrue(stats.get("countsAsOf") instanceof LocalDateTime);
+    assertTrue((Long) stats.get("countsAgeMs") >= 0);
+    assertEquals(0, stats.get("gatewayDedupSize"));
+    assertEquals(0L, stats.get("gatewayDedupHits"));
+    assertEquals("CLOSED", stats.get("breakerState"));
+  }
+
+  @Test
+  public void testStatsShouldServeCountsFromCacheUntilRefreshRequested() {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pendingCount = 5;
+
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = repository;
+    resource.outboxPublisher = new StubOutboxPublisher();
+    resource.metrics = new OutboxPublisherMetrics();
+    resource.outboxStatsCache = statsCache(repository);
+    resource.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    resource.circuitBreaker = new OutboxCircuitBreaker();
+    resource.retryScheduler = new OutboxRetryScheduler();
+
+    resource.stats();
+    repository.pendingCount = 6;
+    Map<String, Object> cached = resource.stats();
+    Map<String, Object> refreshed = resource.stats(true);
+
+    assertEquals(5L, cached.get("pendingCount"));
+    assertEquals(6L, refreshed.get("pendingCount"));
+    assertEquals(2, repository.countByStateCalls);
+  }
+
+  @Test
+  public void testScrapeShouldRenderCountersAndLatencySummaries() {
+    OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
+    metrics.recordSuccess(4_000_000L);
+    metrics.recordFailure();
+    metrics.recordEndToEndLag(2_000_000_000L);
+
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = new FakeOutboxRepository();
+    resource.outboxPublisher = new StubOutboxPublisher();
+    resource.metrics = metrics;
+    resource.outboxStatsCache = statsCache(resource.outboxMessageRepository);
+    resource.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    resource.circuitBreaker = new OutboxCircuitBreaker();
+    resource.retryScheduler = new OutboxRetryScheduler();
+
+    String body = resource.scrape();
+
+    assertTrue(body.contains("# TYPE outbox_relay_published_total counter\noutbox_relay_published_total 1\n"));
+    assertTrue(body.contains("outbox_relay_failed_total 1\n"));
+    assertTrue(body.contains("outbox_pending_messages 0.0\n"));
+    assertTrue(body.contains("legacy_gateway_dedup_hits_total 0\n"));
+    assertTrue(body.contains("# TYPE outbox_relay_publish_latency_seconds summary\n"));
+    assertTrue(body.contains("outbox_relay_publish_latency_seconds_count 1\n"));
+    assertTrue(body.contains("outbox_relay_end_to_end_lag_seconds{quantile=\"0.99\"} 2.0"));
+  }
+
+  @Test
+  public void testScrapeShouldReportHalfOpenBreakerAsNotOpen() {
+    OutboxAdminResource resource = new OutboxAdminResource();
+    resource.outboxMessageRepository = new FakeOutboxRepository();
+    resource.outboxPublisher = new StubOutboxPublisher();
+    resource.metrics = new OutboxPublisherMetrics();
+    resource.outboxStatsCache = statsCache(resource.outboxMessageRepository);
+    resource.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    resource.circuitBreaker =
+        new OutboxCircuitBreaker() {
+          @Override
+          public synchronized State state() {
+            return State.HALF_OPEN;
+          }
+        };
+    resource.retryScheduler = new OutboxRetryScheduler();
+
+    String body = resource.scrape();
+
+    assertTrue(body.contains("outbox_breaker_open 0.0\n"));
+    assertTrue(
+        body.contains(
+            "# TYPE outbox_breaker_state gauge\n"
+                + "outbox_breaker_state{state=\"CLOSED\"} 0\n"
+                + "outbox_breaker_state{state=\"OPEN\"} 0\n"
+                + "outbox_breaker_state{state=\"HALF_OPEN\"} 1\n"));
   }
 
   @Test
@@ -146,13 +472,17 @@ public class OutboxAdminResourceTest {
     repository.replayResult = 9;
 
     OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
-    metrics.recordSuccess(10);
+    metrics.recordSuccess(10_000_000L);
     metrics.recordFailure();
 
     OutboxAdminResource resource = new OutboxAdminResource();
     resource.outboxMessageRepository = repository;
     resource.outboxPublisher = new StubOutboxPublisher();
     resource.metrics = metrics;
+    resource.outboxStatsCache = statsCache(repository);
+    resource.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    resource.circuitBreaker = new OutboxCircuitBreaker();
+    resource.retryScheduler = new OutboxRetryScheduler();
 
     Map<String, Object> response =
         resource.replay("AGG-9", "2026-02-24T10:00:00", "2026-02-24T11:00:00", true);
@@ -0,0 +1,151 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class OutboxCircuitBreakerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  public void testBreakerShouldStayClosedBelowMinimumCalls() {
+    OutboxCircuitBreaker breaker = breaker();
+
+    for (int i = 0; i < 3; i++) {
+      breaker.recordFailure();
+    }
+
+    assertEquals(OutboxCircuitBreaker.State.CLOSED, breaker.state());
+    assertTrue(breaker.allowRequest());
+  }
+
+  @Test
+  public void testBreakerShouldOpenWhenFailureRateReachesThreshold() {
+    OutboxCircuitBreaker breaker = breaker();
+
+    breaker.recordSuccess();
+    breaker.recordSuccess();
+    breaker.recordFailure();
+    breaker.recordFailure();
+
+    assertEquals(OutboxCircuitBreaker.State.OPEN, breaker.state());
+    assertTrue(breaker.isOpen());
+    assertFalse(breaker.allowRequest());
+    assertEquals(1_000, breaker.remainingOpenMs());
+    assertEquals(1, breaker.timesOpened());
+  }
+
+  @Test
+  public void testFailureRateShouldOnlyConsiderSlidingWindow() {
+    OutboxCircuitBreaker breaker = breaker();
+    breaker.windowSize = 4;
+
+    breaker.recordFailure();
+    for (int i = 0; i < 4; i++) {
+      breaker.recordSuccess();
+    }
+    breaker.recordFailure();
+
+    assertEquals(0.25, breaker.failureRate());
+    assertEquals(OutboxCircuitBreaker.State.CLOSED, breaker.state());
+  }
+
+  @Test
+  public void testBreakerShouldAllowLimitedProbesOnceOpenDurationElapsed() {
+    OutboxCircuitBreaker breaker = openBreaker();
+
+    advance(1_000);
+
+    assertEquals(OutboxCircuitBreaker.State.HALF_OPEN, breaker.state());
+    assertFalse(breaker.isOpen());
+    assertTrue(breaker.allowRequest());
+    assertTrue(breaker.allowRequest());
+    assertFalse(breaker.allowRequest());
+  }
+
+  @Test
+  public void testSuccessfulProbesShouldCloseBreaker() {
+    OutboxCircuitBreaker breaker = openBreaker();
+    advance(1_000);
+
+    breaker.allowRequest();
+    breaker.recordSuccess();
+    breaker.allowRequest();
+    breaker.recordSuccess();
+
+    assertEquals(OutboxCircuitBreaker.State.CLOSED, breaker.state());
+    assertEquals(0.0, breaker.failureRate());
+    assertTrue(breaker.allowRequest());
+  }
+
+  @Test
+  public void testFailedProbeShouldReopenBreaker() {
+    OutboxCircuitBreaker breaker = openBreaker();
+    advance(1_000);
+
+    breaker.allowRequest();
+    breaker.recordFailure();
+
+    assertEquals(OutboxCircuitBreaker.State.OPEN, breaker.state());
+    assertEquals(2, breaker.timesOpened());
+    assertFalse(breaker.allowRequest());
+  }
+
+  @Test
+  public void testIgnoredProbeShouldReturnItsPermit() {
+    OutboxCircuitBreaker breaker = openBreaker();
+    advance(1_000);
+
+    breaker.allowRequest();
+    breaker.recordIgnored();
+    breaker.allowRequest();
+    breaker.recordSuccess();
+    breaker.allowRequest();
+    breaker.recordSuccess();
+
+    assertEquals(OutboxCircuitBreaker.State.CLOSED, breaker.state());
+  }
+
+  @Test
+  public void testDisabledBreakerShouldAlwaysAllowRequests() {
+    OutboxCircuitBreaker breaker = breaker();
+    breaker.enabled = false;
+
+    for (int i = 0; i < 10; i++) {
+      breaker.recordFailure();
+    }
+
+    assertTrue(breaker.allowRequest());
+    assertFalse(breaker.isOpen());
+    assertEquals(OutboxCircuitBreaker.State.CLOSED, breaker.state());
+  }
+
+  private OutboxCircuitBreaker openBreaker() {
+    OutboxCircuitBreaker breaker = breaker();
+    for (int i = 0; i < 4; i++) {
+      breaker.recordFailure();
+    }
+    assertTrue(breaker.isOpen());
+    return breaker;
+  }
+
+  private OutboxCircuitBreaker breaker() {
+    OutboxCircuitBreaker breaker = new OutboxCircuitBreaker();
+    breaker.windowSize = 10;
+    breaker.minimumCalls = 4;
+    breaker.failureRateThreshold = 0.5;
+    breaker.openDurationMs = 1_000;
+    breaker.halfOpenProbes = 2;
+    breaker.clock = clock::get;
+    return breaker;
+  }
+
+  private void advance(long millis) {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+}
@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("e2e")
+public class OutboxClaimConcurrencyTest {
+
+  private static final int ROUNDS = 25;
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+
+  @BeforeEach
+  public void clearOutbox() {
+    outboxMessageRepository.clearAll();
+  }
+
+  @Test
+  public void testTwoClaimersShouldNeverLeaseTheSameAggregateAtOnce() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int round = 0; round < ROUNDS; round++) {
+        String aggregateId = "claim-race-" + round;
+        LocalDateTime now = LocalDateTime.now();
+        outboxMessageRepository.create(message(aggregateId, now.minusSeconds(2)));
+        outboxMessageRepository.create(message(aggregateId, now.minusSeconds(1)));
+
+        // Each claimer locks one of the aggregate's two rows with SKIP LOCKED; only one of them may
+        // go on to lease anything for the aggregate.
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<Future<List<OutboxMessage>>> claims = new ArrayList<>(2);
+        for (String node : List.of("node-a", "node-b")) {
+          Callable<List<OutboxMessage>> claim =
+              () -> {
+                start.await(5, TimeUnit.SECONDS);
+                return outboxMessageRepository.claimPending(1, node, now, now.plusSeconds(60));
+              };
+          claims.add(executor.submit(claim));
+        }
+        List<OutboxMessage> first = claims.get(0).get(10, TimeUnit.SECONDS);
+        List<OutboxMessage> second = claims.get(1).get(10, TimeUnit.SECONDS);
+
+        assertTrue(
+            first.isEmpty() || second.isEmpty(),
+            "both claimers leased aggregate " + aggregateId + " in round " + round);
+        assertEquals(1, first.size() + second.size(), "round " + round);
+        outboxMessageRepository.clearAll();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testClaimerShouldSkipAggregateLeasedByAnEarlierCommittedClaim() {
+    String aggregateId = "claim-leased-" + UUID.randomUUID();
+    LocalDateTime now = LocalDateTime.now();
+    outboxMessageRepository.create(message(aggregateId, now.minusSeconds(2)));
+    outboxMessageRepository.create(message(aggregateId, now.minusSeconds(1)));
+
+    List<OutboxMessage> first = outboxMessageRepository.claimPending(1, "node-a", now, now.plusSeconds(60));
+    List<OutboxMessage> second = outboxMessageRepository.claimPending(1, "node-b", now, now.plusSeconds(60));
+
+    assertEquals(1, first.size());
+    assertTrue(second.isEmpty());
+  }
+
+  private static OutboxMessage message(String aggregateId, LocalDateTime createdAt) {
+    OutboxMessage message = new OutboxMessage();
+    message.eventId = UUID.randomUUID().toString();
+    message.aggregateType = "Store";
+    message.aggregateId = aggregateId;
+    message.eventType = "StoreUpdated";
+    message.schemaVersion = 1;
+    message.payloadJson = "{}";
+    message.createdAt = createdAt;
+    message.attempts = 0;
+    message.nextAttemptAt = createdAt;
+    return message;
+  }
+}
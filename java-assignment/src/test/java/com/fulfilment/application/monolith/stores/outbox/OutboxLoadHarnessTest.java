@@ -0,0 +1,191 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
+import com.fulfilment.application.monolith.testinfra.ReusablePostgresTestResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithTestResource(value = ReusablePostgresTestResource.class, restrictToAnnotatedClass = true)
+@Tag("load")
+public class OutboxLoadHarnessTest {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxLoadHarnessTest.class);
+
+  private static final long MESSAGES = Long.getLong("outbox.load.messages", 1_000_000);
+  private static final int AGGREGATES = Integer.getInteger("outbox.load.aggregates", 10_000);
+  private static final int SEED_CHUNK_SIZE = Integer.getInteger("outbox.load.seed-chunk-size", 100_000);
+  private static final long GATEWAY_LATENCY_MS = Long.getLong("outbox.load.gateway-latency-ms", 0);
+  private static final double FAILURE_RATE = Double.parseDouble(System.getProperty("outbox.load.failure-rate", "0"));
+  private static final long TIMEOUT_MINUTES = Long.getLong("outbox.load.timeout-minutes", 60);
+  private static final double MIN_DRAIN_RATE = Double.parseDouble(System.getProperty("outbox.load.min-drain-rate", "0"));
+  private static final Path REPORT_DIRECTORY = Path.of(System.getProperty("outbox.load.report-dir", "target/outbox-load"));
+
+  @Inject OutboxLoadSeeder seeder;
+  @Inject OutboxMessageRepository outboxMessageRepository;
+  @Inject OutboxPublisher outboxPublisher;
+  @Inject OutboxPublisherMetrics metrics;
+  @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
+  @Inject ObjectMapper objectMapper;
+
+  private static final class HeapSampler implements AutoCloseable {
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakUsedBytes = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    HeapSampler(long intervalMs) {
+      thread =
+          new Thread(
+              () -> {
+                while (running) {
+                  peakUsedBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                  try {
+                    Thread.sleep(intervalMs);
+                  } catch (InterruptedException ex) {
+                    return;
+                  }
+                }
+              },
+              "outbox-load-heap-sampler");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    long peakUsedBytes() {
+      return peakUsedBytes.get();
+    }
+
+    long currentUsedBytes() {
+      return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    long maxBytes() {
+      return memory.getHeapMemoryUsage().getMax();
+    }
+
+    @Override
+    public void close() {
+      running = false;
+      thread.interrupt();
+    }
+  }
+
+  @BeforeEach
+  public void setup() {
+    outboxMessageRepository.clearAll();
+    legacyStoreManagerGateway.clearTestState();
+    legacyStoreManagerGateway.setSimulatedLatencyMs(GATEWAY_LATENCY_MS);
+    legacyStoreManagerGateway.setSimulatedFailureRate(FAILURE_RATE);
+    metrics.reset();
+  }
+
+  @AfterEach
+  public void cleanup() {
+    legacyStoreManagerGateway.setSimulatedLatencyMs(0);
+    legacyStoreManagerGateway.setSimulatedFailureRate(0);
+    outboxMessageRepository.clearAll();
+  }
+
+  @Test
+  public void testRelayShouldDrainSyntheticBacklog() throws Exception {
+    String runId = "load-" + System.currentTimeMillis();
+    long seedStarted = System.nanoTime();
+    long seeded = seeder.seed(runId, MESSAGES, AGGREGATES, SEED_CHUNK_SIZE);
+    long seedNanos = System.nanoTime() - seedStarted;
+    assertEquals(MESSAGES, seeded);
+
+    long gcCountBefore = gcCount();
+    long gcMillisBefore = gcMillis();
+    long drainNanos;
+    Map<String, Object> heap = new LinkedHashMap<>();
+    try (HeapSampler sampler = new HeapSampler(100)) {
+      long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(TIMEOUT_MINUTES);
+      long drainStarted = System.nanoTime();
+      while (System.nanoTime() < deadline) {
+        long delayMs = outboxPublisher.drainStep();
+        if (delayMs > 0) {
+          if (outboxMessageRepository.countPending() == 0) {
+            break;
+          }
+          Thread.sleep(Math.min(delayMs, 200));
+        }
+      }
+      drainNanos = System.nanoTime() - drainStarted;
+      heap.put("peakUsedMb", sampler.peakUsedBytes() / (1024 * 1024));
+      heap.put("endUsedMb", sampler.currentUsedBytes() / (1024 * 1024));
+      heap.put("maxMb", sampler.maxBytes() / (1024 * 1024));
+    }
+    heap.put("gcCount", gcCount() - gcCountBefore);
+    heap.put("gcMillis", gcMillis() - gcMillisBefore);
+
+    long pending = outboxMessageRepository.countPending();
+    long deadLettered = outboxMessageRepository.countDeadLettered();
+    long published = outboxMessageRepository.countPublished();
+    double drainSeconds = drainNanos / 1_000_000_000.0;
+    double drainRate = published / drainSeconds;
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("runId", runId);
+    report.put("messages", MESSAGES);
+    report.put("aggregates", AGGREGATES);
+    report.put("gatewayLatencyMs", GATEWAY_LATENCY_MS);
+    report.put("gatewayFailureRate", FAILURE_RATE);
+    report.put("seedSeconds", seedNanos / 1_000_000_000.0);
+    report.put("drainSeconds", drainSeconds);
+    report.put("drainRatePerSecond", drainRate);
+    report.put("published", published);
+    report.put("deadLettered", deadLettered);
+    report.put("pending", pending);
+    report.put("relayFailures", metrics.getFailedCount());
+    report.put("ackCommits", metrics.getAcknowledgementCount());
+    report.put("endToEndLagMs", metrics.getEndToEndLag().summaryMs());
+    report.put("publishLatencyMs", metrics.getPublishLatency().summaryMs());
+    report.put("heap", heap);
+
+    String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+    Path reportFile = REPORT_DIRECTORY.resolve(runId + ".json");
+    Files.createDirectories(REPORT_DIRECTORY);
+    Files.writeString(reportFile, json);
+    LOGGER.infof("Outbox load report written to %s:%n%s", reportFile, json);
+
+    assertEquals(0, pending, "relay did not drain the backlog within " + TIMEOUT_MINUTES + " minutes");
+    assertEquals(MESSAGES, published + deadLettered);
+    assertTrue(
+        drainRate >= MIN_DRAIN_RATE,
+        String.format("drain rate %.0f/s is below the %.0f/s floor", drainRate, MIN_DRAIN_RATE));
+  }
+
+  private static long gcCount() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+        .filter(count -> count > 0)
+        .sum();
+  }
+
+  private static long gcMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+        .filter(time -> time > 0)
+        .sum();
+  }
+}
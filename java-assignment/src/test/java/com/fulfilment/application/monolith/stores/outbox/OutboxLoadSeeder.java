@@ -0,0 +1,100 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import org.hibernate.Session;
+
+@ApplicationScoped
+public class OutboxLoadSeeder {
+
+  static final String TEMPLATE_TABLE = "outbox_load_template";
+
+  private static final String INSERT_CHUNK_SQL =
+      "INSERT INTO outbox_message (id, eventId, aggregateType, aggregateId, eventType, schemaVersion, "
+          + "payload, createdAt, attempts, nextAttemptAt) "
+          + "SELECT nextval('outbox_message_seq'), ? || '-' || g, 'Store', 'load-' || t.aggregate, "
+          + "'StoreUpdated', ?, t.payload, localtimestamp, 0, localtimestamp "
+          + "FROM generate_series(?, ?) AS g "
+          + "JOIN " + TEMPLATE_TABLE + " t ON t.aggregate = g % ?";
+
+  @Inject OutboxMessageRepository outboxMessageRepository;
+  @Inject OutboxPayloadCodecs payloadCodecs;
+
+  @Transactional
+  public void prepareTemplates(int aggregates) {
+    session()
+        .doWork(
+            connection -> {
+              try (Statement statement = connection.createStatement()) {
+                statement.execute(
+                    "CREATE UNLOGGED TABLE IF NOT EXISTS " + TEMPLATE_TABLE
+                        + " (aggregate integer PRIMARY KEY, payload bytea NOT NULL)");
+                statement.execute("TRUNCATE " + TEMPLATE_TABLE);
+              }
+              OutboxPayloadCodec codec = payloadCodecs.forSchemaVersion(BinaryPayloadCodec.SCHEMA_VERSION);
+              try (PreparedStatement statement =
+                  connection.prepareStatement("INSERT INTO " + TEMPLATE_TABLE + " (aggregate, payload) VALUES (?, ?)")) {
+                for (int aggregate = 0; aggregate < aggregates; aggregate++) {
+                  statement.setInt(1, aggregate);
+                  statement.setBytes(
+                      2,
+                      codec.encode(
+                          new StoreChangedEventPayload((long) aggregate, "LOAD-" + aggregate, aggregate % 500)));
+                  statement.addBatch();
+                  if ((aggregate + 1) % 1_000 == 0) {
+                    statement.executeBatch();
+                  }
+                }
+                statement.executeBatch();
+              }
+            });
+  }
+
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  public int insertChunk(String runId, long fromInclusive, long toInclusive, int aggregates) {
+    int[] inserted = new int[1];
+    session()
+        .doWork(
+            connection -> {
+              try (PreparedStatement statement = connection.prepareStatement(INSERT_CHUNK_SQL)) {
+                statement.setString(1, runId);
+                statement.setInt(2, BinaryPayloadCodec.SCHEMA_VERSION);
+                statement.setLong(3, fromInclusive);
+                statement.setLong(4, toInclusive);
+                statement.setInt(5, aggregates);
+                inserted[0] = statement.executeUpdate();
+              }
+            });
+    return inserted[0];
+  }
+
+  @Transactional
+  public void finish() {
+    session()
+        .doWork(
+            connection -> {
+              try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + TEMPLATE_TABLE);
+                statement.execute("ANALYZE outbox_message");
+              }
+            });
+  }
+
+  public long seed(String runId, long messages, int aggregates, int chunkSize) {
+    prepareTemplates(aggregates);
+    long seeded = 0;
+    for (long from = 0; from < messages; from += chunkSize) {
+      long to = Math.min(messages, from + chunkSize) - 1;
+      seeded += insertChunk(runId, from, to, aggregates);
+    }
+    finish();
+    return seeded;
+  }
+
+  private Session session() {
+    return outboxMessageRepository.getEntityManager().unwrap(Session.class);
+  }
+}
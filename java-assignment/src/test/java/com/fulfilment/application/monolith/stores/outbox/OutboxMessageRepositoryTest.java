@@ -1,21 +1,43 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
 import org.junit.jupiter.api.Test;
 
 public class OutboxMessageRepositoryTest {
 
+  private static class RecordedStatement {
+    final String sql;
+    final Map<Integer, Object> params = new HashMap<>();
+    final List<Map<Integer, Object>> batches = new ArrayList<>();
+    int executeUpdateCalls;
+
+    RecordedStatement(String sql) {
+      this.sql = sql;
+    }
+  }
+
   private static class TestOutboxMessageRepository extends OutboxMessageRepository {
     OutboxMessage persisted;
     OutboxMessage merged;
@@ -30,6 +52,17 @@ public class OutboxMessageRepositoryTest {
     String lastUpdateQuery;
     Object[] lastUpdateParams;
     boolean deleteAllCalled;
+    List<Number> nativeResult = List.of();
+    List<Object[]> nativeRows;
+    int nativeUpdateResult;
+    Object nativeSingleResult;
+    String lastNativeSql;
+    final Map<String, Object> nativeParams = new HashMap<>();
+    final List<String> nativeSqls = new ArrayList<>();
+    final Map<String, List<Number>> nativeResultsBySql = new HashMap<>();
+    final Map<String, Map<String, Object>> nativeParamsBySql = new HashMap<>();
+    final List<RecordedStatement> statements = new ArrayList<>();
+    final List<String> entityManagerCalls = new ArrayList<>();
 
     @Override
     public void persist(OutboxMessage entity) {
@@ -91,10 +124,125 @@ public class OutboxMessageRepositoryTest {
               EntityManager.class.getClassLoader(),
               new Class<?>[] {EntityManager.class},
               (proxy, method, args) -> {
+                if ("persist".equals(method.getName())
+                    || "flush".equals(method.getName())
+                    || "detach".equals(method.getName())) {
+                  entityManagerCalls.add(method.getName());
+                  return null;
+                }
                 if ("merge".equals(method.getName())) {
                   merged = (OutboxMessage) args[0];
                   return merged;
                 }
+                if ("createNativeQuery".equals(method.getName())) {
+                  lastNativeSql = (String) args[0];
+                  nativeSqls.add(lastNativeSql);
+                  return nativeQuery(lastNativeSql);
+                }
+                if ("unwrap".equals(method.getName())) {
+                  return session();
+                }
+                return defaultValue(method.getReturnType());
+              });
+    }
+
+    private Session session() {
+      return (Session)
+          Proxy.newProxyInstance(
+              Session.class.getClassLoader(),
+              new Class<?>[] {Session.class},
+              (proxy, method, args) -> {
+                if ("doWork".equals(method.getName())) {
+                  ((Work) args[0]).execute(connection());
+                  return null;
+                }
+                return defaultValue(method.getReturnType());
+              });
+    }
+
+    private Connection connection() {
+      return (Connection)
+          Proxy.newProxyInstance(
+              Connection.class.getClassLoader(),
+              new Class<?>[] {Connection.class},
+              (proxy, method, args) -> {
+                if ("prepareStatement".equals(method.getName())) {
+                  RecordedStatement recorded = new RecordedStatement((String) args[0]);
+                  statements.add(recorded);
+                  return preparedStatement(recorded);
+                }
+                if ("createArrayOf".equals(method.getName())) {
+                  return sqlArray((Object[]) args[1]);
+                }
+                return defaultValue(method.getReturnType());
+              });
+    }
+
+    private PreparedStatement preparedStatement(RecordedStatement recorded) {
+      return (PreparedStatement)
+          Proxy.newProxyInstance(
+              PreparedStatement.class.getClassLoader(),
+              new Class<?>[] {PreparedStatement.class},
+              (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length == 2) {
+                  recorded.params.put((Integer) args[0], args[1]);
+                  return null;
+                }
+                if ("addBatch".equals(name)) {
+                  recorded.batches.add(new HashMap<>(recorded.params));
+                  recorded.params.clear();
+                  return null;
+                }
+                if ("executeUpdate".equals(name)) {
+                  recorded.executeUpdateCalls++;
+                  return 1;
+                }
+                if ("executeBatch".equals(name)) {
+                  return new int[recorded.batches.size()];
+                }
+                return defaultValue(method.getReturnType());
+              });
+    }
+
+    private Array sqlArray(Object[] elements) {
+      return (Array)
+          Proxy.newProxyInstance(
+              Array.class.getClassLoader(),
+              new Class<?>[] {Array.class},
+              (proxy, method, args) -> {
+                if ("getArray".equals(method.getName())) {
+                  return elements;
+                }
+                return defaultValue(method.getReturnType());
+              });
+    }
+
+    private Query nativeQuery(String sql) {
+      return (Query)
+          Proxy.newProxyInstance(
+              Query.class.getClassLoader(),
+              new Class<?>[] {Query.class},
+              (proxy, method, args) -> {
+                if ("setParameter".equals(method.getName())) {
+                  nativeParams.put(String.valueOf(args[0]), args[1]);
+                  nativeParamsBySql
+                      .computeIfAbsent(sql, key -> new HashMap<>())
+                      .put(String.valueOf(args[0]), args[1]);
+                  return proxy;
+                }
+                if ("getResultList".equals(method.getName())) {
+                  if (nativeResultsBySql.containsKey(sql)) {
+                    return nativeResultsBySql.get(sql);
+                  }
+                  return nativeRows != null ? nativeRows : nativeResult;
+                }
+                if ("executeUpdate".equals(method.getName())) {
+                  return nativeUpdateResult;
+                }
+                if ("getSingleResult".equals(method.getName())) {
+                  return nativeSingleResult;
+                }
                 return defaultValue(method.getReturnType());
               });
     }
@@ -122,23 +270,70 @@ public class OutboxMessageRepositoryTest {
 
     assertEquals(2, result.size());
     assertSame(first, result.get(0));
-    assertEquals("publishedAt is null and nextAttemptAt <= ?1 order by createdAt asc, id asc", repository.lastFindQuery);
+    assertEquals(
+        "publishedAt is null and deadLetteredAt is null and nextAttemptAt <= ?1 order by createdAt asc, id asc",
+        repository.lastFindQuery);
     assertEquals(now, repository.lastFindParams[0]);
     assertEquals(0, repository.capturedPageIndex);
     assertEquals(25, repository.capturedPageSize);
   }
 
+  @Test
+  public void testClaimPendingShouldLockIdsAndLeaseThemToOwner() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    OutboxMessage claimed = new OutboxMessage();
+    repository.nativeResult = List.of(11L, 12);
+    repository.pendingResult = List.of(claimed);
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 0);
+    LocalDateTime leaseUntil = now.plusSeconds(60);
+
+    List<OutboxMessage> result = repository.claimPending(50, "node-a", now, leaseUntil);
+
+    assertEquals(List.of(claimed), result);
+    assertEquals(
+        List.of(
+            OutboxMessageRepository.CLAIM_PENDING_SQL,
+            OutboxMessageRepository.LOCK_AGGREGATES_SQL,
+            OutboxMessageRepository.UNLEASED_AGGREGATES_SQL),
+        repository.nativeSqls);
+    Map<String, Object> claimParams =
+        repository.nativeParamsBySql.get(OutboxMessageRepository.CLAIM_PENDING_SQL);
+    assertEquals(now, claimParams.get("now"));
+    assertEquals(50, claimParams.get("limit"));
+    assertEquals("claimedBy = ?1, leaseUntil = ?2 where id in ?3", repository.lastUpdateQuery);
+    assertEquals("node-a", repository.lastUpdateParams[0]);
+    assertEquals(leaseUntil, repository.lastUpdateParams[1]);
+    assertEquals(List.of(11L, 12L), repository.lastUpdateParams[2]);
+    assertEquals("id in ?1 order by createdAt asc, id asc", repository.lastFindQuery);
+  }
+
+  @Test
+  public void testClaimPendingShouldSkipUpdateWhenNothingIsClaimable() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 0);
+
+    List<OutboxMessage> result = repository.claimPending(50, "node-a", now, now.plusSeconds(60));
+
+    assertTrue(result.isEmpty());
+    assertNull(repository.lastUpdateQuery);
+    assertNull(repository.lastFindQuery);
+  }
+
   @Test
   public void testMarkPublishedShouldSetFieldsAndMerge() {
     TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
     OutboxMessage message = new OutboxMessage();
     message.lastError = "previous error";
+    message.claimedBy = "node-a";
+    message.leaseUntil = LocalDateTime.of(2026, 2, 25, 13, 1);
     LocalDateTime publishedAt = LocalDateTime.of(2026, 2, 25, 13, 0);
 
     repository.markPublished(message, publishedAt);
 
     assertEquals(publishedAt, message.publishedAt);
     assertNull(message.lastError);
+    assertNull(message.claimedBy);
+    assertNull(message.leaseUntil);
     assertSame(message, repository.merged);
   }
 
@@ -172,19 +367,125 @@ public class OutboxMessageRepositoryTest {
     assertEquals(retryAt, message.nextAttemptAt);
   }
 
+  @Test
+  public void testAcknowledgeShouldWriteBatchOutcomeWithSetBasedStatements() throws Exception {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    OutboxBatchOutcome outcome = new OutboxBatchOutcome();
+    outcome.published(1L);
+    outcome.published(2L);
+    outcome.published(3L);
+    LocalDateTime retryA = LocalDateTime.of(2026, 2, 25, 14, 0);
+    LocalDateTime retryB = LocalDateTime.of(2026, 2, 25, 14, 5);
+    outcome.failed(new OutboxMessageFailure(4L, "x".repeat(2500), retryA));
+    outcome.failed(new OutboxMessageFailure(5L, "boom", retryB));
+    LocalDateTime deferUntil = LocalDateTime.of(2026, 2, 25, 14, 10);
+    outcome.deferred(6L, deferUntil);
+    LocalDateTime publishedAt = LocalDateTime.of(2026, 2, 25, 13, 0);
+
+    repository.acknowledge(outcome, publishedAt);
+
+    assertEquals(3, repository.statements.size());
+    RecordedStatement published = repository.statements.get(0);
+    assertEquals(OutboxMessageRepository.MARK_PUBLISHED_SQL, published.sql);
+    assertEquals(publishedAt, published.params.get(1));
+    assertArrayEquals(new Object[] {1L, 2L, 3L}, (Object[]) ((Array) published.params.get(2)).getArray());
+    assertEquals(1, published.executeUpdateCalls);
+
+    RecordedStatement failed = repository.statements.get(1);
+    assertEquals(OutboxMessageRepository.MARK_FAILED_SQL, failed.sql);
+    assertEquals(2, failed.batches.size());
+    assertEquals(1900, ((String) failed.batches.get(0).get(1)).length());
+    assertEquals(retryA, failed.batches.get(0).get(2));
+    assertEquals(4L, failed.batches.get(0).get(3));
+    assertEquals("boom", failed.batches.get(1).get(1));
+    assertEquals(5L, failed.batches.get(1).get(3));
+
+    RecordedStatement deferred = repository.statements.get(2);
+    assertEquals(OutboxMessageRepository.DEFER_SQL, deferred.sql);
+    assertEquals(1, deferred.batches.size());
+    assertEquals(deferUntil, deferred.batches.get(0).get(1));
+    assertEquals(6L, deferred.batches.get(0).get(2));
+  }
+
+  @Test
+  public void testAcknowledgeShouldParkDeadLettersWithSeparateBatch() throws Exception {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    OutboxBatchOutcome outcome = new OutboxBatchOutcome();
+    LocalDateTime retryAt = LocalDateTime.of(2026, 2, 25, 14, 0);
+    outcome.failed(new OutboxMessageFailure(4L, "boom", retryAt));
+    outcome.failed(new OutboxMessageFailure(5L, "poison", retryAt, true));
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 13, 0);
+
+    repository.acknowledge(outcome, now);
+
+    assertEquals(2, repository.statements.size());
+    RecordedStatement failed = repository.statements.get(0);
+    assertEquals(OutboxMessageRepository.MARK_FAILED_SQL, failed.sql);
+    assertEquals(1, failed.batches.size());
+    assertEquals(4L, failed.batches.get(0).get(3));
+    RecordedStatement deadLettered = repository.statements.get(1);
+    assertEquals(OutboxMessageRepository.MARK_DEAD_LETTERED_SQL, deadLettered.sql);
+    assertEquals(1, deadLettered.batches.size());
+    assertEquals("poison", deadLettered.batches.get(0).get(1));
+    assertEquals(now, deadLettered.batches.get(0).get(2));
+    assertEquals(5L, deadLettered.batches.get(0).get(3));
+  }
+
+  @Test
+  public void testAcknowledgeShouldMarkSupersededRowsPublishedWithPublishedRows() throws Exception {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    OutboxBatchOutcome outcome = new OutboxBatchOutcome();
+    outcome.published(4L);
+    outcome.superseded(2L);
+    outcome.superseded(3L);
+
+    repository.acknowledge(outcome, LocalDateTime.of(2026, 2, 25, 13, 0));
+
+    assertEquals(1, repository.statements.size());
+    RecordedStatement published = repository.statements.get(0);
+    assertEquals(OutboxMessageRepository.MARK_PUBLISHED_SQL, published.sql);
+    assertArrayEquals(new Object[] {4L, 2L, 3L}, (Object[]) ((Array) published.params.get(2)).getArray());
+  }
+
+  @Test
+  public void testAcknowledgeShouldSkipDatabaseWhenOutcomeIsEmpty() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+
+    repository.acknowledge(new OutboxBatchOutcome(), LocalDateTime.now());
+
+    assertTrue(repository.statements.isEmpty());
+  }
+
   @Test
   public void testCountMethodsShouldUseExpectedPredicates() {
     TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
-    repository.countResults.put("publishedAt is null", 4L);
-    repository.countResults.put("publishedAt is null and attempts > 0", 3L);
+    repository.countResults.put("publishedAt is null and deadLetteredAt is null", 4L);
+    repository.countResults.put("publishedAt is null and deadLetteredAt is null and attempts > 0", 3L);
     repository.countResults.put("publishedAt is not null", 9L);
+    repository.countResults.put("publishedAt is null and deadLetteredAt is not null", 2L);
 
     assertEquals(4L, repository.countPending());
     assertEquals(3L, repository.countFailed());
+    assertEquals(2L, repository.countDeadLettered());
     assertEquals(9L, repository.countPublished());
     assertEquals("publishedAt is not null", repository.lastCountQuery);
   }
 
+  @Test
+  public void testCountByStateShouldUseSingleGroupedQuery() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.nativeSingleResult = new Object[] {4L, 3L, 9L, 2L};
+
+    OutboxCounts counts = repository.countByState();
+
+    assertEquals(OutboxMessageRepository.COUNT_BY_STATE_SQL, repository.lastNativeSql);
+    assertEquals(4L, counts.pending);
+    assertEquals(3L, counts.failed);
+    assertEquals(9L, counts.published);
+    assertEquals(2L, counts.deadLettered);
+    assertNotNull(counts.asOf);
+  }
+
   @Test
   public void testReplayShouldResetPublicationFieldsAndReturnAffectedRows() {
     TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
@@ -201,6 +502,246 @@ public class OutboxMessageRepositoryTest {
     assertEquals(to, repository.lastUpdateParams[3]);
   }
 
+  @Test
+  public void testReplayChunkShouldSelectNextKeysetPageAndResetIt() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.nativeResult = List.of(41L, 42L, 45L);
+    repository.updateResult = 3;
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 14, 0);
+
+    List<Long> ids =
+        repository.replayChunk(new OutboxReplayCriteria("Store", null, null, null), 40L, 3, now);
+
+    assertEquals(List.of(41L, 42L, 45L), ids);
+    assertEquals(
+        "SELECT id FROM outbox_message WHERE id > :afterId AND aggregateType = :aggregateType "
+            + "ORDER BY id LIMIT :limit",
+        repository.lastNativeSql);
+    assertEquals(40L, repository.nativeParams.get("afterId"));
+    assertEquals(3, repository.nativeParams.get("limit"));
+    assertEquals("Store", repository.nativeParams.get("aggregateType"));
+    assertEquals(
+        "publishedAt = null, deadLetteredAt = null, nextAttemptAt = ?1, attempts = 0, lastError = null "
+            + "where id in ?2",
+        repository.lastUpdateQuery);
+    assertArrayEquals(new Object[] {now, List.of(41L, 42L, 45L)}, repository.lastUpdateParams);
+  }
+
+  @Test
+  public void testReplayChunkShouldSkipUpdateWhenNothingIsLeft() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+
+    List<Long> ids =
+        repository.replayChunk(new OutboxReplayCriteria(null, null, null, null), 99L, 10, LocalDateTime.now());
+
+    assertTrue(ids.isEmpty());
+    assertNull(repository.lastUpdateQuery);
+  }
+
+  @Test
+  public void testReplayChunkSqlShouldIncludeOnlyGivenFilters() {
+    LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+    LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+
+    String sql = OutboxMessageRepository.replayChunkSql(new OutboxReplayCriteria(null, "7", from, to));
+
+    assertEquals(
+        "SELECT id FROM outbox_message WHERE id > :afterId AND aggregateId = :aggregateId "
+            + "AND createdAt >= :from AND createdAt <= :to ORDER BY id LIMIT :limit",
+        sql);
+  }
+
+  @Test
+  public void testListDeadLettersShouldPageByIdWithinDeadLetterLane() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+
+    repository.listDeadLetters(null, 40L, 20);
+
+    assertEquals(
+        "publishedAt is null and deadLetteredAt is not null and id > ?1 order by id asc",
+        repository.lastFindQuery);
+    assertArrayEquals(new Object[] {40L}, repository.lastFindParams);
+    assertEquals(20, repository.capturedPageSize);
+
+    repository.listDeadLetters("BU-7", 0L, 5);
+
+    assertEquals(
+        "publishedAt is null and deadLetteredAt is not null and aggregateId = ?1 and id > ?2 order by id asc",
+        repository.lastFindQuery);
+    assertArrayEquals(new Object[] {"BU-7", 0L}, repository.lastFindParams);
+  }
+
+  @Test
+  public void testRequeueDeadLettersShouldResetAttemptsOfSelectedRows() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.updateResult = 2;
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 14, 0);
+
+    int requeued = repository.requeueDeadLetters(List.of(3L, 4L), now);
+
+    assertEquals(2, requeued);
+    assertEquals(
+        "deadLetteredAt = null, attempts = 0, lastError = null, nextAttemptAt = ?1 "
+            + "where publishedAt is null and deadLetteredAt is not null and id in ?2",
+        repository.lastUpdateQuery);
+    assertArrayEquals(new Object[] {now, List.of(3L, 4L)}, repository.lastUpdateParams);
+
+    repository.requeueAllDeadLetters("BU-7", now);
+
+    assertTrue(repository.lastUpdateQuery.endsWith("and aggregateId = ?2"));
+    assertArrayEquals(new Object[] {now, "BU-7"}, repository.lastUpdateParams);
+  }
+
+  @Test
+  public void testCreateAllShouldFlushAndDetachInChunks() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    List<OutboxMessage> messages = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      messages.add(new OutboxMessage());
+    }
+
+    repository.createAll(messages, 2);
+
+    assertEquals(5, repository.entityManagerCalls.stream().filter("persist"::equals).count());
+    assertEquals(3, repository.entityManagerCalls.stream().filter("flush"::equals).count());
+    assertEquals(5, repository.entityManagerCalls.stream().filter("detach"::equals).count());
+    assertEquals(
+        List.of("persist", "persist", "flush", "detach", "detach"), repository.entityManagerCalls.subList(0, 5));
+    assertEquals("flush", repository.entityManagerCalls.get(repository.entityManagerCalls.size() - 2));
+  }
+
+  @Test
+  public void testListFreshShouldExcludeRetriesFromPoll() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 45);
+
+    repository.listFresh(25, now);
+
+    assertEquals(
+        "publishedAt is null and deadLetteredAt is null and attempts = 0 and nextAttemptAt <= ?1 "
+            + "order by createdAt asc, id asc",
+        repository.lastFindQuery);
+    assertEquals(25, repository.capturedPageSize);
+  }
+
+  @Test
+  public void testClaimPendingShouldUseFreshOnlySqlWhenRequested() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 45);
+
+    repository.claimPending(10, "node-a", now, now.plusSeconds(60), true);
+
+    assertEquals(List.of(OutboxMessageRepository.CLAIM_FRESH_SQL), repository.nativeSqls);
+    assertTrue(repository.lastNativeSql.contains("AND o.attempts = 0 "));
+    assertTrue(repository.lastNativeSql.endsWith("FOR UPDATE SKIP LOCKED"));
+  }
+
+  @Test
+  public void testClaimDueShouldLeaseOnlyDueUnleasedRows() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.nativeResult = List.of(7L);
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 45);
+    LocalDateTime leaseUntil = now.plusSeconds(60);
+
+    repository.claimDue(List.of(7L, 8L), "node-a", now, leaseUntil);
+
+    assertEquals(OutboxMessageRepository.CLAIM_DUE_SQL, repository.nativeSqls.get(0));
+    Map<String, Object> dueParams =
+        repository.nativeParamsBySql.get(OutboxMessageRepository.CLAIM_DUE_SQL);
+    assertEquals(List.of(7L, 8L), dueParams.get("ids"));
+    assertEquals(now, dueParams.get("now"));
+    assertEquals(
+        List.of(7L),
+        repository.nativeParamsBySql.get(OutboxMessageRepository.LOCK_AGGREGATES_SQL).get("ids"));
+    assertEquals("claimedBy = ?1, leaseUntil = ?2 where id in ?3", repository.lastUpdateQuery);
+    assertEquals(List.of(7L), repository.lastUpdateParams[2]);
+  }
+
+  @Test
+  public void testClaimPendingShouldSkipCandidatesWhoseAggregateLockIsHeldElsewhere() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.nativeResult = List.of(11L, 12L);
+    repository.nativeResultsBySql.put(OutboxMessageRepository.LOCK_AGGREGATES_SQL, List.of());
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 0);
+
+    List<OutboxMessage> result = repository.claimPending(50, "node-a", now, now.plusSeconds(60));
+
+    assertTrue(result.isEmpty());
+    assertFalse(repository.nativeSqls.contains(OutboxMessageRepository.UNLEASED_AGGREGATES_SQL));
+    assertNull(repository.lastUpdateQuery);
+  }
+
+  @Test
+  public void testClaimPendingShouldOnlyLeaseLockedCandidatesWithoutALiveLeaseOnTheirAggregate() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.nativeResult = List.of(11L, 12L, 13L);
+    repository.nativeResultsBySql.put(OutboxMessageRepository.LOCK_AGGREGATES_SQL, List.of(11L, 13L));
+    repository.nativeResultsBySql.put(OutboxMessageRepository.UNLEASED_AGGREGATES_SQL, List.of(13));
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 12, 0);
+
+    repository.claimPending(50, "node-a", now, now.plusSeconds(60));
+
+    Map<String, Object> recheckParams =
+        repository.nativeParamsBySql.get(OutboxMessageRepository.UNLEASED_AGGREGATES_SQL);
+    assertEquals(List.of(11L, 13L), recheckParams.get("ids"));
+    assertEquals(now, recheckParams.get("now"));
+    assertEquals(List.of(13L), repository.lastUpdateParams[2]);
+  }
+
+  @Test
+  public void testListRetryScheduleShouldMapIdsToNextAttempt() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    LocalDateTime first = LocalDateTime.of(2026, 2, 25, 12, 45);
+    LocalDateTime second = LocalDateTime.of(2026, 2, 25, 12, 46);
+    repository.nativeRows = List.of(new Object[] {3L, first}, new Object[] {4, Timestamp.valueOf(second)});
+
+    Map<Long, LocalDateTime> schedule = repository.listRetrySchedule();
+
+    assertEquals(OutboxMessageRepository.RETRY_SCHEDULE_SQL, repository.lastNativeSql);
+    assertEquals(Map.of(3L, first, 4L, second), schedule);
+  }
+
+  @Test
+  public void testDeferPendingShouldPushBacklogWithSingleUpdate() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.updateResult = 42;
+    LocalDateTime until = LocalDateTime.of(2026, 2, 25, 14, 0);
+    LocalDateTime now = LocalDateTime.of(2026, 2, 25, 13, 59, 30);
+
+    int deferred = repository.deferPending(until, now);
+
+    assertEquals(42, deferred);
+    assertEquals(
+        "nextAttemptAt = ?1 where publishedAt is null and deadLetteredAt is null and nextAttemptAt < ?1 "
+            + "and (leaseUntil is null or leaseUntil < ?2)",
+        repository.lastUpdateQuery);
+    assertArrayEquals(new Object[] {until, now}, repository.lastUpdateParams);
+  }
+
+  @Test
+  public void testPurgePublishedBeforeShouldDeleteBoundedChunk() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+    repository.nativeUpdateResult = 250;
+    LocalDateTime cutoff = LocalDateTime.of(2026, 2, 18, 0, 0);
+
+    int purged = repository.purgePublishedBefore(cutoff, 500);
+
+    assertEquals(250, purged);
+    assertEquals(OutboxMessageRepository.PURGE_PUBLISHED_SQL, repository.lastNativeSql);
+    assertEquals(cutoff, repository.nativeParams.get("cutoff"));
+    assertEquals(500, repository.nativeParams.get("limit"));
+  }
+
+  @Test
+  public void testNotifyChannelShouldIssuePgNotify() {
+    TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
+
+    repository.notifyChannel("outbox_message");
+
+    assertEquals("SELECT pg_notify(:channel, '')", repository.lastNativeSql);
+    assertEquals("outbox_message", repository.nativeParams.get("channel"));
+  }
+
   @Test
   public void testClearAllShouldDeleteAllRows() {
     TestOutboxMessageRepository repository = new TestOutboxMessageRepository();
@@ -0,0 +1,109 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+
+public class OutboxNotificationListenerTest {
+
+  @Test
+  public void testListenStatementShouldAcceptPlainIdentifiers() {
+    assertEquals("LISTEN outbox_message", OutboxNotificationListener.listenStatement("outbox_message"));
+  }
+
+  @Test
+  public void testListenStatementShouldRejectUnsafeChannelNames() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OutboxNotificationListener.listenStatement("outbox; DROP TABLE store"));
+    assertThrows(IllegalArgumentException.class, () -> OutboxNotificationListener.listenStatement(null));
+  }
+
+  @Test
+  public void testStartShouldValidateChannelOnlyWhenEnabled() {
+    OutboxNotificationListener listener = new OutboxNotificationListener();
+    listener.publisherEnabled = true;
+    listener.postgresEnabled = false;
+    listener.channel = "not a channel";
+
+    listener.start();
+
+    listener.postgresEnabled = true;
+    assertThrows(IllegalArgumentException.class, listener::start);
+  }
+
+  @Test
+  public void testListenLoopShouldUnlistenBeforeClosingItsOwnConnection() {
+    List<String> executed = new ArrayList<>();
+    AtomicBoolean closed = new AtomicBoolean();
+    OutboxNotificationListener listener =
+        new OutboxNotificationListener() {
+          @Override
+          Connection openConnection() {
+            return fakeConnection(this, executed, closed);
+          }
+        };
+    listener.outboxPublisher = new OutboxPublisher();
+    listener.running = true;
+
+    listener.listenLoop(OutboxNotificationListener.listenStatement("outbox_message"));
+
+    assertEquals(List.of("LISTEN outbox_message", "UNLISTEN outbox_message"), executed);
+    assertTrue(closed.get());
+  }
+
+  @Test
+  public void testOpenConnectionShouldRequireAJdbcUrl() {
+    OutboxNotificationListener listener = new OutboxNotificationListener();
+    listener.jdbcUrl = Optional.empty();
+
+    assertThrows(SQLException.class, listener::openConnection);
+  }
+
+  private static Connection fakeConnection(
+      OutboxNotificationListener listener, List<String> executed, AtomicBoolean closed) {
+    Statement statement =
+        (Statement)
+            Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[] {Statement.class},
+                (proxy, method, args) -> {
+                  if ("execute".equals(method.getName())) {
+                    executed.add((String) args[0]);
+                    return false;
+                  }
+                  return null;
+                });
+    return (Connection)
+        Proxy.newProxyInstance(
+            PGConnection.class.getClassLoader(),
+            new Class<?>[] {Connection.class, PGConnection.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "createStatement":
+                  return statement;
+                case "unwrap":
+                  return proxy;
+                case "getNotifications":
+                  listener.running = false;
+                  return null;
+                case "close":
+                  closed.set(true);
+                  return null;
+                default:
+                  return null;
+              }
+            });
+  }
+}
@@ -0,0 +1,68 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import jakarta.enterprise.event.Event;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class OutboxNotifierTest {
+
+  private static class CapturingOutboxRepository extends OutboxMessageRepository {
+    String notifiedChannel;
+
+    @Override
+    public void notifyChannel(String channel) {
+      notifiedChannel = channel;
+    }
+  }
+
+  @Test
+  public void testMessagesEnqueuedShouldFireInProcessEventOnly() {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    List<OutboxMessagesEnqueued> fired = new ArrayList<>();
+    OutboxNotifier notifier = notifier(repository, fired);
+
+    notifier.messagesEnqueued(3);
+
+    assertNull(repository.notifiedChannel);
+    assertEquals(1, fired.size());
+    assertEquals(3, fired.get(0).count);
+  }
+
+  @Test
+  public void testMessagesEnqueuedShouldAlsoNotifyPostgresWhenEnabled() {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    List<OutboxMessagesEnqueued> fired = new ArrayList<>();
+    OutboxNotifier notifier = notifier(repository, fired);
+    notifier.postgresEnabled = true;
+    notifier.channel = "outbox_wakeup";
+
+    notifier.messagesEnqueued(1);
+
+    assertEquals("outbox_wakeup", repository.notifiedChannel);
+    assertEquals(1, fired.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static OutboxNotifier notifier(
+      OutboxMessageRepository repository, List<OutboxMessagesEnqueued> fired) {
+    OutboxNotifier notifier = new OutboxNotifier();
+    notifier.outboxMessageRepository = repository;
+    notifier.messagesEnqueuedEvent =
+        (Event<OutboxMessagesEnqueued>)
+            Proxy.newProxyInstance(
+                Event.class.getClassLoader(),
+                new Class<?>[] {Event.class},
+                (proxy, method, args) -> {
+                  if ("fire".equals(method.getName())) {
+                    fired.add((OutboxMessagesEnqueued) args[0]);
+                  }
+                  return null;
+                });
+    return notifier;
+  }
+}
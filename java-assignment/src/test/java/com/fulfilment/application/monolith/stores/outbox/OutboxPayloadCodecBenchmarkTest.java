@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("benchmark")
+public class OutboxPayloadCodecBenchmarkTest {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxPayloadCodecBenchmarkTest.class);
+
+  private static final int PAYLOADS = 1_000;
+  private static final int ROUNDS = 200;
+
+  @Test
+  public void testBinaryCodecShouldShrinkRowsAndBeatJsonRoundTrip() {
+    StoreChangedEventPayload[] payloads = new StoreChangedEventPayload[PAYLOADS];
+    for (int i = 0; i < PAYLOADS; i++) {
+      payloads[i] = new StoreChangedEventPayload(1_000_000L + i, "STORE-" + i, i % 500, (long) i % 17);
+    }
+    OutboxPayloadCodecs codecs = new OutboxPayloadCodecs(new ObjectMapper());
+    OutboxPayloadCodec json = codecs.forSchemaVersion(JsonPayloadCodec.SCHEMA_VERSION);
+    OutboxPayloadCodec binary = codecs.forSchemaVersion(BinaryPayloadCodec.SCHEMA_VERSION);
+
+    long jsonBytes = totalBytes(json, payloads);
+    long binaryBytes = totalBytes(binary, payloads);
+    run(json, payloads, ROUNDS / 4);
+    run(binary, payloads, ROUNDS / 4);
+    long jsonNanos = run(json, payloads, ROUNDS);
+    long binaryNanos = run(binary, payloads, ROUNDS);
+
+    long operations = (long) PAYLOADS * ROUNDS;
+    LOGGER.infof(
+        "payload bytes/row: json %.1f, binary %.1f (%.1fx smaller)",
+        (double) jsonBytes / PAYLOADS, (double) binaryBytes / PAYLOADS, (double) jsonBytes / binaryBytes);
+    LOGGER.infof(
+        "encode+decode ns/row: json %d, binary %d (%.1fx faster)",
+        jsonNanos / operations, binaryNanos / operations, (double) jsonNanos / binaryNanos);
+    assertTrue(binaryBytes * 3 < jsonBytes, "expected binary rows to be at least 3x smaller");
+    assertTrue(binaryNanos < jsonNanos, "expected binary round trips to be faster than JSON");
+  }
+
+  private static long totalBytes(OutboxPayloadCodec codec, StoreChangedEventPayload[] payloads) {
+    long total = 0;
+    for (StoreChangedEventPayload payload : payloads) {
+      total += codec.encode(payload).length;
+    }
+    return total;
+  }
+
+  private static long run(OutboxPayloadCodec codec, StoreChangedEventPayload[] payloads, int rounds) {
+    long checksum = 0;
+    long started = System.nanoTime();
+    for (int round = 0; round < rounds; round++) {
+      for (StoreChangedEventPayload payload : payloads) {
+        checksum += codec.decode(codec.encode(payload)).storeId;
+      }
+    }
+    long elapsed = System.nanoTime() - started;
+    assertTrue(checksum > 0);
+    return elapsed;
+  }
+}
@@ -0,0 +1,93 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class OutboxPayloadCodecTest {
+
+  private final BinaryPayloadCodec binary = new BinaryPayloadCodec();
+  private final JsonPayloadCodec json = new JsonPayloadCodec(new ObjectMapper());
+  private final OutboxPayloadCodecs codecs = new OutboxPayloadCodecs(new ObjectMapper());
+
+  @Test
+  public void testBinaryCodecShouldRoundTripAllFields() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(123_456_789L, "BESTÅ Småland", 42, 7L);
+
+    StoreChangedEventPayload decoded = binary.decode(binary.encode(payload));
+
+    assertEquals(123_456_789L, decoded.storeId);
+    assertEquals("BESTÅ Småland", decoded.name);
+    assertEquals(42, decoded.quantityProductsInStock);
+    assertEquals(7L, decoded.version);
+  }
+
+  @Test
+  public void testBinaryCodecShouldRoundTripNullsAndExtremes() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(Long.MIN_VALUE, null, Integer.MAX_VALUE, null);
+
+    StoreChangedEventPayload decoded = binary.decode(binary.encode(payload));
+
+    assertEquals(Long.MIN_VALUE, decoded.storeId);
+    assertNull(decoded.name);
+    assertEquals(Integer.MAX_VALUE, decoded.quantityProductsInStock);
+    assertNull(decoded.version);
+    assertArrayEquals(new byte[] {0}, binary.encode(new StoreChangedEventPayload()));
+  }
+
+  @Test
+  public void testBinaryCodecShouldBeSmallerThanJson() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(21L, "TONSTAD", 10, 3L);
+
+    byte[] encoded = binary.encode(payload);
+
+    assertEquals(1 + 1 + 1 + "TONSTAD".length() + 1 + 1, encoded.length);
+    assertTrue(encoded.length * 4 < json.encode(payload).length);
+  }
+
+  @Test
+  public void testBinaryCodecShouldRejectTruncatedAndMalformedInput() {
+    byte[] encoded = binary.encode(new StoreChangedEventPayload(21L, "TONSTAD", 10, 3L));
+
+    assertThrows(OutboxPayloadException.class, () -> binary.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+    assertThrows(OutboxPayloadException.class, () -> binary.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+    assertThrows(OutboxPayloadException.class, () -> binary.decode(new byte[] {(byte) 0x80}));
+    assertThrows(OutboxPayloadException.class, () -> binary.decode(new byte[0]));
+    assertThrows(
+        OutboxPayloadException.class,
+        () -> binary.decode(new byte[] {4, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10}));
+  }
+
+  @Test
+  public void testCodecsShouldBeSelectedBySchemaVersion() {
+    assertEquals(1, codecs.forSchemaVersion(1).schemaVersion());
+    assertEquals(2, codecs.forSchemaVersion(2).schemaVersion());
+    assertThrows(OutboxPayloadException.class, () -> codecs.forSchemaVersion(3));
+  }
+
+  @Test
+  public void testWriteShouldUseTextColumnForJsonAndBinaryColumnOtherwise() {
+    StoreChangedEventPayload payload = new StoreChangedEventPayload(5L, "KALLAX", 5, 0L);
+    OutboxMessage jsonMessage = new OutboxMessage();
+    jsonMessage.schemaVersion = JsonPayloadCodec.SCHEMA_VERSION;
+    OutboxMessage binaryMessage = new OutboxMessage();
+    binaryMessage.schemaVersion = BinaryPayloadCodec.SCHEMA_VERSION;
+
+    codecs.write(jsonMessage, payload);
+    codecs.write(binaryMessage, payload);
+
+    assertNull(jsonMessage.payload);
+    assertTrue(jsonMessage.payloadJson.contains("\"name\":\"KALLAX\""));
+    assertArrayEquals(
+        jsonMessage.payloadJson.getBytes(StandardCharsets.UTF_8), OutboxPayloadCodecs.encodedPayload(jsonMessage));
+    assertNull(binaryMessage.payloadJson);
+    assertArrayEquals(binary.encode(payload), OutboxPayloadCodecs.encodedPayload(binaryMessage));
+  }
+}
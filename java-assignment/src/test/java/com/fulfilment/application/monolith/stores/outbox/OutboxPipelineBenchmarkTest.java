@@ -0,0 +1,102 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("benchmark")
+public class OutboxPipelineBenchmarkTest {
+
+  private static final Logger LOGGER = Logger.getLogger(OutboxPipelineBenchmarkTest.class);
+
+  private static final int MESSAGES = 64;
+  private static final int AGGREGATES = 32;
+
+  private static class InMemoryOutboxRepository extends OutboxMessageRepository {
+    final List<OutboxMessage> pending = new ArrayList<>();
+    int acknowledged;
+
+    @Override
+    public List<OutboxMessage> listPending(int limit, LocalDateTime now) {
+      return pending;
+    }
+
+    @Override
+    public synchronized void acknowledge(OutboxBatchOutcome outcome, LocalDateTime publishedAt) {
+      acknowledged += outcome.publishedIds().size();
+    }
+  }
+
+  @Test
+  public void testPipelinedPublishingShouldOutpaceSequentialAt10MsLatency() throws Exception {
+    compare(10);
+  }
+
+  @Test
+  public void testPipelinedPublishingShouldOutpaceSequentialAt50MsLatency() throws Exception {
+    compare(50);
+  }
+
+  @Test
+  public void testPipelinedPublishingShouldOutpaceSequentialAt200MsLatency() throws Exception {
+    compare(200);
+  }
+
+  private void compare(long latencyMs) throws Exception {
+    long sequentialNanos = run(latencyMs, false);
+    long pipelinedNanos = run(latencyMs, true);
+
+    double speedup = (double) sequentialNanos / pipelinedNanos;
+    LOGGER.infof(
+        "downstream latency %d ms: sequential %d ms, pipelined %d ms, speedup %.1fx",
+        latencyMs, sequentialNanos / 1_000_000, pipelinedNanos / 1_000_000, speedup);
+    assertTrue(speedup > 4, "expected pipelined publishing to be at least 4x faster");
+  }
+
+  private long run(long latencyMs, boolean pipelined) throws Exception {
+    InMemoryOutboxRepository repository = new InMemoryOutboxRepository();
+    ObjectMapper objectMapper = new ObjectMapper();
+    for (int i = 1; i <= MESSAGES; i++) {
+      OutboxMessage message = new OutboxMessage();
+      message.id = (long) i;
+      message.eventId = "evt-" + pipelined + "-" + i;
+      message.aggregateType = "Store";
+      message.aggregateId = String.valueOf(i % AGGREGATES);
+      message.eventType = "StoreUpdated";
+      message.schemaVersion = 1;
+      message.payloadJson =
+          objectMapper.writeValueAsString(new StoreChangedEventPayload((long) i, "S-" + i, i));
+      repository.pending.add(message);
+    }
+
+    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    gateway.setPayloadCodecs(new OutboxPayloadCodecs(objectMapper));
+    gateway.setSimulatedLatencyMs(latencyMs);
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.pipelineEnabled = pipelined;
+    publisher.maxInFlight = 32;
+
+    try {
+      long started = System.nanoTime();
+      publisher.publishPending(MESSAGES);
+      long elapsed = System.nanoTime() - started;
+      assertEquals(MESSAGES, repository.acknowledged);
+      return elapsed;
+    } finally {
+      publisher.shutdown();
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package com.fulfilment.application.monolith.stores.outbox;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 public class OutboxPublisherMetricsTest {
@@ -10,8 +12,8 @@ public class OutboxPublisherMetricsTest {
   public void testRecordSuccessAndFailureShouldUpdateCountersAndAverage() {
     OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
 
-    metrics.recordSuccess(10);
-    metrics.recordSuccess(14);
+    metrics.recordSuccess(10_000_000L);
+    metrics.recordSuccess(14_000_000L);
     metrics.recordFailure();
 
     assertEquals(2, metrics.getPublishedCount());
@@ -26,16 +28,73 @@ public class OutboxPublisherMetricsTest {
     assertEquals(0, metrics.getAveragePublishLatencyMs());
   }
 
+  @Test
+  public void testRecordSuccessShouldFeedLatencyHistogramAndRates() {
+    OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
+
+    for (int i = 1; i <= 100; i++) {
+      metrics.recordSuccess(i * 1_000_000L);
+    }
+    metrics.recordEndToEndLag(1_500_000_000L);
+
+    assertEquals(100, metrics.getPublishLatency().getCount());
+    assertEquals(100.0, metrics.getPublishLatency().getMaxMs());
+    assertTrue(metrics.getPublishLatency().getPercentileMs(0.99) >= 99.0);
+    assertEquals(1, metrics.getEndToEndLag().getCount());
+    assertEquals(1500.0, metrics.getEndToEndLag().getMaxMs());
+    assertTrue(metrics.getPublishRatePerSecond(60) > 0);
+  }
+
+  @Test
+  public void testLaneCountersShouldBeTrackedPerLane() {
+    OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
+
+    metrics.recordLaneSuccess(0);
+    metrics.recordLaneSuccess(2);
+    metrics.recordLaneSuccess(2);
+    metrics.recordLaneFailure(1);
+
+    assertEquals(Map.of(0, 1L, 2, 2L), metrics.getLanePublishedCounts());
+    assertEquals(Map.of(1, 1L), metrics.getLaneFailedCounts());
+  }
+
+  @Test
+  public void testRecordAcknowledgementShouldCountBatchCommits() {
+    OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
+
+    metrics.recordAcknowledgement();
+    metrics.recordAcknowledgement();
+
+    assertEquals(2, metrics.getAcknowledgementCount());
+  }
+
+  @Test
+  public void testRecordDrainShouldExposeDrainRate() {
+    OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
+
+    metrics.recordDrain(100, 1_000_000_000L);
+
+    assertEquals(100.0, metrics.getDrainRatePerSecond(), 0.001);
+  }
+
   @Test
   public void testResetShouldClearAllCounters() {
     OutboxPublisherMetrics metrics = new OutboxPublisherMetrics();
-    metrics.recordSuccess(7);
+    metrics.recordSuccess(7_000_000L);
     metrics.recordFailure();
+    metrics.recordLaneSuccess(3);
+    metrics.recordAcknowledgement();
+    metrics.recordDrain(10, 1_000_000L);
 
     metrics.reset();
 
     assertEquals(0, metrics.getPublishedCount());
     assertEquals(0, metrics.getFailedCount());
     assertEquals(0, metrics.getAveragePublishLatencyMs());
+    assertEquals(0, metrics.getAcknowledgementCount());
+    assertEquals(0.0, metrics.getDrainRatePerSecond());
+    assertTrue(metrics.getLanePublishedCounts().isEmpty());
+    assertEquals(0, metrics.getPublishLatency().getCount());
+    assertEquals(0.0, metrics.getPublishRatePerSecond(60));
   }
 }
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,12 +13,22 @@ import java.lang.reflect.Field;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 public class OutboxPublisherTest {
 
+  private static final OutboxPayloadCodecs CODECS = new OutboxPayloadCodecs(new ObjectMapper());
+
   private static class FakeOutboxRepository extends OutboxMessageRepository {
     final List<OutboxMessage> pending = new ArrayList<>();
     int markPublishedCalls;
@@ -25,23 +36,88 @@ public class OutboxPublisherTest {
     LocalDateTime lastPublishedAt;
     String lastError;
     LocalDateTime lastNextAttemptAt;
+    final List<Long> publishedIds = new ArrayList<>();
+    final List<Long> supersededIds = new ArrayList<>();
+    final List<Long> deadLetteredIds = new ArrayList<>();
+    int listPendingCalls;
+    int acknowledgeCalls;
+    final Map<Long, LocalDateTime> deferrals = new HashMap<>();
+    int deferPendingCalls;
+    LocalDateTime deferPendingUntil;
+    String claimedBy;
+    LocalDateTime claimNow;
+    LocalDateTime claimLeaseUntil;
 
     @Override
     public List<OutboxMessage> listPending(int limit, LocalDateTime now) {
+      listPendingCalls++;
+      return pending;
+    }
+
+    final List<OutboxMessage> retryable = new ArrayList<>();
+    int listFreshCalls;
+
+    @Override
+    public List<OutboxMessage> listFresh(int limit, LocalDateTime now) {
+      listFreshCalls++;
+      return pending;
+    }
+
+    @Override
+    public List<OutboxMessage> listRetryable(List<Long> ids) {
+      return retryable.stream().filter(message -> ids.contains(message.id)).toList();
+    }
+
+    @Override
+    public List<OutboxMessage> claimPending(
+        int limit, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil) {
+      this.claimedBy = claimedBy;
+      this.claimNow = now;
+      this.claimLeaseUntil = leaseUntil;
       return pending;
     }
 
     @Override
-    public void markPublished(OutboxMessage message, LocalDateTime publishedAt) {
-      markPublishedCalls++;
-      lastPublishedAt = publishedAt;
+    public List<OutboxMessage> claimPending(
+        int limit, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil, boolean freshOnly) {
+      return claimPending(limit, claimedBy, now, leaseUntil);
+    }
+
+    final Set<Long> leasedElsewhere = new HashSet<>();
+
+    @Override
+    public List<OutboxMessage> claimDue(
+        List<Long> ids, String claimedBy, LocalDateTime now, LocalDateTime leaseUntil) {
+      return retryable.stream()
+          .filter(message -> ids.contains(message.id) && !leasedElsewhere.contains(message.id))
+          .toList();
     }
 
     @Override
-    public void markFailed(OutboxMessage message, String error, LocalDateTime nextAttemptAt) {
-      markFailedCalls++;
-      lastError = error;
-      lastNextAttemptAt = nextAttemptAt;
+    public int deferPending(LocalDateTime until, LocalDateTime now) {
+      deferPendingCalls++;
+      deferPendingUntil = until;
+      return pending.size();
+    }
+
+    @Override
+    public synchronized void acknowledge(OutboxBatchOutcome outcome, LocalDateTime publishedAt) {
+      acknowledgeCalls++;
+      for (Long id : outcome.publishedIds()) {
+        markPublishedCalls++;
+        lastPublishedAt = publishedAt;
+        publishedIds.add(id);
+      }
+      for (OutboxMessageFailure failure : outcome.failures()) {
+        markFailedCalls++;
+        lastError = failure.error;
+        lastNextAttemptAt = failure.nextAttemptAt;
+        if (failure.deadLettered) {
+          deadLetteredIds.add(failure.id);
+        }
+      }
+      supersededIds.addAll(outcome.supersededIds());
+      deferrals.putAll(outcome.deferrals());
     }
   }
 
@@ -61,13 +137,13 @@ public class OutboxPublisherTest {
     message.attempts = 0;
     repository.pending.add(message);
 
-    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    LegacyStoreManagerGateway gateway = legacyGateway();
     gateway.clearTestState();
     OutboxPublisher publisher = new OutboxPublisher();
     publisher.outboxMessageRepository = repository;
-    publisher.objectMapper = new ObjectMapper();
     publisher.legacyStoreManagerGateway = gateway;
     publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
 
     int processed = publisher.publishPending();
 
@@ -97,9 +173,9 @@ public class OutboxPublisherTest {
 
     OutboxPublisher publisher = new OutboxPublisher();
     publisher.outboxMessageRepository = repository;
-    publisher.objectMapper = new ObjectMapper();
-    publisher.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    publisher.legacyStoreManagerGateway = legacyGateway();
     publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
 
     LocalDateTime before = LocalDateTime.now();
     int processed = publisher.publishPending();
@@ -116,20 +192,779 @@ public class OutboxPublisherTest {
     assertEquals(1, publisher.metrics.getFailedCount());
   }
 
+  @Test
+  public void testPublishPendingShouldDeadLetterMessageOnceMaxAttemptsIsReached() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage retrying = message(1, "A", "StoreUpdated");
+    retrying.payloadJson = "{bad-json";
+    retrying.attempts = 3;
+    OutboxMessage exhausted = message(2, "B", "StoreUpdated");
+    exhausted.payloadJson = "{bad-json";
+    exhausted.attempts = 4;
+    repository.pending.add(retrying);
+    repository.pending.add(exhausted);
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.maxAttempts = 5;
+
+    publisher.publishPending();
+
+    assertEquals(2, repository.markFailedCalls);
+    assertEquals(List.of(2L), repository.deadLetteredIds);
+    assertEquals(1, publisher.metrics.getDeadLetteredCount());
+    assertEquals(2, publisher.metrics.getFailedCount());
+  }
+
+  @Test
+  public void testPublishPendingShouldRetryForeverWhenMaxAttemptsIsDisabled() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage message = message(1, "A", "StoreUpdated");
+    message.payloadJson = "{bad-json";
+    message.attempts = 500;
+    repository.pending.add(message);
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.maxAttempts = 0;
+
+    publisher.publishPending();
+
+    assertEquals(1, repository.markFailedCalls);
+    assertTrue(repository.deadLetteredIds.isEmpty());
+  }
+
   @Test
   public void testPublishPendingShouldReturnZeroWhenNoPendingMessages() {
     FakeOutboxRepository repository = new FakeOutboxRepository();
     OutboxPublisher publisher = new OutboxPublisher();
     publisher.outboxMessageRepository = repository;
-    publisher.objectMapper = new ObjectMapper();
-    publisher.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    publisher.legacyStoreManagerGateway = legacyGateway();
     publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
 
     int processed = publisher.publishPending();
 
     assertEquals(0, processed);
     assertEquals(0, repository.markPublishedCalls);
     assertEquals(0, repository.markFailedCalls);
+    assertEquals(0, repository.acknowledgeCalls);
+  }
+
+  @Test
+  public void testLaneForShouldBeStableAndWithinRange() {
+    for (int i = 0; i < 50; i++) {
+      String aggregateId = String.valueOf(i);
+      int lane = OutboxPublisher.laneFor(aggregateId, 4);
+      assertTrue(lane >= 0 && lane < 4);
+      assertEquals(lane, OutboxPublisher.laneFor(aggregateId, 4));
+    }
+    assertEquals(0, OutboxPublisher.laneFor("42", 1));
+    assertEquals(0, OutboxPublisher.laneFor(null, 4));
+  }
+
+  @Test
+  public void testPartitionByLaneShouldKeepPerAggregateOrder() throws Exception {
+    List<OutboxMessage> messages = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      messages.add(message(i, String.valueOf(i % 5)));
+    }
+
+    Map<Integer, List<OutboxMessage>> lanes = OutboxPublisher.partitionByLane(messages, 3);
+
+    int total = 0;
+    for (List<OutboxMessage> lane : lanes.values()) {
+      total += lane.size();
+      for (int i = 1; i < lane.size(); i++) {
+        OutboxMessage previous = lane.get(i - 1);
+        OutboxMessage current = lane.get(i);
+        if (previous.aggregateId.equals(current.aggregateId)) {
+          assertTrue(previous.id < current.id);
+        }
+      }
+    }
+    assertEquals(30, total);
+  }
+
+  @Test
+  public void testPublishPendingShouldDrainAllLanesInAggregateOrder() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    for (int i = 0; i < 40; i++) {
+      repository.pending.add(message(i, String.valueOf(i % 8)));
+    }
+
+    LegacyStoreManagerGateway gateway = legacyGateway();
+    gateway.clearTestState();
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.laneCount = 4;
+
+    try {
+      int processed = publisher.publishPending();
+
+      assertEquals(40, processed);
+      assertEquals(1, repository.acknowledgeCalls);
+      assertEquals(40, repository.markPublishedCalls);
+      assertEquals(40, gateway.processedEventsCount());
+      Map<String, Integer> lastSeen = new HashMap<>();
+      for (Long id : repository.publishedIds) {
+        int sequence = id.intValue();
+        String aggregateId = String.valueOf(sequence % 8);
+        Integer previous = lastSeen.put(aggregateId, sequence);
+        assertTrue(previous == null || previous < sequence);
+      }
+      long lanePublished =
+          publisher.metrics.getLanePublishedCounts().values().stream().mapToLong(Long::longValue).sum();
+      assertEquals(40, lanePublished);
+    } finally {
+      publisher.shutdown();
+    }
+  }
+
+  @Test
+  public void testPublishPendingShouldHoldBackLaterEventsOfFailedAggregate() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage broken = message(1, "A");
+    broken.payloadJson = "{bad-json";
+    repository.pending.add(broken);
+    repository.pending.add(message(2, "A"));
+    repository.pending.add(message(3, "B"));
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+
+    int processed = publisher.publishPending();
+
+    assertEquals(3, processed);
+    assertEquals(1, repository.acknowledgeCalls);
+    assertEquals(1, repository.markFailedCalls);
+    assertEquals(List.of(3L), repository.publishedIds);
+    assertEquals(Map.of(2L, repository.lastNextAttemptAt), repository.deferrals);
+  }
+
+  @Test
+  public void testSupersededSnapshotsShouldKeepOnlyNewestSnapshotPerRun() throws Exception {
+    List<OutboxMessage> messages =
+        List.of(
+            message(1, "A", "StoreCreated"),
+            message(2, "A", "StoreUpdated"),
+            message(3, "B", "StoreUpdated"),
+            message(4, "A", "StorePatched"),
+            message(5, "A", "StoreUpdated"),
+            message(6, "B", "StoreDeleted"),
+            message(7, "B", "StoreUpdated"),
+            message(8, "A", "StoreDeleted"));
+
+    Set<Long> superseded =
+        OutboxPublisher.supersededSnapshots(messages, Set.of("StoreUpdated", "StorePatched"));
+
+    assertEquals(Set.of(2L, 4L), superseded);
+  }
+
+  @Test
+  public void testPublishPendingShouldCoalesceSnapshotsWhenEnabled() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A", "StoreCreated"));
+    repository.pending.add(message(2, "A", "StoreUpdated"));
+    repository.pending.add(message(3, "A", "StorePatched"));
+    repository.pending.add(message(4, "A", "StoreUpdated"));
+    repository.pending.add(message(5, "B", "StoreUpdated"));
+
+    LegacyStoreManagerGateway gateway = legacyGateway();
+    gateway.clearTestState();
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.coalesceSnapshots = true;
+
+    int processed = publisher.publishPending();
+
+    assertEquals(5, processed);
+    assertEquals(List.of(1L, 4L, 5L), repository.publishedIds);
+    assertEquals(List.of(2L, 3L), repository.supersededIds);
+    assertEquals(3, gateway.processedEventsCount());
+    assertEquals(2, publisher.metrics.getCoalescedCount());
+  }
+
+  @Test
+  public void testPublishPendingShouldNotCoalesceByDefault() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A"));
+    repository.pending.add(message(2, "A"));
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+
+    publisher.publishPending();
+
+    assertEquals(List.of(1L, 2L), repository.publishedIds);
+    assertTrue(repository.supersededIds.isEmpty());
+  }
+
+  private static class RecordingGateway extends LegacyStoreManagerGateway {
+    final List<String> publishedEventIds = Collections.synchronizedList(new ArrayList<>());
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxObservedInFlight = new AtomicInteger();
+    long latencyMs;
+
+    RecordingGateway() {
+      setPayloadCodecs(CODECS);
+    }
+
+    @Override
+    public void publishStoreEvent(
+        String eventId,
+        String idempotencyKey,
+        String eventType,
+        int schemaVersion,
+        String correlationId,
+        StoreChangedEventPayload payload) {
+      maxObservedInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(latencyMs);
+        publishedEventIds.add(eventId);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+
+  private static class RecordingRetryScheduler extends OutboxRetryScheduler {
+    final List<Long> due = new ArrayList<>();
+    final Map<Long, LocalDateTime> scheduled = new HashMap<>();
+
+    RecordingRetryScheduler() {
+      running = true;
+    }
+
+    @Override
+    public List<Long> pollDue(int limit) {
+      List<Long> ids = new ArrayList<>(due);
+      due.clear();
+      return ids;
+    }
+
+    @Override
+    public void schedule(Long id, LocalDateTime nextAttemptAt) {
+      scheduled.put(id, nextAttemptAt);
+    }
+  }
+
+  @Test
+  public void testPublishPendingShouldMergeDueRetriesWithFreshMessagesWhenWheelIsActive() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    LocalDateTime created = LocalDateTime.now().minusMinutes(5);
+    OutboxMessage dueRetry = message(1, "A");
+    dueRetry.attempts = 2;
+    dueRetry.createdAt = created;
+    dueRetry.nextAttemptAt = LocalDateTime.now().minusSeconds(1);
+    OutboxMessage deferredRetry = message(2, "B");
+    deferredRetry.attempts = 1;
+    deferredRetry.createdAt = created.plusSeconds(1);
+    deferredRetry.nextAttemptAt = LocalDateTime.now().plusMinutes(1);
+    OutboxMessage fresh = message(3, "C");
+    fresh.createdAt = created.minusSeconds(1);
+    repository.retryable.add(dueRetry);
+    repository.retryable.add(deferredRetry);
+    repository.pending.add(fresh);
+    RecordingRetryScheduler retryScheduler = new RecordingRetryScheduler();
+    retryScheduler.due.addAll(List.of(1L, 2L));
+    RecordingGateway gateway = new RecordingGateway();
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.retryScheduler = retryScheduler;
+
+    int processed = publisher.publishPending();
+
+    assertEquals(2, processed);
+    assertEquals(List.of("evt-3", "evt-1"), gateway.publishedEventIds);
+    assertEquals(1, repository.listFreshCalls);
+    assertEquals(0, repository.listPendingCalls);
+    assertEquals(Map.of(2L, deferredRetry.nextAttemptAt), retryScheduler.scheduled);
+  }
+
+  @Test
+  public void testUnclaimedDueRetriesShouldGoBackOnTheWheel() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage claimable = message(1, "A");
+    claimable.attempts = 1;
+    claimable.nextAttemptAt = LocalDateTime.now().minusSeconds(1);
+    OutboxMessage leased = message(2, "B");
+    leased.attempts = 1;
+    leased.nextAttemptAt = LocalDateTime.now().minusSeconds(1);
+    repository.retryable.add(claimable);
+    repository.retryable.add(leased);
+    repository.leasedElsewhere.add(2L);
+    RecordingRetryScheduler retryScheduler = new RecordingRetryScheduler();
+    retryScheduler.due.addAll(List.of(1L, 2L));
+    RecordingGateway gateway = new RecordingGateway();
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.retryScheduler = retryScheduler;
+    publisher.leaseEnabled = true;
+    LocalDateTime before = LocalDateTime.now();
+
+    publisher.publishPending();
+
+    assertEquals(List.of("evt-1"), gateway.publishedEventIds);
+    assertEquals(Set.of(2L), retryScheduler.scheduled.keySet());
+    assertFalse(retryScheduler.scheduled.get(2L).isBefore(before.plusSeconds(publisher.leaseDurationSeconds)));
+  }
+
+  @Test
+  public void testPublishPendingShouldScheduleFailuresOnTheWheel() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage broken = message(1, "A");
+    broken.payloadJson = "{bad-json";
+    OutboxMessage exhausted = message(2, "B");
+    exhausted.payloadJson = "{bad-json";
+    exhausted.attempts = 9;
+    repository.pending.add(broken);
+    repository.pending.add(exhausted);
+    RecordingRetryScheduler retryScheduler = new RecordingRetryScheduler();
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.retryScheduler = retryScheduler;
+
+    publisher.publishPending();
+
+    assertEquals(Set.of(1L), retryScheduler.scheduled.keySet());
+    assertEquals(List.of(2L), repository.deadLetteredIds);
+  }
+
+  @Test
+  public void testWithJitterShouldSpreadBackoffSymmetrically() {
+    assertEquals(800, OutboxPublisher.withJitter(1000, 0.2, 0.0));
+    assertEquals(1000, OutboxPublisher.withJitter(1000, 0.2, 0.5));
+    assertEquals(1200, OutboxPublisher.withJitter(1000, 0.2, 1.0));
+    assertEquals(1000, OutboxPublisher.withJitter(1000, 0.0, 0.9));
+  }
+
+  @Test
+  public void testPipelinedPublishShouldKeepPerAggregateOrderWithinInFlightWindow() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    for (int i = 1; i <= 60; i++) {
+      repository.pending.add(message(i, String.valueOf(i % 12)));
+    }
+    RecordingGateway gateway = new RecordingGateway();
+    gateway.latencyMs = 5;
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.pipelineEnabled = true;
+    publisher.maxInFlight = 4;
+    publisher.ackBatchSize = 10;
+
+    try {
+      int processed = publisher.publishPending();
+
+      assertEquals(60, processed);
+      assertEquals(60, repository.publishedIds.size());
+      assertTrue(gateway.maxObservedInFlight.get() <= 4);
+      assertTrue(gateway.maxObservedInFlight.get() > 1);
+      assertTrue(repository.acknowledgeCalls > 1);
+      for (int aggregate = 0; aggregate < 12; aggregate++) {
+        int lastSequence = 0;
+        for (String eventId : gateway.publishedEventIds) {
+          int sequence = Integer.parseInt(eventId.substring("evt-".length()));
+          if (sequence % 12 == aggregate) {
+            assertTrue(sequence > lastSequence);
+            lastSequence = sequence;
+          }
+        }
+      }
+      assertTrue(publisher.metrics.getLanePublishedCounts().isEmpty());
+    } finally {
+      publisher.shutdown();
+    }
+  }
+
+  @Test
+  public void testPipelinedPublishShouldHoldBackLaterEventsOfFailedAggregate() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage broken = message(1, "A");
+    broken.payloadJson = "{bad-json";
+    repository.pending.add(broken);
+    repository.pending.add(message(2, "A"));
+    repository.pending.add(message(3, "B"));
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.pipelineEnabled = true;
+
+    try {
+      publisher.publishPending();
+
+      assertEquals(1, repository.markFailedCalls);
+      assertEquals(List.of(3L), repository.publishedIds);
+      assertEquals(Map.of(2L, repository.lastNextAttemptAt), repository.deferrals);
+    } finally {
+      publisher.shutdown();
+    }
+  }
+
+  @Test
+  public void testPipelinedPublishShouldNotHoldBackVersionedEventsWhenOrderingIsRelaxed() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage broken = message(1, "A");
+    broken.payloadJson = "{bad-json";
+    broken.aggregateVersion = 1L;
+    OutboxMessage later = message(2, "A");
+    later.aggregateVersion = 2L;
+    OutboxMessage unversioned = message(3, "A");
+    repository.pending.add(broken);
+    repository.pending.add(later);
+    repository.pending.add(unversioned);
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.pipelineEnabled = true;
+    publisher.strictOrdering = false;
+
+    try {
+      publisher.publishPending();
+
+      assertEquals(1, repository.markFailedCalls);
+      assertEquals(List.of(2L, 3L), repository.publishedIds.stream().sorted().toList());
+      assertTrue(repository.deferrals.isEmpty());
+    } finally {
+      publisher.shutdown();
+    }
+  }
+
+  @Test
+  public void testPartitionByAggregateShouldSplitVersionedEventsWhenOrderingIsRelaxed() throws Exception {
+    OutboxMessage first = message(1, "A");
+    first.aggregateVersion = 1L;
+    OutboxMessage second = message(2, "A");
+    second.aggregateVersion = 2L;
+    List<OutboxMessage> messages = List.of(first, second, message(3, "A"), message(4, "A"));
+
+    Map<String, List<OutboxMessage>> chains = OutboxPublisher.partitionByAggregate(messages, false);
+
+    assertEquals(List.of("Store:A#1", "Store:A#2", "Store:A"), new ArrayList<>(chains.keySet()));
+    assertEquals(List.of(3L, 4L), chains.get("Store:A").stream().map(m -> m.id).toList());
+  }
+
+  @Test
+  public void testPublishPendingShouldSkipBatchAndDeferBacklogWhileBreakerIsOpen() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A"));
+    repository.pending.add(message(2, "B"));
+    OutboxCircuitBreaker breaker = new OutboxCircuitBreaker();
+    breaker.minimumCalls = 1;
+    breaker.openDurationMs = 60_000;
+    breaker.recordFailure();
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = breaker;
+
+    LocalDateTime before = LocalDateTime.now();
+    int processed = publisher.publishPending();
+
+    assertEquals(0, processed);
+    assertEquals(0, repository.listPendingCalls);
+    assertEquals(0, repository.acknowledgeCalls);
+    assertEquals(1, repository.deferPendingCalls);
+    assertTrue(repository.deferPendingUntil.isAfter(before.plusSeconds(59)));
+    assertEquals(1, publisher.metrics.getBreakerSkippedBatches());
+    assertEquals(2, publisher.metrics.getBreakerDeferredCount());
+  }
+
+  @Test
+  public void testPublishPendingShouldDeferBacklogOncePerOpenPeriod() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A"));
+    long[] now = {0};
+    OutboxCircuitBreaker breaker = new OutboxCircuitBreaker();
+    breaker.clock = () -> now[0];
+    breaker.minimumCalls = 1;
+    breaker.openDurationMs = 60_000;
+    breaker.recordFailure();
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = breaker;
+
+    publisher.publishPending();
+    now[0] = TimeUnit.SECONDS.toNanos(1);
+    publisher.publishPending();
+    publisher.publishPending();
+
+    assertEquals(1, repository.deferPendingCalls);
+    assertEquals(3, publisher.metrics.getBreakerSkippedBatches());
+
+    now[0] = TimeUnit.SECONDS.toNanos(61);
+    breaker.allowRequest();
+    breaker.recordFailure();
+    publisher.publishPending();
+
+    assertEquals(2, repository.deferPendingCalls);
+  }
+
+  @Test
+  public void testPublishPendingShouldStopCallingGatewayOnceBreakerOpens() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    for (int i = 1; i <= 10; i++) {
+      repository.pending.add(message(i, String.valueOf(i)));
+    }
+    LegacyStoreManagerGateway gateway = legacyGateway();
+    gateway.clearTestState();
+    gateway.setAlwaysFailPublications(true);
+    OutboxCircuitBreaker breaker = new OutboxCircuitBreaker();
+    breaker.minimumCalls = 3;
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = breaker;
+
+    int processed = publisher.publishPending();
+
+    assertEquals(10, processed);
+    assertEquals(3, repository.markFailedCalls);
+    assertEquals(7, repository.deferrals.size());
+    assertTrue(breaker.isOpen());
+  }
+
+  @Test
+  public void testBreakerShouldIgnoreUnparseablePayloads() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    for (int i = 1; i <= 5; i++) {
+      OutboxMessage broken = message(i, String.valueOf(i));
+      broken.payloadJson = "{bad-json";
+      repository.pending.add(broken);
+    }
+    OutboxCircuitBreaker breaker = new OutboxCircuitBreaker();
+    breaker.minimumCalls = 1;
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = breaker;
+
+    publisher.publishPending();
+
+    assertEquals(5, repository.markFailedCalls);
+    assertEquals(OutboxCircuitBreaker.State.CLOSED, breaker.state());
+  }
+
+  @Test
+  public void testPublishPendingShouldPassBinaryPayloadThroughToGateway() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    OutboxMessage message = message(1, "A");
+    message.schemaVersion = BinaryPayloadCodec.SCHEMA_VERSION;
+    CODECS.write(message, new StoreChangedEventPayload(1L, "S-1", 1, 4L));
+    repository.pending.add(message);
+    List<byte[]> received = new ArrayList<>();
+    LegacyStoreManagerGateway gateway =
+        new LegacyStoreManagerGateway() {
+          @Override
+          public void publishEncodedStoreEvent(
+              String eventId,
+              String idempotencyKey,
+              String eventType,
+              int schemaVersion,
+              String correlationId,
+              byte[] encodedPayload) {
+            received.add(encodedPayload);
+          }
+        };
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = gateway;
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+
+    publisher.publishPending();
+
+    assertEquals(1, received.size());
+    assertSame(message.payload, received.get(0));
+    assertEquals(List.of(1L), repository.publishedIds);
+  }
+
+  @Test
+  public void testPartitionByAggregateShouldKeepArrivalOrderPerAggregate() throws Exception {
+    List<OutboxMessage> messages = List.of(message(1, "A"), message(2, "B"), message(3, "A"));
+
+    Map<String, List<OutboxMessage>> chains = OutboxPublisher.partitionByAggregate(messages);
+
+    assertEquals(List.of("Store:A", "Store:B"), new ArrayList<>(chains.keySet()));
+    assertEquals(List.of(1L, 3L), chains.get("Store:A").stream().map(m -> m.id).toList());
+  }
+
+  @Test
+  public void testPublishPendingShouldClaimLeaseWhenLeaseModeEnabled() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A"));
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.leaseEnabled = true;
+    publisher.leaseDurationSeconds = 45;
+    publisher.configuredNodeId = Optional.of("node-a");
+
+    int processed = publisher.publishPending();
+
+    assertEquals(1, processed);
+    assertEquals(0, repository.listPendingCalls);
+    assertEquals("node-a", repository.claimedBy);
+    assertEquals(45, Duration.between(repository.claimNow, repository.claimLeaseUntil).getSeconds());
+    assertEquals(1, repository.markPublishedCalls);
+  }
+
+  @Test
+  public void testRequestDrainShouldBeIgnoredWhenSchedulerIsNotRunning() {
+    OutboxPublisher publisher = new OutboxPublisher();
+
+    assertFalse(publisher.requestDrain());
+  }
+
+  @Test
+  public void testRequestDrainShouldPublishWithoutWaitingForNextPoll() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A"));
+
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+    publisher.enabled = true;
+    publisher.initialDelaySeconds = 3600;
+    publisher.intervalSeconds = 3600;
+    publisher.start();
+
+    try {
+      publisher.onMessagesEnqueued(new OutboxMessagesEnqueued(1));
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (publisher.metrics.getPublishedCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, publisher.metrics.getPublishedCount());
+    } finally {
+      publisher.shutdown();
+    }
+  }
+
+  @Test
+  public void testNextDelayShouldLoopImmediatelyAndGrowBatchWhileBatchesAreFull() {
+    OutboxPublisher publisher = adaptivePublisher();
+
+    assertEquals(0, publisher.nextDelayMs(100, 100));
+    assertEquals(200, publisher.currentBatchSize());
+    assertEquals(0, publisher.nextDelayMs(200, 200));
+    assertEquals(400, publisher.currentBatchSize());
+    assertEquals(0, publisher.nextDelayMs(400, 400));
+    assertEquals(500, publisher.currentBatchSize());
+    assertEquals(0, publisher.nextDelayMs(500, 500));
+    assertEquals(500, publisher.currentBatchSize());
+  }
+
+  @Test
+  public void testNextDelayShouldBackOffExponentiallyWhileBatchesAreEmpty() {
+    OutboxPublisher publisher = adaptivePublisher();
+
+    assertEquals(250, publisher.nextDelayMs(0, 100));
+    assertEquals(500, publisher.nextDelayMs(0, 100));
+    assertEquals(1000, publisher.nextDelayMs(0, 100));
+    assertEquals(2000, publisher.nextDelayMs(0, 100));
+    assertEquals(2000, publisher.nextDelayMs(0, 100));
+    assertEquals(100, publisher.currentBatchSize());
+  }
+
+  @Test
+  public void testNextDelayShouldResetBackoffAndShrinkBatchAfterPartialBatch() {
+    OutboxPublisher publisher = adaptivePublisher();
+    publisher.nextDelayMs(0, 100);
+    publisher.nextDelayMs(0, 100);
+    publisher.nextDelayMs(400, 400);
+
+    assertEquals(250, publisher.nextDelayMs(10, 500));
+    assertEquals(250, publisher.currentBatchSize());
+    assertEquals(250, publisher.currentPollDelayMs());
+  }
+
+  @Test
+  public void testDrainStepShouldPublishWithCurrentBatchSizeAndRecordDrainRate() throws Exception {
+    FakeOutboxRepository repository = new FakeOutboxRepository();
+    repository.pending.add(message(1, "A"));
+    repository.pending.add(message(2, "B"));
+
+    OutboxPublisher publisher = adaptivePublisher();
+    publisher.outboxMessageRepository = repository;
+    publisher.legacyStoreManagerGateway = legacyGateway();
+    publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
+
+    long delayMs = publisher.drainStep();
+
+    assertEquals(250, delayMs);
+    assertEquals(2, repository.markPublishedCalls);
+    assertTrue(publisher.metrics.getDrainRatePerSecond() > 0);
+  }
+
+  @Test
+  public void testNodeIdShouldFallBackToGeneratedValueWhenNotConfigured() {
+    OutboxPublisher publisher = new OutboxPublisher();
+
+    String nodeId = publisher.nodeId();
+
+    assertNotNull(nodeId);
+    assertFalse(nodeId.isBlank());
+    assertEquals(nodeId, publisher.nodeId());
   }
 
   @Test
@@ -146,9 +981,9 @@ public class OutboxPublisherTest {
   public void testStartAndShutdownShouldManageSchedulerLifecycle() {
     OutboxPublisher publisher = new OutboxPublisher();
     publisher.outboxMessageRepository = new FakeOutboxRepository();
-    publisher.objectMapper = new ObjectMapper();
-    publisher.legacyStoreManagerGateway = new LegacyStoreManagerGateway();
+    publisher.legacyStoreManagerGateway = legacyGateway();
     publisher.metrics = new OutboxPublisherMetrics();
+    publisher.circuitBreaker = new OutboxCircuitBreaker();
     publisher.enabled = true;
     publisher.initialDelaySeconds = 3600;
     publisher.intervalSeconds = 3600;
@@ -164,6 +999,40 @@ public class OutboxPublisherTest {
     assertTrue(scheduler.isShutdown());
   }
 
+  private static OutboxPublisher adaptivePublisher() {
+    OutboxPublisher publisher = new OutboxPublisher();
+    publisher.batchSize = 100;
+    publisher.maxBatchSize = 500;
+    publisher.minIntervalMs = 250;
+    publisher.intervalSeconds = 2;
+    return publisher;
+  }
+
+  private static LegacyStoreManagerGateway legacyGateway() {
+    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    gateway.setPayloadCodecs(CODECS);
+    return gateway;
+  }
+
+  private static OutboxMessage message(int sequence, String aggregateId) throws Exception {
+    return message(sequence, aggregateId, "StoreUpdated");
+  }
+
+  private static OutboxMessage message(int sequence, String aggregateId, String eventType)
+      throws Exception {
+    OutboxMessage message = new OutboxMessage();
+    message.id = (long) sequence;
+    message.eventId = "evt-" + sequence;
+    message.aggregateType = "Store";
+    message.aggregateId = aggregateId;
+    message.eventType = eventType;
+    message.schemaVersion = 1;
+    message.payloadJson =
+        new ObjectMapper().writeValueAsString(new StoreChangedEventPayload((long) sequence, "S-" + sequence, sequence));
+    message.attempts = 0;
+    return message;
+  }
+
   private static ScheduledExecutorService schedulerOf(OutboxPublisher publisher) {
     try {
       Field schedulerField = OutboxPublisher.class.getDeclaredField("scheduler");
@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class OutboxReplayJobServiceTest {
+
+  private static class KeysetOutboxRepository extends OutboxMessageRepository {
+    final List<Long> rowIds = new ArrayList<>();
+    final List<Long> cursors = new ArrayList<>();
+    RuntimeException failure;
+    Runnable afterChunk = () -> {};
+
+    @Override
+    public List<Long> replayChunk(
+        OutboxReplayCriteria criteria, long afterId, int limit, LocalDateTime nextAttemptAt) {
+      if (failure != null) {
+        throw failure;
+      }
+      cursors.add(afterId);
+      List<Long> chunk = rowIds.stream().filter(id -> id > afterId).limit(limit).toList();
+      afterChunk.run();
+      return chunk;
+    }
+  }
+
+  private static class CountingPublisher extends OutboxPublisher {
+    int drainRequests;
+
+    @Override
+    public synchronized boolean requestDrain() {
+      drainRequests++;
+      return true;
+    }
+  }
+
+  @Test
+  public void testRunShouldResetRowsInKeysetOrderedChunks() {
+    KeysetOutboxRepository repository = new KeysetOutboxRepository();
+    for (long id = 1; id <= 25; id++) {
+      repository.rowIds.add(id * 2);
+    }
+    CountingPublisher publisher = new CountingPublisher();
+    OutboxReplayJobService service = service(repository, publisher, 10);
+    OutboxReplayJob job = job(10, 0);
+
+    service.run(job);
+
+    assertEquals(OutboxReplayJob.Status.COMPLETED, job.status);
+    assertEquals(25, job.resetCount);
+    assertEquals(3, job.chunks);
+    assertEquals(50, job.lastId);
+    assertEquals(List.of(0L, 20L, 40L), repository.cursors);
+    assertEquals(3, publisher.drainRequests);
+    assertNotNull(job.finishedAt);
+  }
+
+  @Test
+  public void testRunShouldStopWhenCancelled() {
+    KeysetOutboxRepository repository = new KeysetOutboxRepository();
+    for (long id = 1; id <= 100; id++) {
+      repository.rowIds.add(id);
+    }
+    OutboxReplayJob job = job(10, 0);
+    repository.afterChunk = () -> job.cancelRequested = true;
+    OutboxReplayJobService service = service(repository, new CountingPublisher(), 10);
+
+    service.run(job);
+
+    assertEquals(OutboxReplayJob.Status.CANCELLED, job.status);
+    assertEquals(10, job.resetCount);
+  }
+
+  @Test
+  public void testRunShouldThrottleToMaxRowsPerSecond() {
+    KeysetOutboxRepository repository = new KeysetOutboxRepository();
+    for (long id = 1; id <= 30; id++) {
+      repository.rowIds.add(id);
+    }
+    OutboxReplayJob job = job(10, 100);
+    OutboxReplayJobService service = service(repository, new CountingPublisher(), 10);
+
+    long started = System.nanoTime();
+    service.run(job);
+    long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+    assertEquals(30, job.resetCount);
+    assertTrue(elapsedMs >= 190, "expected throttling to spread 30 rows over ~200ms but took " + elapsedMs);
+  }
+
+  @Test
+  public void testRunShouldRecordFailure() {
+    KeysetOutboxRepository repository = new KeysetOutboxRepository();
+    repository.failure = new IllegalStateException("database unavailable");
+    OutboxReplayJob job = job(10, 0);
+
+    service(repository, new CountingPublisher(), 10).run(job);
+
+    assertEquals(OutboxReplayJob.Status.FAILED, job.status);
+    assertEquals("database unavailable", job.error);
+  }
+
+  @Test
+  public void testCancelShouldOnlyFlagUnfinishedJobs() {
+    OutboxReplayJobService service = service(new KeysetOutboxRepository(), new CountingPublisher(), 10);
+
+    assertTrue(service.cancel("missing").isEmpty());
+  }
+
+  @Test
+  public void testSubmitShouldRunJobInBackground() throws Exception {
+    KeysetOutboxRepository repository = new KeysetOutboxRepository();
+    repository.rowIds.add(7L);
+    OutboxReplayJobService service = service(repository, new CountingPublisher(), 10);
+
+    try {
+      OutboxReplayJob job = service.submit(new OutboxReplayCriteria("Store", null, null, null), null);
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(OutboxReplayJob.Status.COMPLETED, job.status);
+      assertEquals(1, job.resetCount);
+      assertEquals(job, service.find(job.id).orElseThrow());
+      assertEquals(List.of(job), service.list());
+    } finally {
+      service.shutdown();
+    }
+  }
+
+  private static OutboxReplayJob job(int chunkSize, int maxRowsPerSecond) {
+    return new OutboxReplayJob(
+        "job-1", new OutboxReplayCriteria(null, null, null, null), chunkSize, maxRowsPerSecond);
+  }
+
+  private static OutboxReplayJobService service(
+      OutboxMessageRepository repository, OutboxPublisher publisher, int chunkSize) {
+    OutboxReplayJobService service = new OutboxReplayJobService();
+    service.outboxMessageRepository = repository;
+    service.outboxPublisher = publisher;
+    OutboxStatsCache statsCache = new OutboxStatsCache();
+    statsCache.outboxMessageRepository = repository;
+    service.outboxStatsCache = statsCache;
+    service.chunkSize = chunkSize;
+    return service;
+  }
+}
@@ -0,0 +1,84 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class OutboxRetentionJobTest {
+
+  private static class ChunkedOutboxRepository extends OutboxMessageRepository {
+    final Deque<Integer> chunkResults = new ArrayDeque<>();
+    final List<LocalDateTime> cutoffs = new ArrayList<>();
+    final List<Integer> limits = new ArrayList<>();
+
+    @Override
+    public int purgePublishedBefore(LocalDateTime cutoff, int limit) {
+      cutoffs.add(cutoff);
+      limits.add(limit);
+      return chunkResults.isEmpty() ? 0 : chunkResults.poll();
+    }
+  }
+
+  @Test
+  public void testRunOnceShouldPurgeInChunksUntilAShortChunk() {
+    ChunkedOutboxRepository repository = new ChunkedOutboxRepository();
+    repository.chunkResults.add(100);
+    repository.chunkResults.add(100);
+    repository.chunkResults.add(40);
+    OutboxRetentionJob job = job(repository, 100, 10);
+
+    LocalDateTime before = LocalDateTime.now();
+    long purged = job.runOnce();
+
+    assertEquals(240, purged);
+    assertEquals(List.of(100, 100, 100), repository.limits);
+    assertEquals(240, job.metrics.getRetentionLastPurgedCount());
+    assertEquals(240, job.metrics.getRetentionTotalPurgedCount());
+    long ageHours = Duration.between(repository.cutoffs.get(0), before).toHours();
+    assertTrue(ageHours >= 23 && ageHours <= 24);
+  }
+
+  @Test
+  public void testRunOnceShouldStopAtMaxChunksPerRun() {
+    ChunkedOutboxRepository repository = new ChunkedOutboxRepository();
+    for (int i = 0; i < 10; i++) {
+      repository.chunkResults.add(50);
+    }
+    OutboxRetentionJob job = job(repository, 50, 3);
+
+    long purged = job.runOnce();
+
+    assertEquals(150, purged);
+    assertEquals(3, repository.limits.size());
+  }
+
+  @Test
+  public void testRunOnceShouldReportZeroWhenNothingIsOldEnough() {
+    OutboxRetentionJob job = job(new ChunkedOutboxRepository(), 100, 10);
+    job.metrics.recordRetentionRun(7);
+
+    long purged = job.runOnce();
+
+    assertEquals(0, purged);
+    assertEquals(0, job.metrics.getRetentionLastPurgedCount());
+    assertEquals(7, job.metrics.getRetentionTotalPurgedCount());
+  }
+
+  private static OutboxRetentionJob job(
+      OutboxMessageRepository repository, int chunkSize, int maxChunksPerRun) {
+    OutboxRetentionJob job = new OutboxRetentionJob();
+    job.outboxMessageRepository = repository;
+    job.metrics = new OutboxPublisherMetrics();
+    job.maxAgeHours = 24;
+    job.chunkSize = chunkSize;
+    job.maxChunksPerRun = maxChunksPerRun;
+    return job;
+  }
+}
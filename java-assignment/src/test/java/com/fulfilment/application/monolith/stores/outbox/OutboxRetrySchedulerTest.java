@@ -0,0 +1,172 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+public class OutboxRetrySchedulerTest {
+
+  private static class ScheduleRepository extends OutboxMessageRepository {
+    final Map<Long, LocalDateTime> schedule = new HashMap<>();
+    int scheduleReads;
+    int failuresLeft;
+
+    @Override
+    public Map<Long, LocalDateTime> listRetrySchedule() {
+      scheduleReads++;
+      if (failuresLeft > 0) {
+        failuresLeft--;
+        throw new IllegalStateException("neither a transaction nor a CDI request context is active");
+      }
+      return schedule;
+    }
+  }
+
+  private static class CountingPublisher extends OutboxPublisher {
+    int drainRequests;
+
+    @Override
+    public synchronized boolean requestDrain() {
+      drainRequests++;
+      return true;
+    }
+  }
+
+  private static final LocalDateTime START = LocalDateTime.of(2026, 2, 25, 12, 0);
+
+  @Test
+  public void testFirstTickShouldRebuildWheelFromTable() {
+    ScheduleRepository repository = new ScheduleRepository();
+    repository.schedule.put(1L, START.plusSeconds(2));
+    repository.schedule.put(2L, START.plusSeconds(30));
+    AtomicLong now = new AtomicLong(epochMs(START));
+    OutboxRetryScheduler scheduler = scheduler(repository, new CountingPublisher(), now);
+
+    scheduler.tick();
+
+    assertEquals(1, repository.scheduleReads);
+    assertEquals(2, scheduler.scheduledCount());
+  }
+
+  @Test
+  public void testTickShouldQueueDueIdsAndWakeRelay() {
+    ScheduleRepository repository = new ScheduleRepository();
+    CountingPublisher publisher = new CountingPublisher();
+    AtomicLong now = new AtomicLong(epochMs(START));
+    OutboxRetryScheduler scheduler = scheduler(repository, publisher, now);
+    scheduler.tick();
+    scheduler.schedule(7L, START.plusNanos(250_000_000));
+    scheduler.schedule(8L, START.plusSeconds(5));
+
+    now.addAndGet(200);
+    scheduler.tick();
+    assertEquals(0, publisher.drainRequests);
+
+    now.addAndGet(100);
+    scheduler.tick();
+
+    assertEquals(1, publisher.drainRequests);
+    assertEquals(1, scheduler.dueCount());
+    assertEquals(List.of(7L), scheduler.pollDue(10));
+    assertTrue(scheduler.pollDue(10).isEmpty());
+  }
+
+  @Test
+  public void testTickShouldReconcileOnlyEveryInterval() {
+    ScheduleRepository repository = new ScheduleRepository();
+    AtomicLong now = new AtomicLong(epochMs(START));
+    OutboxRetryScheduler scheduler = scheduler(repository, new CountingPublisher(), now);
+    scheduler.reconcileIntervalSeconds = 60;
+
+    scheduler.tick();
+    now.addAndGet(59_000);
+    scheduler.tick();
+    now.addAndGet(1_000);
+    scheduler.tick();
+
+    assertEquals(2, repository.scheduleReads);
+  }
+
+  @Test
+  public void testFailedReconcileOnWheelThreadShouldStillAdvanceAndRetryLater() throws Exception {
+    ScheduleRepository repository = new ScheduleRepository();
+    repository.failuresLeft = 1;
+    repository.schedule.put(2L, START.plusSeconds(30));
+    CountingPublisher publisher = new CountingPublisher();
+    AtomicLong now = new AtomicLong(epochMs(START));
+    OutboxRetryScheduler scheduler = scheduler(repository, publisher, now);
+    scheduler.schedule(1L, START);
+
+    runOnWheelThread(scheduler::tick);
+
+    assertEquals(1, repository.scheduleReads);
+    assertEquals(List.of(1L), scheduler.pollDue(10));
+    assertEquals(1, publisher.drainRequests);
+
+    now.addAndGet(5_000);
+    runOnWheelThread(scheduler::tick);
+    assertEquals(1, repository.scheduleReads);
+
+    now.addAndGet(5_000);
+    runOnWheelThread(scheduler::tick);
+    assertEquals(2, repository.scheduleReads);
+    assertEquals(1, scheduler.scheduledCount());
+  }
+
+  @Test
+  public void testPollDueShouldHonourLimit() {
+    AtomicLong now = new AtomicLong(epochMs(START));
+    OutboxRetryScheduler scheduler = scheduler(new ScheduleRepository(), new CountingPublisher(), now);
+    scheduler.schedule(1L, START);
+    scheduler.schedule(2L, START);
+    scheduler.schedule(3L, START);
+    scheduler.tick();
+
+    assertEquals(2, scheduler.pollDue(2).size());
+    assertEquals(1, scheduler.pollDue(2).size());
+  }
+
+  @Test
+  public void testStartShouldStayInactiveWhenDisabled() {
+    OutboxRetryScheduler scheduler = new OutboxRetryScheduler();
+    scheduler.publisherEnabled = true;
+    scheduler.enabled = false;
+
+    scheduler.start();
+
+    assertFalse(scheduler.isActive());
+  }
+
+  private static OutboxRetryScheduler scheduler(
+      OutboxMessageRepository repository, OutboxPublisher publisher, AtomicLong now) {
+    OutboxRetryScheduler scheduler = new OutboxRetryScheduler();
+    scheduler.outboxMessageRepository = repository;
+    scheduler.outboxPublisher = publisher;
+    scheduler.clock = now::get;
+    scheduler.running = true;
+    return scheduler;
+  }
+
+  private static void runOnWheelThread(Runnable tick) throws Exception {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread thread = new Thread(tick, "outbox-retry-wheel");
+    thread.setUncaughtExceptionHandler((t, ex) -> failure.set(ex));
+    thread.start();
+    thread.join();
+    assertNull(failure.get());
+  }
+
+  private static long epochMs(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
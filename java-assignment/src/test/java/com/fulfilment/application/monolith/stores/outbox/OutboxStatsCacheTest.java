@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+public class OutboxStatsCacheTest {
+
+  private static class CountingOutboxRepository extends OutboxMessageRepository {
+    int calls;
+    LocalDateTime asOf = LocalDateTime.now();
+
+    @Override
+    public OutboxCounts countByState() {
+      calls++;
+      return new OutboxCounts(calls, 0, 0, 0, asOf);
+    }
+  }
+
+  @Test
+  public void testCountsShouldBeReusedWithinTtl() {
+    CountingOutboxRepository repository = new CountingOutboxRepository();
+    OutboxStatsCache cache = cache(repository, 60_000);
+
+    OutboxCounts first = cache.counts();
+    OutboxCounts second = cache.counts();
+
+    assertSame(first, second);
+    assertEquals(1, repository.calls);
+  }
+
+  @Test
+  public void testCountsShouldBeReloadedOnceStale() {
+    CountingOutboxRepository repository = new CountingOutboxRepository();
+    repository.asOf = LocalDateTime.now().minusSeconds(10);
+    OutboxStatsCache cache = cache(repository, 5_000);
+
+    cache.counts();
+    OutboxCounts reloaded = cache.counts();
+
+    assertEquals(2L, reloaded.pending);
+    assertEquals(2, repository.calls);
+  }
+
+  @Test
+  public void testInvalidateShouldForceReload() {
+    CountingOutboxRepository repository = new CountingOutboxRepository();
+    OutboxStatsCache cache = cache(repository, 60_000);
+
+    cache.counts();
+    cache.invalidate();
+    cache.counts();
+
+    assertEquals(2, repository.calls);
+  }
+
+  @Test
+  public void testAgeShouldBeMeasuredFromAsOf() {
+    OutboxStatsCache cache = cache(new CountingOutboxRepository(), 5_000);
+
+    long ageMs = cache.ageMs(new OutboxCounts(0, 0, 0, 0, LocalDateTime.now().minusSeconds(3)));
+
+    assertEquals(3, ageMs / 1_000);
+  }
+
+  private static OutboxStatsCache cache(OutboxMessageRepository repository, long ttlMs) {
+    OutboxStatsCache cache = new OutboxStatsCache();
+    cache.outboxMessageRepository = repository;
+    cache.ttlMs = ttlMs;
+    return cache;
+  }
+}
@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RetryTimingWheelTest {
+
+  @Test
+  public void testTimerShouldFireOnFirstTickAtOrAfterItsDueTime() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 0);
+    wheel.schedule(1L, 250);
+
+    assertTrue(wheel.advance(200).isEmpty());
+    assertEquals(List.of(1L), wheel.advance(300));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testTimerBeyondOneRotationShouldWaitForItsRound() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 0);
+    wheel.schedule(2L, 1650);
+
+    assertTrue(wheel.advance(900).isEmpty());
+    assertTrue(wheel.advance(1600).isEmpty());
+    assertEquals(List.of(2L), wheel.advance(1700));
+  }
+
+  @Test
+  public void testOverdueTimerShouldFireOnNextAdvance() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 1000);
+    wheel.schedule(3L, 500);
+
+    assertEquals(1, wheel.size());
+    assertEquals(List.of(3L), wheel.advance(1000));
+  }
+
+  @Test
+  public void testCancelShouldRemoveOverdueTimerAndKeepTheOthersInOrder() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 1000);
+    for (long id = 1; id <= 10_000; id++) {
+      wheel.schedule(id, 500);
+    }
+
+    assertTrue(wheel.cancel(5_000L));
+    assertFalse(wheel.cancel(5_000L));
+    assertEquals(9_999, wheel.size());
+    List<Long> due = wheel.advance(1000);
+    assertEquals(9_999, due.size());
+    assertEquals(4_999L, due.get(4_998));
+    assertEquals(5_001L, due.get(4_999));
+  }
+
+  @Test
+  public void testRescheduleShouldReplaceEarlierTimerForSameId() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 0);
+    wheel.schedule(4L, 200);
+    wheel.schedule(4L, 600);
+
+    assertTrue(wheel.advance(500).isEmpty());
+    assertEquals(List.of(4L), wheel.advance(600));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testCancelShouldRemoveTimer() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 0);
+    wheel.schedule(5L, 300);
+
+    assertTrue(wheel.cancel(5L));
+    assertTrue(wheel.advance(1000).isEmpty());
+  }
+
+  @Test
+  public void testLargeClockJumpShouldFireEverythingDueAndKeepTheRest() {
+    RetryTimingWheel wheel = new RetryTimingWheel(100, 8, 0);
+    wheel.schedule(6L, 300);
+    wheel.schedule(7L, 5000);
+    wheel.schedule(8L, 9000);
+
+    assertEquals(List.of(6L, 7L), wheel.advance(6000).stream().sorted().toList());
+    assertEquals(1, wheel.size());
+    assertTrue(wheel.advance(8900).isEmpty());
+    assertEquals(List.of(8L), wheel.advance(9000));
+  }
+
+  @Test
+  public void testConstructorShouldRejectInvalidGeometry() {
+    assertThrows(IllegalArgumentException.class, () -> new RetryTimingWheel(0, 8, 0));
+    assertThrows(IllegalArgumentException.class, () -> new RetryTimingWheel(100, 0, 0));
+  }
+}
@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.stores.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class SlidingWindowCounterTest {
+
+  @Test
+  public void testRateShouldAverageOverTheRequestedWindow() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(60);
+
+    counter.add(100, 30);
+    counter.add(130, 30);
+
+    assertEquals(1.0, counter.ratePerSecond(159, 60));
+    assertEquals(1.0, counter.ratePerSecond(130, 30));
+  }
+
+  @Test
+  public void testExpiredSecondsShouldDropOutOfTheWindow() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(60);
+
+    counter.add(100, 60);
+    counter.add(161, 6);
+
+    assertEquals(0.1, counter.ratePerSecond(161, 60), 0.0001);
+  }
+
+  @Test
+  public void testReusedSlotShouldStartFromZero() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(10);
+
+    counter.add(5, 100);
+    counter.add(15, 2);
+
+    assertEquals(0.2, counter.ratePerSecond(15, 10), 0.0001);
+  }
+
+  @Test
+  public void testWindowLargerThanCapacityShouldBeCapped() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(10);
+
+    counter.add(20, 50);
+
+    assertEquals(5.0, counter.ratePerSecond(20, 300));
+  }
+
+  @Test
+  public void testStaleSecondShouldNotResetANewerSlot() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(10);
+
+    counter.add(15, 4);
+    counter.add(5, 100);
+
+    assertEquals(0.4, counter.ratePerSecond(15, 10), 0.0001);
+  }
+
+  @Test
+  public void testNegativeSecondsShouldBeCounted() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(10);
+
+    counter.add(-25, 3);
+
+    assertEquals(0.3, counter.ratePerSecond(-25, 10), 0.0001);
+  }
+
+  @Test
+  public void testConcurrentAddsShouldNotLoseIncrementsWhenASlotRollsOver() throws Exception {
+    SlidingWindowCounter counter = new SlidingWindowCounter(4);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (int round = 1; round <= 200; round++) {
+        long second = round * 4L;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+          writers.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                      counter.add(second, 1);
+                    }
+                    return null;
+                  }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+          writer.get();
+        }
+
+        assertEquals(800 / 4.0, counter.ratePerSecond(second, 4));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -5,32 +5,54 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.common.CorrelationIdContext;
 import com.fulfilment.application.monolith.stores.Store;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class StoreOutboxServiceTest {
 
+  private static final OutboxPayloadCodecs CODECS = new OutboxPayloadCodecs(new ObjectMapper());
+
   private static class CapturingOutboxRepository extends OutboxMessageRepository {
     OutboxMessage created;
+    List<OutboxMessage> createdBatch;
+    int batchFlushSize;
 
     @Override
     public void create(OutboxMessage message) {
       this.created = message;
     }
+
+    @Override
+    public void createAll(List<OutboxMessage> messages, int flushSize) {
+      this.createdBatch = messages;
+      this.batchFlushSize = flushSize;
+    }
+  }
+
+  private static class CountingOutboxNotifier extends OutboxNotifier {
+    int enqueuedCount;
+
+    @Override
+    public void messagesEnqueued(int count) {
+      enqueuedCount += count;
+    }
   }
 
   @Test
   public void testEnqueueStoreChangedShouldCreateOutboxMessage() throws Exception {
     CapturingOutboxRepository repository = new CapturingOutboxRepository();
     StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
     service.outboxMessageRepository = repository;
-    service.objectMapper = new ObjectMapper();
     CorrelationIdContext correlationIdContext = new CorrelationIdContext();
     correlationIdContext.setCorrelationId("corr-123");
     service.correlationIdContext = correlationIdContext;
+    CountingOutboxNotifier notifier = new CountingOutboxNotifier();
+    service.outboxNotifier = notifier;
 
     Store store = new Store();
     store.id = 21L;
@@ -51,34 +73,151 @@ public class StoreOutboxServiceTest {
     assertEquals(0, repository.created.attempts);
     assertNotNull(repository.created.nextAttemptAt);
     assertNull(repository.created.lastError);
+    assertEquals(1, notifier.enqueuedCount);
 
-    StoreChangedEventPayload payload =
-        new ObjectMapper().readValue(repository.created.payloadJson, StoreChangedEventPayload.class);
+    StoreChangedEventPayload payload = decode(repository.created);
     assertEquals(21L, payload.storeId);
     assertEquals("Store-A", payload.name);
     assertEquals(9, payload.quantityProductsInStock);
   }
 
   @Test
-  public void testEnqueueStoreChangedShouldThrowWhenPayloadSerializationFails() {
+  public void testEnqueueStoreChangedShouldCreateBatchInOneRepositoryCall() throws Exception {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
+    service.outboxMessageRepository = repository;
+    CorrelationIdContext correlationIdContext = new CorrelationIdContext();
+    correlationIdContext.setCorrelationId("corr-bulk");
+    service.correlationIdContext = correlationIdContext;
+    CountingOutboxNotifier notifier = new CountingOutboxNotifier();
+    service.outboxNotifier = notifier;
+    service.flushSize = 250;
+
+    List<Store> stores = new ArrayList<>();
+    for (long id = 1; id <= 3; id++) {
+      Store store = new Store("Store-" + id);
+      store.id = id;
+      store.quantityProductsInStock = (int) id;
+      stores.add(store);
+    }
+
+    service.enqueueStoreChanged("StoreUpdated", stores);
+
+    assertNull(repository.created);
+    assertEquals(3, repository.createdBatch.size());
+    assertEquals(250, repository.batchFlushSize);
+    assertEquals(3, notifier.enqueuedCount);
+    assertEquals(3, repository.createdBatch.stream().map(message -> message.eventId).distinct().count());
+    for (int i = 0; i < 3; i++) {
+      OutboxMessage message = repository.createdBatch.get(i);
+      assertEquals(String.valueOf(i + 1), message.aggregateId);
+      assertEquals("StoreUpdated", message.eventType);
+      assertEquals("corr-bulk", message.correlationId);
+      assertEquals(message.createdAt, message.nextAttemptAt);
+      StoreChangedEventPayload payload = decode(message);
+      assertEquals("Store-" + (i + 1), payload.name);
+    }
+  }
+
+  @Test
+  public void testEnqueueStoreChangedShouldSkipEmptyBatch() {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
+    service.outboxMessageRepository = repository;
+    service.correlationIdContext = new CorrelationIdContext();
+    CountingOutboxNotifier notifier = new CountingOutboxNotifier();
+    service.outboxNotifier = notifier;
+
+    service.enqueueStoreChanged("StoreUpdated", List.of());
+
+    assertNull(repository.createdBatch);
+    assertEquals(0, notifier.enqueuedCount);
+  }
+
+  @Test
+  public void testEnqueueStoreChangedShouldCarryStoreVersion() throws Exception {
     CapturingOutboxRepository repository = new CapturingOutboxRepository();
     StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
     service.outboxMessageRepository = repository;
-    service.objectMapper =
-        new ObjectMapper() {
-          @Override
-          public String writeValueAsString(Object value) throws JsonProcessingException {
-            throw new JsonProcessingException("serialization failed") {};
-          }
-        };
     service.correlationIdContext = new CorrelationIdContext();
+    service.outboxNotifier = new CountingOutboxNotifier();
+    Store store = new Store("Store-V");
+    store.id = 30L;
+    store.version = 7L;
+
+    service.enqueueStoreChanged("StoreUpdated", store);
+    assertEquals(7L, repository.created.aggregateVersion);
+    assertEquals(7L, decode(repository.created).version);
+
+    service.enqueueStoreChanged(StoreOutboxService.STORE_DELETED, store);
+    assertEquals(8L, repository.created.aggregateVersion);
+  }
+
+  @Test
+  public void testEnqueueStoreChangedShouldLeaveVersionNullForUnversionedStore() throws Exception {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
+    service.outboxMessageRepository = repository;
+    service.correlationIdContext = new CorrelationIdContext();
+    service.outboxNotifier = new CountingOutboxNotifier();
+    Store store = new Store("Store-U");
+    store.id = 31L;
+
+    service.enqueueStoreChanged("StoreUpdated", store);
+
+    assertNull(repository.created.aggregateVersion);
+    assertNull(decode(repository.created).version);
+  }
+
+  @Test
+  public void testEnqueueStoreChangedShouldWriteJsonPayloadForSchemaVersion1() throws Exception {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
+    service.outboxMessageRepository = repository;
+    service.correlationIdContext = new CorrelationIdContext();
+    service.outboxNotifier = new CountingOutboxNotifier();
+    service.payloadSchemaVersion = JsonPayloadCodec.SCHEMA_VERSION;
+    Store store = new Store("Store-J");
+    store.id = 23L;
+    store.quantityProductsInStock = 6;
+
+    service.enqueueStoreChanged("StoreUpdated", store);
+
+    assertEquals(1, repository.created.schemaVersion);
+    assertNull(repository.created.payload);
+    StoreChangedEventPayload payload =
+        new ObjectMapper().readValue(repository.created.payloadJson, StoreChangedEventPayload.class);
+    assertEquals("Store-J", payload.name);
+  }
+
+  @Test
+  public void testEnqueueStoreChangedShouldThrowWhenSchemaVersionHasNoCodec() {
+    CapturingOutboxRepository repository = new CapturingOutboxRepository();
+    StoreOutboxService service = new StoreOutboxService();
+    service.payloadCodecs = CODECS;
+    service.outboxMessageRepository = repository;
+    service.correlationIdContext = new CorrelationIdContext();
+    CountingOutboxNotifier notifier = new CountingOutboxNotifier();
+    service.outboxNotifier = notifier;
+    service.payloadSchemaVersion = 99;
 
     Store store = new Store();
     store.id = 22L;
     store.name = "Store-B";
     store.quantityProductsInStock = 4;
 
-    assertThrows(IllegalStateException.class, () -> service.enqueueStoreChanged("StoreCreated", store));
+    assertThrows(OutboxPayloadException.class, () -> service.enqueueStoreChanged("StoreCreated", store));
     assertNull(repository.created);
+    assertEquals(0, notifier.enqueuedCount);
+  }
+
+  private static StoreChangedEventPayload decode(OutboxMessage message) {
+    return CODECS.forSchemaVersion(message.schemaVersion)
+        .decode(OutboxPayloadCodecs.encodedPayload(message));
   }
 }